@@ -0,0 +1,86 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.henryssondaniel.teacup.core.configuration.Factory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+@Disabled("Needs a SQL server that the teacup_report schema can be dropped on")
+class SchemaTest {
+  private final DataSource dataSource =
+      DefaultReporter.createMysqlDataSource(Factory.getProperties());
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    try (var connection = dataSource.getConnection();
+        var statement = connection.createStatement()) {
+      statement.execute("DROP DATABASE IF EXISTS `teacup_report`");
+    }
+  }
+
+  @Test
+  void migrateWhenPartitionedBySession() throws SQLException {
+    try (var connection = dataSource.getConnection()) {
+      Schema.migrate(connection, Partitioning.SESSION);
+
+      assertThat(getPartitions(connection, "log")).containsExactly(Partitioning.LAST);
+      assertThat(getPartitions(connection, "session_log")).containsExactly(Partitioning.LAST);
+    }
+  }
+
+  @Test
+  void migrateWhenPartitionedByTime() throws SQLException {
+    try (var connection = dataSource.getConnection()) {
+      Schema.migrate(connection, Partitioning.TIME);
+
+      assertThat(getPartitions(connection, "log")).containsExactly(Partitioning.LAST);
+      assertThat(getPartitions(connection, "session_log")).containsExactly(Partitioning.LAST);
+
+      try (var preparedStatement =
+          connection.prepareStatement(
+              "INSERT INTO `teacup_report`.`session_log`(level, message, session_execution, time) "
+                  + "VALUES('info', 'test', 1, ?)")) {
+        preparedStatement.setTimestamp(1, Timestamp.from(Instant.now()));
+        preparedStatement.execute();
+      }
+
+      var properties = new Properties();
+      properties.putAll(Factory.getProperties());
+      properties.setProperty("reporter.mysql.log.partition", "time");
+
+      new PartitionManager(new Configuration(properties)).maintain(connection, Instant.now());
+
+      assertThat(getPartitions(connection, "log")).hasSizeGreaterThan(1);
+      assertThat(getPartitions(connection, "session_log")).hasSizeGreaterThan(1);
+    }
+  }
+
+  private static List<String> getPartitions(Connection connection, String table)
+      throws SQLException {
+    List<String> partitions = new ArrayList<>(1);
+
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = 'teacup_report' AND TABLE_NAME = ? "
+                + "AND PARTITION_NAME IS NOT NULL")) {
+      preparedStatement.setString(1, table);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) partitions.add(resultSet.getString(1));
+      }
+    }
+
+    return partitions;
+  }
+}
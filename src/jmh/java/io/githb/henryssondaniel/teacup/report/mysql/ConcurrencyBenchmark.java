@@ -0,0 +1,87 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.reporting.Reporter;
+import io.github.henryssondaniel.teacup.core.testing.Factory;
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures the log throughput when many test threads share one reporter. The data source is a stub
+ * with a fixed latency per statement, so the scores compare the reporter itself. The score per
+ * thread should stay the same when the number of threads grows.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ConcurrencyBenchmark {
+  private static final int NODES = 32;
+
+  @Param({"100", "1000"})
+  public String batchSize;
+
+  @Param("50000")
+  public long latency;
+
+  private Node[] nodes;
+  private Reporter reporter;
+
+  @Benchmark
+  @Threads(1)
+  public void log1() {
+    log();
+  }
+
+  @Benchmark
+  @Threads(32)
+  public void log32() {
+    log();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void log8() {
+    log();
+  }
+
+  @Setup
+  public void setup() {
+    nodes = new Node[NODES];
+    for (var i = 0; i < NODES; i++)
+      nodes[i] = Factory.createNode("node" + i, Collections.emptyList());
+
+    var properties = new Properties();
+    properties.setProperty("reporter.mysql.batch.size", batchSize);
+
+    reporter = new DefaultReporter(StubDataSource.create(latency), properties);
+    reporter.initialize();
+    reporter.initialized(Arrays.asList(nodes));
+
+    for (var node : nodes) reporter.started(node);
+  }
+
+  @TearDown
+  public void tearDown() {
+    reporter.terminated();
+  }
+
+  private void log() {
+    reporter.log(
+        new LogRecord(Level.INFO, "message"),
+        nodes[(int) (Thread.currentThread().getId() % NODES)]);
+  }
+}
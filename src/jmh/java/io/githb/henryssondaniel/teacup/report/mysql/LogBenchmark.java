@@ -0,0 +1,53 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the cost of adding one log record to a batch, including its share of writing the batch
+ * to a data source without latency. Run with -prof gc to see the bytes allocated per record.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class LogBenchmark {
+  @Param({"false", "true"})
+  public boolean load;
+
+  private LogBatch logBatch;
+  private LogRecord logRecord;
+  private LogRecord parameterRecord;
+
+  @Benchmark
+  public void add() {
+    logBatch.add(1, logRecord);
+  }
+
+  @Benchmark
+  public void addWithParameters() {
+    logBatch.add(1, parameterRecord);
+  }
+
+  @Setup
+  public void setup() {
+    logBatch = new LogBatch(StubDataSource.create(0L), "log", "execution", 1000, 60_000L, load);
+    logRecord = new LogRecord(Level.INFO, "message");
+    parameterRecord = new LogRecord(Level.INFO, "message {0}");
+    parameterRecord.setParameters(new Object[] {"parameter"});
+  }
+
+  @TearDown
+  public void tearDown() {
+    logBatch.flush();
+  }
+}
@@ -0,0 +1,157 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.reporting.Reporter;
+import io.github.henryssondaniel.teacup.core.testing.Factory;
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import io.github.henryssondaniel.teacup.core.testing.Result;
+import io.github.henryssondaniel.teacup.core.testing.Status;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures every callback of the reporter against a stub data source with a simulated latency per
+ * statement. The node trees are flat (all nodes are roots), wide (one root with all nodes as
+ * children) or deep (every node is the child of the one before).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ReporterBenchmark {
+  private static final String NAME = "node";
+
+  @Param({"0", "50000"})
+  public long latency;
+
+  private Node node;
+  private Reporter reporter;
+  private Result result;
+
+  @Benchmark
+  public void finished(Registered registered) {
+    reporter.finished(registered.node, result);
+  }
+
+  @Benchmark
+  public void initialize() {
+    reporter.initialize();
+  }
+
+  @Benchmark
+  public void initialized(Tree tree) {
+    reporter.initialized(tree.nodes);
+  }
+
+  @Benchmark
+  public void log(Message message) {
+    reporter.log(message.logRecord, node);
+  }
+
+  @Setup
+  public void setup() {
+    node = Factory.createNode(NAME, Collections.emptyList());
+    reporter = new DefaultReporter(StubDataSource.create(latency));
+    result = Factory.createResult(Status.SUCCESSFUL, null);
+
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+  }
+
+  @Benchmark
+  public void skipped(Registered registered) {
+    reporter.skipped(registered.node, "reason");
+  }
+
+  @Benchmark
+  public void started(Registered registered) {
+    reporter.started(registered.node);
+  }
+
+  @TearDown
+  public void tearDown() {
+    reporter.terminated();
+  }
+
+  /** A log record with a message of the given size. */
+  @State(Scope.Thread)
+  public static class Message {
+    @Param({"16", "1024"})
+    public int messageSize;
+
+    private LogRecord logRecord;
+
+    @Setup
+    public void setup() {
+      logRecord = new LogRecord(Level.INFO, "m".repeat(messageSize));
+    }
+  }
+
+  /**
+   * A node registered in the session before every invocation, to be started, finished or skipped.
+   */
+  @State(Scope.Thread)
+  public static class Registered {
+    private Node node;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Invocation)
+    public void setup(ReporterBenchmark reporterBenchmark) {
+      node = Factory.createNode(NAME, Collections.emptyList());
+      reporterBenchmark.reporter.initialized(Collections.singletonList(node));
+    }
+  }
+
+  /** A node tree of the given shape and size. */
+  @State(Scope.Thread)
+  public static class Tree {
+    @Param({"deep", "flat", "wide"})
+    public String shape;
+
+    @Param("32")
+    public int size;
+
+    private Collection<Node> nodes;
+
+    @Setup
+    public void setup() {
+      nodes = createNodes(shape, size);
+    }
+
+    private static Collection<Node> createNodes(String shape, int size) {
+      List<Node> list = new ArrayList<>(size);
+
+      switch (shape) {
+        case "deep":
+          Node child = null;
+          for (var i = size - 1; i >= 0; i--)
+            child =
+                Factory.createNode(
+                    NAME + i,
+                    child == null ? Collections.emptyList() : Collections.singletonList(child));
+          list.add(child);
+          break;
+        case "wide":
+          for (var i = 1; i < size; i++)
+            list.add(Factory.createNode(NAME + i, Collections.emptyList()));
+          return Collections.singletonList(Factory.createNode(NAME, list));
+        default:
+          for (var i = 0; i < size; i++)
+            list.add(Factory.createNode(NAME + i, Collections.emptyList()));
+      }
+
+      return list;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.configuration.Factory;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the cost of preparing the statement of one log event, with and without the statement
+ * cache and server side prepared statements. Needs a MySQL server configured the same way as for
+ * the reporter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class StatementBenchmark {
+  private static final String SQL =
+      "INSERT INTO `teacup_report`.`log`(execution, level, message, time) VALUES(?, ?, ?, ?)";
+
+  @Param({"0", "50"})
+  public String cacheSize;
+
+  @Param({"false", "true"})
+  public String server;
+
+  private DataSource dataSource;
+
+  @Benchmark
+  public void prepare() throws SQLException {
+    try (var connection = dataSource.getConnection();
+        var preparedStatement = connection.prepareStatement(SQL)) {
+      preparedStatement.clearParameters();
+    }
+  }
+
+  @Setup
+  public void setup() {
+    var properties = new Properties();
+    properties.putAll(Factory.getProperties());
+    properties.setProperty("reporter.mysql.statement.cache.size", cacheSize);
+    properties.setProperty("reporter.mysql.statement.server", server);
+
+    dataSource = DefaultReporter.createMysqlDataSource(properties);
+
+    var reporter = new DefaultReporter(dataSource, properties);
+    reporter.initialize();
+    reporter.terminated();
+  }
+
+  @TearDown
+  public void tearDown() {
+    ((ConnectionPool) dataSource).close();
+  }
+}
@@ -0,0 +1,138 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import javax.sql.DataSource;
+
+/**
+ * Data source that never talks to a server. Every execution parks the calling thread for the
+ * configured latency, so that the benchmarks measure the reporter rather than MySQL. Queries echo
+ * one row per bound string, or as many rows as the limit, with increasing IDs. The schema is always
+ * up to date and the schema lock is always granted. Statements unwrap to any interface, such as the
+ * one of the connector that takes the local infile stream.
+ */
+final class StubDataSource {
+  private static final AtomicInteger ID = new AtomicInteger();
+
+  private StubDataSource() {}
+
+  static DataSource create(long latency) {
+    return proxy(
+        DataSource.class,
+        (proxy, method, args) ->
+            "getConnection".equals(method.getName())
+                ? proxy(Connection.class, new StatementHandler(latency, ""))
+                : defaultValue(method));
+  }
+
+  private static Object defaultValue(Method method) {
+    var type = method.getReturnType();
+
+    if (type == boolean.class) return false;
+    if (type == int.class) return 0;
+    if (type == long.class) return 0L;
+
+    return type == int[].class ? new int[0] : null;
+  }
+
+  private static <T> T proxy(Class<T> type, InvocationHandler invocationHandler) {
+    return type.cast(
+        Proxy.newProxyInstance(
+            StubDataSource.class.getClassLoader(), new Class<?>[] {type}, invocationHandler));
+  }
+
+  private static final class ResultSetHandler implements InvocationHandler {
+    private final List<String> names;
+    private final int rows;
+    private final int value;
+
+    private int row;
+
+    private ResultSetHandler(List<String> names, int rows, int value) {
+      this.names = names;
+      this.rows = rows;
+      this.value = value;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object... args) {
+      switch (method.getName()) {
+        case "getInt":
+          return value > 0 ? value : ID.incrementAndGet();
+        case "getString":
+          return names.get(row - 1);
+        case "next":
+          return ++row <= rows;
+        default:
+          return defaultValue(method);
+      }
+    }
+  }
+
+  private static final class StatementHandler implements InvocationHandler {
+    private final long latency;
+    private final List<String> names = new ArrayList<>(16);
+    private final String sql;
+
+    private int limit = 1;
+
+    private StatementHandler(long latency, String sql) {
+      this.latency = latency;
+      this.sql = sql;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object... args) {
+      switch (method.getName()) {
+        case "createStatement":
+          return proxy(PreparedStatement.class, new StatementHandler(latency, ""));
+        case "prepareStatement":
+          return proxy(PreparedStatement.class, new StatementHandler(latency, (String) args[0]));
+        case "execute":
+        case "executeBatch":
+        case "executeUpdate":
+          LockSupport.parkNanos(latency);
+          names.clear();
+          return defaultValue(method);
+        case "executeQuery":
+          LockSupport.parkNanos(latency);
+          return createResultSet();
+        case "getGeneratedKeys":
+          return proxy(ResultSet.class, new ResultSetHandler(names, 1, 0));
+        case "setInt":
+          limit = (int) args[1];
+          return null;
+        case "setString":
+          names.add((String) args[1]);
+          return null;
+        case "unwrap":
+          return proxy((Class<?>) args[0], this);
+        default:
+          return defaultValue(method);
+      }
+    }
+
+    private ResultSet createResultSet() {
+      var value = 0;
+      if (sql.startsWith("SELECT GET_LOCK")) value = 1;
+      else if (sql.startsWith("SELECT MAX(version)")) value = Schema.VERSION;
+
+      var resultSet =
+          proxy(
+              ResultSet.class,
+              new ResultSetHandler(
+                  new ArrayList<>(names), names.isEmpty() ? limit : names.size(), value));
+      names.clear();
+
+      return resultSet;
+    }
+  }
+}
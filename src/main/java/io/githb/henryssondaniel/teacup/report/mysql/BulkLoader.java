@@ -0,0 +1,149 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.configuration.Factory;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Loads the journals that were left behind in a journal directory into the database, for example
+ * after the database was unavailable until the tests ended. The journals are loaded in parallel,
+ * each over its own connection. Journals that are still being written are left alone.
+ *
+ * <p>Usage: {@code BulkLoader [directory] [threads]}. The directory defaults to the journal
+ * directory of the configuration and the threads to the number of processors. Nothing is loaded if
+ * the threads are not a positive number.
+ *
+ * @since 1.1
+ */
+public final class BulkLoader {
+  private static final Logger LOGGER = Logger.getLogger(BulkLoader.class.getName());
+  private static final String USAGE =
+      "Usage: BulkLoader [directory] [threads], where the threads are a positive number";
+
+  private BulkLoader() {}
+
+  /**
+   * Loads the journals.
+   *
+   * @param args the directory and the number of threads, both optional
+   * @since 1.1
+   */
+  public static void main(String... args) {
+    var threads =
+        args.length > 1 ? getThreads(args[1]) : Runtime.getRuntime().availableProcessors();
+
+    if (threads > 0) load(args.length > 0 ? args[0] : null, threads);
+    else LOGGER.log(Level.SEVERE, USAGE);
+  }
+
+  /**
+   * Returns the number of threads of an argument.
+   *
+   * @param argument the argument
+   * @return the number of threads, or 0 if the argument is not a positive number
+   */
+  static int getThreads(String argument) {
+    try {
+      return Math.max(0, Integer.parseInt(argument.trim()));
+    } catch (NumberFormatException e) {
+      LOGGER.log(Level.FINE, "The threads are not a number", e);
+      return 0;
+    }
+  }
+
+  static int load(Path directory, int threads, DataSource dataSource, Properties properties) {
+    var configuration = new Configuration(properties);
+    var idAllocator = new IdAllocator(configuration);
+    var nodeCache = new NodeCache(configuration);
+
+    // The records were filtered when they were journaled, and must not be journaled again
+    var loaderProperties =
+        configuration.without("journal.directory", "log.level", "log.rate", "log.sample");
+
+    Collection<Callable<Boolean>> tasks = new ArrayList<>(16);
+
+    try {
+      for (var id : Journal.getIds(directory))
+        tasks.add(
+            () ->
+                load(
+                    directory,
+                    id,
+                    new DefaultReporter(dataSource, loaderProperties, nodeCache, idAllocator)));
+    } catch (IOException e) {
+      LOGGER.log(Level.SEVERE, "Could not list the journals", e);
+      return 0;
+    }
+
+    var executorService = Executors.newFixedThreadPool(Math.max(1, threads));
+    var loaded = 0;
+
+    try {
+      for (var future : executorService.invokeAll(tasks)) if (future.get()) loaded++;
+    } catch (ExecutionException e) {
+      LOGGER.log(Level.SEVERE, "Could not load a journal", e);
+    } catch (InterruptedException e) {
+      LOGGER.log(Level.WARNING, "Interrupted while loading the journals", e);
+      Thread.currentThread().interrupt();
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    return loaded;
+  }
+
+  private static void load(String argument, int threads) {
+    var properties = Factory.getProperties();
+    var directory =
+        argument == null ? new Configuration(properties).getString("journal.directory") : argument;
+
+    if (directory == null) LOGGER.log(Level.SEVERE, "No journal directory");
+    else
+      LOGGER.log(
+          Level.INFO,
+          "Loaded {0} journals",
+          load(
+              Paths.get(directory),
+              threads,
+              DefaultReporter.createMysqlDataSource(properties),
+              properties));
+  }
+
+  private static boolean load(Path directory, String id, DefaultReporter reporter) {
+    var lock = directory.resolve(id + Journal.LOCK);
+    var loaded = false;
+
+    try (var fileChannel = FileChannel.open(lock, StandardOpenOption.WRITE);
+        var fileLock = fileChannel.tryLock()) {
+      if (fileLock == null) LOGGER.log(Level.INFO, "The journal {0} is still being written", id);
+      else loaded = new JournalReplayer(directory, id, reporter, null, 0L).replay();
+    } catch (OverlappingFileLockException e) {
+      LOGGER.log(Level.INFO, "The journal is still being written", e);
+    } catch (IOException e) {
+      LOGGER.log(Level.SEVERE, "Could not load the journal " + id, e);
+    }
+
+    if (loaded)
+      try {
+        Files.deleteIfExists(lock);
+      } catch (IOException e) {
+        LOGGER.log(Level.WARNING, "Could not delete the lock of the journal " + id, e);
+      }
+
+    return loaded;
+  }
+}
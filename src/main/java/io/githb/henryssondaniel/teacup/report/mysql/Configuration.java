@@ -0,0 +1,95 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads the reporter settings, all prefixed with reporter.mysql., from the Teacup properties.
+ *
+ * @since 1.1
+ */
+final class Configuration {
+  private static final Logger LOGGER = Logger.getLogger(Configuration.class.getName());
+  private static final String PREFIX = "reporter.mysql.";
+  private static final String SHARD = "shard.";
+
+  private final Properties properties;
+
+  Configuration(Properties properties) {
+    this.properties = properties;
+  }
+
+  /**
+   * Returns the properties of a shard. The settings prefixed with reporter.mysql.shard.[shard].
+   * replace the common ones, and the settings of the other shards are left out.
+   *
+   * @param shard the shard
+   * @return the properties
+   */
+  Properties forShard(int shard) {
+    var copy = new Properties();
+    var shards = PREFIX + SHARD;
+    var own = shards + shard + '.';
+
+    for (var name : properties.stringPropertyNames())
+      if (!name.startsWith(shards)) copy.setProperty(name, properties.getProperty(name));
+
+    for (var name : properties.stringPropertyNames())
+      if (name.startsWith(own))
+        copy.setProperty(PREFIX + name.substring(own.length()), properties.getProperty(name));
+
+    return copy;
+  }
+
+  boolean getBoolean(String key) {
+    return Boolean.parseBoolean(getString(key));
+  }
+
+  int getInt(String key, int defaultValue) {
+    return (int) getLong(key, defaultValue);
+  }
+
+  long getLong(String key, long defaultValue) {
+    var value = getString(key);
+    var number = defaultValue;
+
+    if (value != null)
+      try {
+        number = Long.parseLong(value.trim());
+      } catch (NumberFormatException e) {
+        LOGGER.log(
+            Level.WARNING,
+            "Invalid value {0} for {1}, using {2}",
+            new Object[] {value, key, number});
+      }
+
+    return number;
+  }
+
+  /**
+   * Returns the number of shards. The shards are numbered from 0 and a shard is defined by its
+   * server name.
+   *
+   * @return the number of shards, or 0 if the reporter is not sharded
+   */
+  int getShards() {
+    var shards = 0;
+    while (getString(SHARD + shards + ".server.name") != null) shards++;
+
+    return shards;
+  }
+
+  String getString(String key) {
+    return properties.getProperty(PREFIX + key);
+  }
+
+  Properties without(String... keys) {
+    var copy = new Properties();
+    copy.putAll(properties);
+
+    for (var key : keys) copy.remove(PREFIX + key);
+
+    return copy;
+  }
+}
@@ -0,0 +1,27 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a connection borrowed from the pool. The duration includes the time
+ * spent waiting for a free connection and opening a new one.
+ *
+ * @since 1.1
+ */
+@Category({"Teacup", "MySQL Reporter"})
+@Description("A connection borrowed from the pool of the reporter")
+@Label("Connection Acquire")
+@Name("io.githb.henryssondaniel.teacup.report.mysql.ConnectionAcquire")
+final class ConnectionEvent extends Event {
+  @Label("Borrowed")
+  @Description("Number of borrowed connections, including this one")
+  int borrowed;
+
+  @Label("Opened")
+  @Description("Whether a new connection had to be opened")
+  boolean opened;
+}
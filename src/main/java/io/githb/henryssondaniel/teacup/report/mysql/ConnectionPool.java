@@ -0,0 +1,327 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Lightweight connection pool. Connections are validated when borrowed if they have been idle for a
+ * while, evicted when they have been idle for too long and reported when they have been borrowed
+ * for too long. Once the pool is closed it hands out no more connections, and the connections that
+ * are still borrowed are closed when they are given back.
+ *
+ * @since 1.1
+ */
+final class ConnectionPool implements AutoCloseable, DataSource {
+  private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+  private static final long VALIDATION_INTERVAL = 500L;
+
+  private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+  private final DataSource dataSource;
+  private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+  private final long idleTimeout;
+  private final long leakThreshold;
+  private final int minimum;
+  private final Semaphore semaphore;
+  private final long timeout;
+  private final int validationTimeout;
+
+  private volatile boolean closed;
+  private ScheduledExecutorService scheduledExecutorService;
+
+  ConnectionPool(DataSource dataSource, Configuration configuration) {
+    this.dataSource = dataSource;
+    idleTimeout = configuration.getLong("pool.idle.timeout", 600_000L);
+    leakThreshold = configuration.getLong("pool.leak.threshold", 0L);
+    semaphore = new Semaphore(Math.max(1, configuration.getInt("pool.size.max", 10)), true);
+    minimum = Math.min(configuration.getInt("pool.size.min", 0), semaphore.availablePermits());
+    timeout = configuration.getLong("pool.timeout", 30_000L);
+    validationTimeout =
+        (int)
+            TimeUnit.MILLISECONDS.toSeconds(
+                configuration.getLong("pool.validation.timeout", 5_000L) + 999L);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+
+    synchronized (this) {
+      if (scheduledExecutorService != null) scheduledExecutorService.shutdownNow();
+    }
+
+    PooledConnection pooledConnection;
+    while ((pooledConnection = idle.pollFirst()) != null) pooledConnection.closePhysical();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    var event = new ConnectionEvent();
+    event.begin();
+
+    if (closed) throw new SQLException("The connection pool is closed");
+
+    startHousekeeping();
+
+    try {
+      if (!semaphore.tryAcquire(timeout, TimeUnit.MILLISECONDS))
+        throw new SQLException("Timed out after " + timeout + " ms waiting for a connection");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for a connection", e);
+    }
+
+    try {
+      var pooledConnection = borrowIdle();
+      event.opened = pooledConnection == null;
+
+      if (event.opened) pooledConnection = new PooledConnection(dataSource.getConnection());
+
+      var connection = pooledConnection.borrow();
+
+      if (event.shouldCommit()) {
+        event.borrowed = borrowed.size();
+        event.commit();
+      }
+
+      return connection;
+    } catch (SQLException | RuntimeException e) {
+      semaphore.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return dataSource.getConnection(username, password);
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return dataSource.getLogWriter();
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return dataSource.getLoginTimeout();
+  }
+
+  @Override
+  public Logger getParentLogger() {
+    return LOGGER;
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this) || iface.isInstance(dataSource) || dataSource.isWrapperFor(iface);
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) throws SQLException {
+    dataSource.setLogWriter(out);
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) throws SQLException {
+    dataSource.setLoginTimeout(seconds);
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) return iface.cast(this);
+
+    return iface.isInstance(dataSource) ? iface.cast(dataSource) : dataSource.unwrap(iface);
+  }
+
+  int getBorrowed() {
+    return borrowed.size();
+  }
+
+  int getIdle() {
+    return idle.size();
+  }
+
+  void housekeeping() {
+    var now = System.currentTimeMillis();
+
+    for (var pooledConnection : idle)
+      if (idle.size() + borrowed.size() > minimum
+          && now - pooledConnection.lastUsed > idleTimeout
+          && idle.remove(pooledConnection)) pooledConnection.closePhysical();
+
+    if (leakThreshold > 0L) for (var pooledConnection : borrowed) pooledConnection.detectLeak(now);
+
+    while (idle.size() + borrowed.size() < minimum && semaphore.tryAcquire())
+      try {
+        idle.offerLast(new PooledConnection(dataSource.getConnection()));
+      } catch (SQLException e) {
+        LOGGER.log(Level.WARNING, "Could not open a connection", e);
+        break;
+      } finally {
+        semaphore.release();
+      }
+  }
+
+  private PooledConnection borrowIdle() {
+    PooledConnection pooledConnection;
+
+    while ((pooledConnection = idle.pollFirst()) != null)
+      if (pooledConnection.isValid()) return pooledConnection;
+      else pooledConnection.closePhysical();
+
+    return null;
+  }
+
+  private static Thread createThread(Runnable runnable) {
+    var thread = new Thread(runnable, "teacup-mysql-pool");
+    thread.setDaemon(true);
+
+    return thread;
+  }
+
+  private void giveBack(PooledConnection pooledConnection) {
+    borrowed.remove(pooledConnection);
+
+    if (!closed && pooledConnection.reset()) {
+      idle.offerFirst(pooledConnection);
+
+      // the pool may have been closed in the meantime, after it closed the idle connections
+      if (closed && idle.remove(pooledConnection)) pooledConnection.closePhysical();
+    } else pooledConnection.closePhysical();
+
+    semaphore.release();
+  }
+
+  private synchronized void startHousekeeping() {
+    if (scheduledExecutorService == null) {
+      var period =
+          Math.max(
+              1_000L,
+              Math.min(idleTimeout, leakThreshold > 0L ? leakThreshold : Long.MAX_VALUE) / 2L);
+
+      scheduledExecutorService =
+          Executors.newSingleThreadScheduledExecutor(ConnectionPool::createThread);
+      scheduledExecutorService.scheduleWithFixedDelay(
+          this::housekeeping, 0L, period, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private final class PooledConnection implements InvocationHandler {
+    private final Connection connection;
+
+    private Exception borrowedAt;
+    private long borrowedTime;
+    private volatile long lastUsed = System.currentTimeMillis();
+    private boolean leaked;
+    private Connection proxy;
+
+    private PooledConnection(Connection connection) {
+      this.connection = connection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      var name = method.getName();
+
+      // answered by the proxy itself, so that a closed connection can still be kept in a collection
+      if ("equals".equals(name)) return proxy == args[0];
+      if ("hashCode".equals(name)) return System.identityHashCode(proxy);
+      if ("toString".equals(name)) return "Pooled " + connection;
+
+      synchronized (this) {
+        if (this.proxy != proxy) {
+          if ("close".equals(name)) return null;
+          if ("isClosed".equals(name)) return true;
+
+          throw new SQLException("The connection is closed");
+        }
+
+        if ("close".equals(name)) {
+          this.proxy = null;
+          giveBack(this);
+
+          return null;
+        }
+      }
+
+      try {
+        return method.invoke(connection, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+
+    private synchronized Connection borrow() {
+      borrowedAt = leakThreshold > 0L ? new Exception("Borrowed here") : null;
+      borrowedTime = System.currentTimeMillis();
+      leaked = false;
+      proxy =
+          (Connection)
+              Proxy.newProxyInstance(
+                  ConnectionPool.class.getClassLoader(), new Class<?>[] {Connection.class}, this);
+
+      borrowed.add(this);
+
+      return proxy;
+    }
+
+    private void closePhysical() {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        LOGGER.log(Level.FINE, "Could not close the connection", e);
+      }
+    }
+
+    private synchronized void detectLeak(long now) {
+      if (proxy != null && !leaked && now - borrowedTime > leakThreshold) {
+        leaked = true;
+        LOGGER.log(
+            Level.WARNING,
+            "A connection has been borrowed for more than " + leakThreshold + " ms",
+            borrowedAt);
+      }
+    }
+
+    private boolean isValid() {
+      try {
+        return System.currentTimeMillis() - lastUsed < VALIDATION_INTERVAL
+            || connection.isValid(validationTimeout);
+      } catch (SQLException e) {
+        LOGGER.log(Level.FINE, "Could not validate the connection", e);
+        return false;
+      }
+    }
+
+    private boolean reset() {
+      lastUsed = System.currentTimeMillis();
+
+      try {
+        if (!connection.getAutoCommit()) {
+          connection.rollback();
+          connection.setAutoCommit(true);
+        }
+
+        return !connection.isClosed();
+      } catch (SQLException e) {
+        LOGGER.log(Level.FINE, "Could not reset the connection", e);
+        return false;
+      }
+    }
+  }
+}
@@ -5,68 +5,72 @@ import io.github.henryssondaniel.teacup.core.configuration.Factory;
 import io.github.henryssondaniel.teacup.core.reporting.Reporter;
 import io.github.henryssondaniel.teacup.core.testing.Node;
 import io.github.henryssondaniel.teacup.core.testing.Result;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
 import javax.sql.DataSource;
 
 /**
  * Reporter that saves the logs into a MySQL database.
  *
+ * <p>One reporter can report several sessions at the same time, for example from launchers that run
+ * in parallel. A session belongs to the thread that initialized it and the nodes to the session
+ * they were initialized in. A callback that is not about a node of a session, from a thread without
+ * a session of its own, is logged and dropped, as it cannot be told which session it belongs to.
+ *
  * @since 1.0
  */
 public class DefaultReporter implements Reporter {
-  private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS ";
-  private static final String EXECUTION_FK =
-      " FOREIGN KEY (`execution`) REFERENCES `teacup_report`.`execution` (`id`)";
-  private static final String EXECUTION_INT = "`execution` INT UNSIGNED NOT NULL,";
-  private static final String GENERATED_ID_ERROR = "Could not retrieve the generated ID";
-  private static final String ID = "`id` INT UNSIGNED NOT NULL AUTO_INCREMENT,";
+  private static final IdAllocator ID_ALLOCATOR =
+      new IdAllocator(new Configuration(Factory.getProperties()));
   private static final String ID_ERROR =
       "{0} {1} but was not expected to do so. This might be because {2}";
-  private static final String LEVEL_ENUM =
-      "`level` ENUM('config', 'fine', 'finer', 'finest', 'info', 'severe', 'warning') NOT NULL,";
   private static final String LOG =
       "the session terminated before the node {1}, or the session was never initialized.";
   private static final Logger LOGGER = Logger.getLogger(DefaultReporter.class.getName());
-  private static final String MESSAGE_TEXT = "`message` TEXT NOT NULL,";
-  private static final String MYSQL_PROPERTY = "reporter.mysql.";
-  private static final String NO_ACTION = " ON DELETE NO ACTION ON UPDATE NO ACTION";
-  private static final Map<Level, Integer> ORDINALS = new HashMap<>(7);
-  private static final String PRIMARY_KEY = "PRIMARY KEY (`id`),";
+  private static final NodeCache NODE_CACHE =
+      new NodeCache(new Configuration(Factory.getProperties()));
   private static final Properties PROPERTIES = Factory.getProperties();
-  private static final String SESSION_EXECUTION_FK =
-      " FOREIGN KEY (`session_execution`) REFERENCES `teacup_report`.`session_execution` (`id`)";
-  private static final String TIME_TIMESTAMP = "`time` TIMESTAMP(3) NOT NULL,";
-  private static final String UNIQUE_INDEX_EXECUTION =
-      "UNIQUE INDEX `execution_UNIQUE` (`execution` ASC) VISIBLE,";
-  private static final String UNIQUE_INDEX_ID = "UNIQUE INDEX `id_UNIQUE` (`id` ASC) VISIBLE";
-
-  static {
-    ORDINALS.put(Level.CONFIG, 1);
-    ORDINALS.put(Level.FINE, 2);
-    ORDINALS.put(Level.FINER, 3);
-    ORDINALS.put(Level.FINEST, 4);
-    ORDINALS.put(Level.INFO, 5);
-    ORDINALS.put(Level.SEVERE, 6);
-    ORDINALS.put(Level.WARNING, 7);
-  }
-
+  private static final String SESSION_ERROR =
+      "{0} was dropped, as it is not about a node of a session and the calling thread has no"
+          + " session of its own";
+  private static final int STATEMENT_LENGTH = 2048;
+
+  private final long awaitTimeout;
+  private final Configuration configuration;
+  private final ConnectionPool connectionPool;
+  private final Map<Node, SessionContext> contexts = new ConcurrentHashMap<>(16);
+  private final ThreadLocal<SessionContext> current = new ThreadLocal<>();
   private final DataSource dataSource;
-  private final Map<Node, Integer> map = new HashMap<>(0);
-
-  private int sessionId;
+  private final boolean deferred;
+  private final LongAdder failures = new LongAdder();
+  private final IdAllocator idAllocator;
+  private final Journal journal;
+  private final LogBatch logBatch;
+  private final LogFilter logFilter;
+  private final Map<Node, Integer> map = new ConcurrentHashMap<>(16);
+  private final Metrics metrics;
+  private final NodeCache nodeCache;
+  private final NodeStatistics nodeStatistics = new NodeStatistics();
+  private final PartitionManager partitionManager;
+  private final JournalReplayer replayer;
+  private final RetentionPurge retentionPurge;
+  private final LogBatch sessionLogBatch;
+  private final Map<Integer, SessionContext> sessions = new ConcurrentHashMap<>(4);
+  private final Map<Node, Long> startedTimes = new ConcurrentHashMap<>(16);
+  private final long summaryInterval;
+  private final WriteBehind writeBehind;
 
   /**
    * Constructor.
@@ -74,21 +78,85 @@ public class DefaultReporter implements Reporter {
    * @since 1.0
    */
   public DefaultReporter() {
-    this(createMysqlDataSource());
+    this(createMysqlDataSource(PROPERTIES), PROPERTIES, NODE_CACHE, ID_ALLOCATOR);
+    Runtime.getRuntime().addShutdownHook(new Thread(this::close, "teacup-mysql-shutdown"));
   }
 
   DefaultReporter(DataSource dataSource) {
-    this.dataSource = dataSource;
+    this(dataSource, PROPERTIES);
+  }
+
+  DefaultReporter(DataSource dataSource, Properties properties) {
+    this(
+        dataSource,
+        properties,
+        new NodeCache(new Configuration(properties)),
+        new IdAllocator(new Configuration(properties)));
+  }
+
+  DefaultReporter(
+      DataSource dataSource, Properties properties, NodeCache nodeCache, IdAllocator idAllocator) {
+    var configuration = new Configuration(properties);
+    var metered = new Metrics(configuration.getBoolean("metrics"));
+
+    var age = configuration.getLong("batch.age", 1_000L);
+    var load = configuration.getBoolean("log.load");
+    var retention = configuration.getLong("retention.days", 0L);
+    var size = configuration.getInt("batch.size", 1);
+
+    awaitTimeout = configuration.getLong("async.timeout", 60_000L);
+    this.configuration = configuration;
+    connectionPool = dataSource instanceof ConnectionPool ? (ConnectionPool) dataSource : null;
+    this.dataSource = metered.isEnabled() ? new MeteredDataSource(dataSource, metered) : dataSource;
+    deferred = configuration.getBoolean("result.deferred");
+    this.idAllocator = idAllocator;
+    journal = createJournal(configuration);
+    logBatch = new LogBatch(this.dataSource, "log", "execution", size, age, load);
+    logFilter = new LogFilter(configuration);
+    metrics = metered;
+    this.nodeCache = nodeCache;
+    partitionManager = new PartitionManager(configuration);
+    replayer =
+        journal == null
+            ? null
+            : startReplayer(
+                journal,
+                new DefaultReporter(
+                    dataSource,
+                    configuration.without(
+                        "journal.directory", "log.level", "log.rate", "log.sample"),
+                    nodeCache,
+                    idAllocator),
+                configuration.getLong("journal.retry", 5_000L));
+    retentionPurge =
+        retention > 0L ? new RetentionPurge(this.dataSource, configuration, retention) : null;
+    sessionLogBatch =
+        new LogBatch(this.dataSource, "session_log", "session_execution", size, age, load);
+    summaryInterval = configuration.getLong("summary.interval", 10_000L);
+    writeBehind =
+        configuration.getBoolean("async")
+            ? new WriteBehind(
+                configuration.getInt("async.writers", 1),
+                configuration.getInt("async.queue.size", 10_000))
+            : null;
+
+    registerMetrics();
   }
 
   @Override
   public void finished(Node node, Result result) {
+    var start = metrics.start();
+
     LOGGER.log(Level.FINE, "Finished");
 
-    if (sessionId > 0) {
+    if (journal != null) {
+      journalSummary(node);
+      checkJournaled(journal.finished(node, result), "finished");
+    } else if (!sessions.isEmpty()) {
+      var context = contexts.remove(node);
       var id = map.remove(node);
 
-      if (id == null)
+      if (context == null || id == null)
         LOGGER.log(
             Level.WARNING,
             ID_ERROR,
@@ -98,85 +166,155 @@ public class DefaultReporter implements Reporter {
               "it has already finished or was never initialized. or the session terminated before "
                   + "the node finished."
             });
-      else
-        try (var connection = dataSource.getConnection()) {
-          updateResult(connection, id, node, result);
-        } catch (SQLException e) {
-          LOGGER.log(Level.WARNING, "Could not update the result", e);
-        }
+      else if (deferred) {
+        context.getNodes().remove(node);
+
+        var started = startedTimes.remove(node);
+        var summary = context.getLogFilter().summarize(node);
+        count(context, id, started == null ? 0L : started, node, result);
+
+        write(
+            node,
+            () -> {
+              insertLog(id, summary, 0);
+              logBatch.flush();
+              insertResult(id, started, node, result);
+            });
+      } else {
+        context.getNodes().remove(node);
+
+        var summary = context.getLogFilter().summarize(node);
+        count(context, id, node.getTimeStarted(), node, result);
+
+        write(
+            node,
+            () -> {
+              insertLog(id, summary, 0);
+              logBatch.flush();
+              updateResult(id, node, result);
+            });
+      }
     } else LOGGER.log(Level.WARNING, ID_ERROR, new Object[] {node.getName(), "finished", LOG});
+
+    metrics.stop("callback.finished", start);
   }
 
   @Override
   public void initialize() {
-    try (var connection = dataSource.getConnection()) {
-      createSchema(connection);
-      createNode(connection);
-      createSessionExecution(connection);
-      createSessionLog(connection);
-      createExecution(connection);
-      createLog(connection);
-      createSkipped(connection);
-      createReason(connection);
-      createResult(connection);
-      createError(connection);
-
-      insertSessionExecution(connection);
-    } catch (SQLException e) {
-      LOGGER.log(Level.SEVERE, "Could not initialize the database", e);
-    }
+    var start = metrics.start();
+
+    current.remove();
+
+    if (journal != null) journal.initialize();
+    else
+      try (var connection = dataSource.getConnection()) {
+        Schema.migrate(connection, partitionManager.getPartitioning());
+        idAllocator.check(connection);
+        partitionManager.maintain(connection, Instant.now());
+        insertSessionExecution(connection);
+        nodeCache.preload(connection);
+      } catch (SQLException e) {
+        failures.increment();
+        LOGGER.log(Level.SEVERE, "Could not initialize the database", e);
+      }
+
+    metrics.stop("callback.initialize", start);
   }
 
   @Override
   public void initialized(Collection<? extends Node> nodes) {
+    var start = metrics.start();
+
     LOGGER.log(Level.FINE, "Initialized");
 
-    if (sessionId > 0 && !nodes.isEmpty())
+    var context = journal == null ? getContext("initialized") : null;
+
+    if (journal != null) checkJournaled(journal.initialized(nodes), "initialized");
+    else if (context != null && !nodes.isEmpty())
       try (var connection = dataSource.getConnection()) {
-        insertExecutions(connection, nodes);
+        var ids =
+            Registration.register(
+                connection, context.getId(), nodes, nodeCache, idAllocator, !deferred);
+
+        for (var node : ids.keySet()) contexts.put(node, context);
+        context.getNodes().addAll(ids.keySet());
+        map.putAll(ids);
       } catch (SQLException e) {
-        LOGGER.log(Level.WARNING, "Could not establish a connection to the database", e);
+        failures.increment();
+        LOGGER.log(Level.WARNING, "Could not insert the executions", e);
       }
+
+    metrics.stop("callback.initialized", start);
   }
 
   @Override
   public void log(LogRecord logRecord, Node node) {
+    var start = metrics.start();
+
     LOGGER.log(Level.FINE, "Log");
 
-    if (sessionId > 0)
-      try (var connection = dataSource.getConnection()) {
-        var optionalId = Optional.ofNullable(map.get(node));
+    var context = journal == null ? getContext(node, "log") : null;
 
-        if (optionalId.isPresent()) insertLog(connection, optionalId.get(), logRecord);
-        else insertSessionLog(connection, logRecord);
-      } catch (SQLException e) {
-        LOGGER.log(Level.SEVERE, "Could not insert the log", e);
-      }
+    if (!(context == null ? logFilter : context.getLogFilter()).admit(logRecord, node))
+      metrics.count("log.suppressed");
+    else if (journal != null) checkJournaled(journal.log(logRecord, node), "log");
+    else if (context != null) {
+      var id = node == null ? null : map.get(node);
+      var session = context.getId();
+      write(node, () -> insertLog(id, logRecord, session));
+    }
+
+    metrics.stop("callback.log", start);
   }
 
   @Override
   public void skipped(Node node, String reason) {
+    var start = metrics.start();
+
     LOGGER.log(Level.INFO, "Skipped");
 
-    if (sessionId > 0) {
+    if (journal != null) {
+      journalSummary(node);
+      checkJournaled(journal.skipped(node, reason), "skipped");
+    } else if (!sessions.isEmpty()) {
+      var context = contexts.remove(node);
       var id = map.remove(node);
 
-      if (id == null)
+      if (context == null || id == null)
         LOGGER.log(
             Level.WARNING,
             ID_ERROR,
             new Object[] {
               node.getName(), "skipped", "it has already skipped or was never initialized"
             });
-      else insertSkipped(id, reason);
+      else {
+        context.getNodes().remove(node);
+        context.getSessionSummary().skipped();
+        startedTimes.remove(node);
+
+        var summary = context.getLogFilter().summarize(node);
+
+        write(
+            node,
+            () -> {
+              insertLog(id, summary, 0);
+              logBatch.flush();
+              insertSkipped(id, reason);
+            });
+      }
     } else LOGGER.log(Level.WARNING, ID_ERROR, new Object[] {node.getName(), "skipped", LOG});
+
+    metrics.stop("callback.skipped", start);
   }
 
   @Override
   public void started(Node node) {
+    var start = metrics.start();
+
     LOGGER.log(Level.FINE, "Started");
 
-    if (sessionId > 0) {
+    if (journal != null) checkJournaled(journal.started(node), "started");
+    else if (!sessions.isEmpty()) {
       var id = map.get(node);
 
       if (id == null)
@@ -184,30 +322,54 @@ public class DefaultReporter implements Reporter {
             Level.WARNING,
             ID_ERROR,
             new Object[] {node.getName(), "started", "it was never initialized"});
-      else
-        try (var connection = dataSource.getConnection();
-            var preparedStatement =
-                connection.prepareStatement(
-                    "UPDATE `teacup_report`.`result` SET started = ? WHERE id = ?")) {
-          preparedStatement.setTimestamp(1, new Timestamp(node.getTimeStarted()));
-          preparedStatement.setInt(2, id);
-
-          preparedStatement.execute();
-        } catch (SQLException e) {
-          LOGGER.log(Level.WARNING, "Could not update result", e);
-        }
+      else if (deferred) startedTimes.put(node, node.getTimeStarted());
+      else write(node, () -> updateStarted(id, node));
     } else LOGGER.log(Level.WARNING, ID_ERROR, new Object[] {node.getName(), "started", LOG});
+
+    metrics.stop("callback.started", start);
   }
 
   @Override
   public void terminated() {
+    var start = metrics.start();
+
     LOGGER.log(Level.FINE, "Terminated");
 
-    if (sessionId > 0) {
-      var id = sessionId;
+    var context = journal == null ? getContext("terminated") : null;
+
+    if (journal != null) {
+      logFilter.summarize((node, summary) -> journal.log(summary, node));
+      checkJournaled(journal.terminated(), "terminated");
 
-      map.clear();
-      sessionId = 0;
+      if (!replayer.await(awaitTimeout))
+        LOGGER.log(
+            Level.WARNING,
+            "The journal was not replayed within {0} ms, the rest will be replayed in the background",
+            awaitTimeout);
+    } else if (context != null && sessions.remove(context.getId()) != null) {
+      if (current.get() == context) current.remove();
+
+      var id = context.getId();
+
+      context
+          .getLogFilter()
+          .summarize(
+              (node, summary) -> insertLog(node == null ? null : map.get(node), summary, id));
+
+      for (var node : context.getNodes()) {
+        contexts.remove(node);
+        map.remove(node);
+        startedTimes.remove(node);
+      }
+
+      if (writeBehind != null && !writeBehind.await(awaitTimeout))
+        LOGGER.log(
+            Level.WARNING,
+            "Not everything was written within {0} ms, the rest will be written in the background",
+            awaitTimeout);
+
+      logBatch.flush();
+      sessionLogBatch.flush();
 
       try (var connection = dataSource.getConnection();
           var preparedStatement =
@@ -216,370 +378,357 @@ public class DefaultReporter implements Reporter {
         preparedStatement.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
         preparedStatement.setInt(2, id);
 
-        preparedStatement.execute();
+        StatementEvent.execute(preparedStatement, "update session_execution", null);
+
+        context.getSessionSummary().terminate(connection);
+        nodeStatistics.flush(connection);
       } catch (SQLException e) {
+        failures.increment();
         LOGGER.log(Level.WARNING, "Could not terminate the session", e);
       }
-    }
-  }
 
-  private static void createError(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + "`teacup_report`.`error` ("
-              + ID
-              + MESSAGE_TEXT
-              + "  `result` INT UNSIGNED NOT NULL,"
-              + PRIMARY_KEY
-              + UNIQUE_INDEX_ID
-              + ','
-              + "  UNIQUE INDEX `result_UNIQUE` (`result` ASC) VISIBLE,"
-              + "  CONSTRAINT `error_result`"
-              + "    FOREIGN KEY (`result`)"
-              + "    REFERENCES `teacup_report`.`result` (`id`)"
-              + NO_ACTION
-              + ");");
+      if (retentionPurge != null) startPurge(retentionPurge);
     }
-  }
 
-  private static void createExecution(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + "`teacup_report`.`execution` ("
-              + ID
-              + "  `node` INT UNSIGNED NOT NULL,"
-              + "  `session_execution` INT UNSIGNED NOT NULL,"
-              + PRIMARY_KEY
-              + UNIQUE_INDEX_ID
-              + ','
-              + "  INDEX `execution.nod_idx` (`node` ASC) VISIBLE,"
-              + "  INDEX `execution.session_execution_idx` (`session_execution` ASC) VISIBLE,"
-              + "  CONSTRAINT `execution.node`"
-              + "    FOREIGN KEY (`node`)"
-              + "    REFERENCES `teacup_report`.`node` (`id`)"
-              + NO_ACTION
-              + ','
-              + "  CONSTRAINT `execution.session_execution`"
-              + SESSION_EXECUTION_FK
-              + NO_ACTION
-              + ");");
-    }
+    metrics.stop("callback.terminated", start);
   }
 
-  private static void createLog(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + "`teacup_report`.`log` ("
-              + EXECUTION_INT
-              + ID
-              + LEVEL_ENUM
-              + MESSAGE_TEXT
-              + TIME_TIMESTAMP
-              + PRIMARY_KEY
-              + UNIQUE_INDEX_ID
-              + ','
-              + "  INDEX `log.execution_idx` (`execution` ASC) VISIBLE,"
-              + "  CONSTRAINT `log.execution`"
-              + EXECUTION_FK
-              + NO_ACTION
-              + ");");
-    }
+  /**
+   * Returns the metrics of the reporter. They are only recorded if reporter.mysql.metrics is true,
+   * in which case they are also registered as an MBean.
+   *
+   * @return the metrics
+   * @since 1.1
+   */
+  public ReporterMetricsMXBean getMetrics() {
+    return metrics;
   }
 
-  private static DataSource createMysqlDataSource() {
-    var mysqlDataSource = new MysqlDataSource();
-    mysqlDataSource.setPassword(PROPERTIES.getProperty(MYSQL_PROPERTY + "password"));
-    mysqlDataSource.setServerName(PROPERTIES.getProperty(MYSQL_PROPERTY + "server.name"));
-    mysqlDataSource.setUser(PROPERTIES.getProperty(MYSQL_PROPERTY + "user"));
-
-    return mysqlDataSource;
-  }
-
-  private static void createNode(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + "`teacup_report`.`node` ("
-              + ID
-              + "  `name` VARCHAR(255) NOT NULL,"
-              + PRIMARY_KEY
-              + UNIQUE_INDEX_ID
-              + ','
-              + "  UNIQUE INDEX `name_UNIQUE` (`name` ASC) VISIBLE);");
-    }
-  }
+  /**
+   * Writes what is still queued, batched or journaled and closes the connection pool, which the
+   * reporter that replays the journal shares. The public constructor calls it when the JVM shuts
+   * down.
+   */
+  void close() {
+    if (replayer != null && !replayer.await(awaitTimeout))
+      LOGGER.log(Level.WARNING, "The journal was not replayed within {0} ms", awaitTimeout);
 
-  private static void createReason(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + "`teacup_report`.`reason` ("
-              + ID
-              + "  `reason` TEXT NOT NULL,"
-              + "  `skipped` INT UNSIGNED NOT NULL,"
-              + PRIMARY_KEY
-              + UNIQUE_INDEX_ID
-              + ','
-              + "  UNIQUE INDEX `skipped_UNIQUE` (`skipped` ASC) VISIBLE,"
-              + "  CONSTRAINT `reason.skipped`"
-              + "    FOREIGN KEY (`skipped`)"
-              + "    REFERENCES `teacup_report`.`skipped` (`id`)"
-              + NO_ACTION
-              + ");");
-    }
-  }
+    if (writeBehind != null && !writeBehind.await(awaitTimeout))
+      LOGGER.log(Level.WARNING, "Not everything was written within {0} ms", awaitTimeout);
 
-  private static void createResult(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + "`teacup_report`.`result` ("
-              + EXECUTION_INT
-              + "  `finished` TIMESTAMP(3) NULL,"
-              + ID
-              + "  `started` TIMESTAMP(3) NULL,"
-              + "  `status` ENUM('aborted', 'failed', 'successful') NULL,"
-              + PRIMARY_KEY
-              + UNIQUE_INDEX_ID
-              + ','
-              + UNIQUE_INDEX_EXECUTION
-              + "  CONSTRAINT `result.execution`"
-              + EXECUTION_FK
-              + NO_ACTION
-              + ");");
-    }
-  }
+    logBatch.flush();
+    sessionLogBatch.flush();
 
-  private static void createSchema(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute("CREATE SCHEMA IF NOT EXISTS teacup_report");
-    }
+    if (replayer != null) replayer.getReporter().close();
+    if (connectionPool != null) connectionPool.close();
   }
 
-  private static void createSessionExecution(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + "`teacup_report`.`session_execution` ("
-              + ID
-              + "  `initialized` TIMESTAMP(3) NOT NULL DEFAULT NOW(3),"
-              + "  `terminated_time` TIMESTAMP(3) NULL,"
-              + PRIMARY_KEY
-              + UNIQUE_INDEX_ID
-              + ");");
-    }
-  }
+  static DataSource createMysqlDataSource(Properties properties) {
+    var configuration = new Configuration(properties);
+    var cacheSize = configuration.getInt("statement.cache.size", 50);
 
-  private static void createSessionLog(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + "`teacup_report`.`session_log` ("
-              + ID
-              + LEVEL_ENUM
-              + MESSAGE_TEXT
-              + "  `session_execution` INT UNSIGNED NOT NULL,"
-              + TIME_TIMESTAMP
-              + PRIMARY_KEY
-              + UNIQUE_INDEX_ID
-              + ','
-              + "  INDEX `session_log.session_execution_idx` (`session_execution` ASC) VISIBLE,"
-              + "  CONSTRAINT `session_log.session_execution`"
-              + SESSION_EXECUTION_FK
-              + NO_ACTION
-              + ");");
+    var mysqlDataSource = new MysqlDataSource();
+    mysqlDataSource.setPassword(configuration.getString("password"));
+    mysqlDataSource.setServerName(configuration.getString("server.name"));
+    mysqlDataSource.setUser(configuration.getString("user"));
+
+    try {
+      mysqlDataSource.setAllowLoadLocalInfile(configuration.getBoolean("log.load"));
+      mysqlDataSource.setCachePrepStmts(cacheSize > 0);
+      mysqlDataSource.setPrepStmtCacheSize(cacheSize);
+      mysqlDataSource.setPrepStmtCacheSqlLimit(STATEMENT_LENGTH);
+      mysqlDataSource.setRewriteBatchedStatements(true);
+      mysqlDataSource.setUseServerPrepStmts(configuration.getBoolean("statement.server"));
+    } catch (SQLException e) {
+      LOGGER.log(Level.WARNING, "Could not configure the data source", e);
     }
-  }
 
-  private static void createSkipped(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          CREATE_TABLE
-              + "`teacup_report`.`skipped` ("
-              + EXECUTION_INT
-              + ID
-              + PRIMARY_KEY
-              + UNIQUE_INDEX_ID
-              + ','
-              + UNIQUE_INDEX_EXECUTION
-              + "  CONSTRAINT `skipped.execution`"
-              + EXECUTION_FK
-              + NO_ACTION
-              + ");");
-    }
+    return new ConnectionPool(mysqlDataSource, configuration);
   }
 
-  private static void executeLogStatement(
-      int id, LogRecord logRecord, PreparedStatement preparedStatement) throws SQLException {
-    preparedStatement.setInt(1, id);
-    preparedStatement.setInt(2, ORDINALS.get(logRecord.getLevel()));
-    preparedStatement.setString(3, new SimpleFormatter().formatMessage(logRecord));
-    preparedStatement.setTimestamp(4, new Timestamp(logRecord.getMillis()));
+  /**
+   * Drops a session that could not be written completely without writing anything more of it. The
+   * writes that are still queued are done first, so that nothing of the session is written after it
+   * is deleted.
+   *
+   * @param context the session
+   */
+  void discard(SessionContext context) {
+    sessions.remove(context.getId());
+    if (current.get() == context) current.remove();
+
+    for (var node : context.getNodes()) {
+      contexts.remove(node);
+      map.remove(node);
+      startedTimes.remove(node);
+    }
 
-    preparedStatement.execute();
-  }
+    context.getSessionSummary().discard();
 
-  private static Optional<Integer> getId(Statement statement) {
-    Integer id = null;
+    if (writeBehind != null && !writeBehind.await(awaitTimeout))
+      LOGGER.log(Level.WARNING, "Not everything was written within {0} ms", awaitTimeout);
 
-    try (var resultSet = statement.getGeneratedKeys()) {
-      if (resultSet.next()) id = resultSet.getInt(1);
-      else LOGGER.log(Level.WARNING, GENERATED_ID_ERROR);
-    } catch (SQLException e) {
-      LOGGER.log(Level.WARNING, GENERATED_ID_ERROR, e);
-    }
+    logBatch.flush();
+    sessionLogBatch.flush();
+  }
 
-    return Optional.ofNullable(id);
+  /**
+   * Returns how many writes have failed, the writes of the log batches and session summaries
+   * included. The {@link JournalReplayer} compares it before and after it replays a record to know
+   * if the session has to be replayed again.
+   *
+   * @return the number of failed writes
+   */
+  long getFailures() {
+    return failures.sum() + logBatch.getFailures() + sessionLogBatch.getFailures();
   }
 
-  private static void insertError(Connection connection, Integer id, Throwable throwable) {
-    try (var preparedStatement =
-        connection.prepareStatement(
-            "INSERT INTO `teacup_report`.`error`(message, result) VALUES(?, ?)")) {
-      preparedStatement.setString(1, throwable.getMessage());
-      preparedStatement.setInt(2, id);
+  /**
+   * Returns the session of the calling thread, if it is initialized and not yet terminated.
+   *
+   * @return the session, or null if the thread has none
+   */
+  SessionContext getSession() {
+    var context = current.get();
+    return context != null && sessions.containsKey(context.getId()) ? context : null;
+  }
 
-      preparedStatement.execute();
+  /**
+   * Deletes a session and everything that was written of it.
+   *
+   * @param session the ID of the session
+   * @return true if the session was deleted, otherwise false
+   */
+  boolean purge(int session) {
+    try (var connection = dataSource.getConnection()) {
+      new RetentionPurge(dataSource, configuration, 0L).purge(connection, session);
+      return true;
     } catch (SQLException e) {
-      LOGGER.log(Level.WARNING, "Could not insert the error", e);
+      LOGGER.log(Level.WARNING, "Could not delete the session " + session, e);
+      return false;
     }
   }
 
-  private void insertExecution(
-      Connection connection, Node node, PreparedStatement preparedStatement) throws SQLException {
-    try (var resultSet = preparedStatement.executeQuery()) {
-      insertExecution(
-          connection, resultSet.next() ? resultSet.getInt(1) : insertNode(connection, node), node);
-    }
+  /**
+   * Makes a session the session of the calling thread, so that a thread can report several sessions
+   * one after the other.
+   *
+   * @param context the session
+   */
+  void setSession(SessionContext context) {
+    current.set(context);
   }
 
-  private void insertExecution(Connection connection, int id, Node node) throws SQLException {
-    if (id > 0)
-      try (var preparedStatement =
-          connection.prepareStatement(
-              "INSERT INTO `teacup_report`.`execution`(`node`, `session_execution`) VALUES(?, ?)",
-              Statement.RETURN_GENERATED_KEYS)) {
-        preparedStatement.setInt(1, id);
-        preparedStatement.setInt(2, sessionId);
+  private static void checkJournaled(boolean journaled, String callback) {
+    if (!journaled) LOGGER.log(Level.WARNING, SESSION_ERROR, callback);
+  }
 
-        preparedStatement.execute();
+  private void count(SessionContext context, int id, long started, Node node, Result result) {
+    var finished = node.getTimeFinished();
+    var status = result.getStatus();
 
-        getId(preparedStatement)
-            .ifPresent(executionId -> insertResult(connection, executionId, node));
-      }
+    nodeStatistics.record(id, status, started, finished);
+    context.getSessionSummary().finished(status, started, finished);
   }
 
-  private void insertExecutions(Connection connection, Iterable<? extends Node> nodes) {
-    for (var node : nodes) {
-      try (var preparedStatement =
-          connection.prepareStatement("SELECT id FROM `teacup_report`.`node` WHERE name = ?")) {
-        preparedStatement.setString(1, node.getName());
+  private static Journal createJournal(Configuration configuration) {
+    var directory = configuration.getString("journal.directory");
+    Journal journal = null;
 
-        insertExecution(connection, node, preparedStatement);
-      } catch (SQLException e) {
-        LOGGER.log(Level.WARNING, "Could not insert the execution", e);
+    if (directory != null)
+      try {
+        journal =
+            new Journal(
+                Paths.get(directory), configuration.getInt("journal.segment.size", 64 << 20));
+      } catch (IOException e) {
+        LOGGER.log(Level.SEVERE, "Could not create the journal, writing directly instead", e);
       }
 
-      insertExecutions(connection, node.getNodes());
-    }
+    return journal;
   }
 
-  private static void insertLog(Connection connection, Integer id, LogRecord logRecord)
-      throws SQLException {
-    try (var preparedStatement =
-        connection.prepareStatement(
-            "INSERT INTO `teacup_report`.`log`(execution, level, message, time) VALUES(?, ?, ?, ?)")) {
-      executeLogStatement(id, logRecord, preparedStatement);
-    }
+  // The session of the calling thread, never another one, as that could be any of the sessions
+  private SessionContext getContext(String callback) {
+    var context = getSession();
+    if (context != null) return context;
+
+    LOGGER.log(Level.WARNING, SESSION_ERROR, callback);
+    return null;
+  }
+
+  private SessionContext getContext(Node node, String callback) {
+    var context = node == null ? null : contexts.get(node);
+    return context == null ? getContext(callback) : context;
   }
 
-  private static int insertNode(Connection connection, Node node) throws SQLException {
+  private void insertError(Connection connection, int id, Throwable throwable) {
     try (var preparedStatement =
         connection.prepareStatement(
-            "INSERT INTO `teacup_report`.`node` SET name = ?", Statement.RETURN_GENERATED_KEYS)) {
-      preparedStatement.setString(1, node.getName());
-      preparedStatement.execute();
+            "INSERT INTO `teacup_report`.`error`(id, message, result) VALUES(?, ?, ?)")) {
+      preparedStatement.setInt(1, idAllocator.next(connection, IdAllocator.ERROR));
+      preparedStatement.setString(2, throwable.getMessage());
+      preparedStatement.setInt(3, id);
 
-      return getId(preparedStatement).orElse(0);
+      StatementEvent.execute(preparedStatement, "insert error", null);
+    } catch (SQLException e) {
+      failures.increment();
+      LOGGER.log(Level.WARNING, "Could not insert the error", e);
     }
   }
 
-  private static void insertReason(Connection connection, int id, String reason) {
+  private void insertLog(Integer id, LogRecord logRecord, int session) {
+    if (logRecord == null) LOGGER.log(Level.FINEST, "Nothing suppressed");
+    else if (id == null) sessionLogBatch.add(session, logRecord);
+    else logBatch.add(id, logRecord);
+  }
+
+  private void insertReason(Connection connection, int id, String reason) {
     try (var prep =
         connection.prepareStatement(
             "INSERT INTO `teacup_report`.`reason`(reason, skipped) VALUES(?, ?)")) {
       prep.setString(1, reason);
       prep.setInt(2, id);
 
-      prep.execute();
+      StatementEvent.execute(prep, "insert reason", null);
     } catch (SQLException e) {
+      failures.increment();
       LOGGER.log(Level.WARNING, "Could not insert reason", e);
     }
   }
 
-  private void insertResult(Connection connection, int id, Node node) {
-    map.put(node, id);
-
-    try (var preparedStatement =
-        connection.prepareStatement("INSERT INTO `teacup_report`.`result` SET execution = ?")) {
+  private void insertResult(int id, Long started, Node node, Result result) {
+    try (var connection = dataSource.getConnection();
+        var preparedStatement =
+            connection.prepareStatement(
+                "INSERT INTO `teacup_report`.`result`(id, execution, started, finished, status) VALUES(?, ?, ?, ?, ?)")) {
       preparedStatement.setInt(1, id);
+      preparedStatement.setInt(2, id);
+      preparedStatement.setTimestamp(3, started == null ? null : new Timestamp(started));
+      preparedStatement.setTimestamp(4, new Timestamp(node.getTimeFinished()));
+      preparedStatement.setInt(5, result.getStatus().ordinal() + 1);
+
+      StatementEvent.execute(preparedStatement, "insert result", node);
 
-      preparedStatement.execute();
+      result.getThrowable().ifPresent(throwable -> insertError(connection, id, throwable));
     } catch (SQLException e) {
-      LOGGER.log(Level.WARNING, "Could not insert result", e);
+      failures.increment();
+      LOGGER.log(Level.WARNING, "Could not insert the result", e);
     }
   }
 
   private void insertSessionExecution(Connection connection) throws SQLException {
-    try (var statement = connection.createStatement()) {
-      statement.execute(
-          "INSERT INTO `teacup_report`.`session_execution`() VALUES()",
-          Statement.RETURN_GENERATED_KEYS);
-
-      getId(statement).ifPresent(id -> sessionId = id);
-    }
-  }
+    var id = idAllocator.next(connection, IdAllocator.SESSION_EXECUTION);
 
-  private void insertSessionLog(Connection connection, LogRecord logRecord) throws SQLException {
     try (var preparedStatement =
         connection.prepareStatement(
-            "INSERT INTO `teacup_report`.`session_log`(session_execution, level, message, time) VALUES(?, ? ,? , ?)")) {
-      executeLogStatement(sessionId, logRecord, preparedStatement);
+            "INSERT INTO `teacup_report`.`session_execution`(id) VALUES(?)")) {
+      preparedStatement.setInt(1, id);
+      StatementEvent.execute(preparedStatement, "insert session_execution", null);
     }
+
+    var sessionSummary = new SessionSummary(dataSource, summaryInterval, failures);
+    sessionSummary.start(id);
+
+    var context = new SessionContext(id, new LogFilter(configuration), sessionSummary);
+    sessions.put(id, context);
+    current.set(context);
   }
 
   private void insertSkipped(int id, String reason) {
     try (var connection = dataSource.getConnection();
         var preparedStatement =
             connection.prepareStatement(
-                "INSERT INTO `teacup_report`.`skipped` SET execution = ?",
-                Statement.RETURN_GENERATED_KEYS)) {
-      preparedStatement.setInt(1, id);
-      preparedStatement.execute();
+                "INSERT INTO `teacup_report`.`skipped`(id, execution) VALUES(?, ?)")) {
+      var skippedId = idAllocator.next(connection, IdAllocator.SKIPPED);
+
+      preparedStatement.setInt(1, skippedId);
+      preparedStatement.setInt(2, id);
+      StatementEvent.execute(preparedStatement, "insert skipped", null);
 
-      if (reason != null)
-        getId(preparedStatement)
-            .ifPresent(skippedId -> insertReason(connection, skippedId, reason));
+      if (reason != null) insertReason(connection, skippedId, reason);
     } catch (SQLException e) {
+      failures.increment();
       LOGGER.log(Level.WARNING, "Could not insert skipped", e);
     }
   }
 
-  private static void updateResult(Connection connection, int id, Node node, Result result)
-      throws SQLException {
-    try (var preparedStatement =
-        connection.prepareStatement(
-            "UPDATE `teacup_report`.`result` SET finished = ?, status = ? WHERE id = ?")) {
+  private void journalSummary(Node node) {
+    var summary = logFilter.summarize(node);
+    if (summary != null) journal.log(summary, node);
+  }
+
+  private void registerMetrics() {
+    metrics.gauge("log.pending", logBatch::getPending);
+    metrics.gauge("session_log.pending", sessionLogBatch::getPending);
+    metrics.gauge("sessions.active", sessions::size);
+    metrics.gauge("statistics.pending", nodeStatistics::getPending);
+
+    if (writeBehind != null) metrics.gauge("async.queued", writeBehind::getQueued);
+
+    if (journal != null)
+      metrics.gauge("journal.pending", () -> journal.getRecords() - replayer.getReplayed());
+
+    if (connectionPool != null) {
+      metrics.gauge("pool.borrowed", connectionPool::getBorrowed);
+      metrics.gauge("pool.idle", connectionPool::getIdle);
+    }
+
+    metrics.register();
+  }
+
+  private static void startPurge(Runnable retentionPurge) {
+    var thread = new Thread(retentionPurge, "teacup-mysql-retention");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private static JournalReplayer startReplayer(
+      Journal journal, DefaultReporter reporter, long retry) {
+    var replayer =
+        new JournalReplayer(journal.getDirectory(), journal.getId(), reporter, journal, retry);
+
+    var thread = new Thread(replayer, "teacup-mysql-journal-replayer");
+    thread.setDaemon(true);
+    thread.start();
+
+    return replayer;
+  }
+
+  private void updateResult(int id, Node node, Result result) {
+    try (var connection = dataSource.getConnection();
+        var preparedStatement =
+            connection.prepareStatement(
+                "UPDATE `teacup_report`.`result` SET finished = ?, status = ? WHERE id = ?")) {
       preparedStatement.setTimestamp(1, new Timestamp(node.getTimeFinished()));
       preparedStatement.setInt(2, result.getStatus().ordinal() + 1);
       preparedStatement.setInt(3, id);
 
-      preparedStatement.execute();
+      StatementEvent.execute(preparedStatement, "update result", node);
 
       result.getThrowable().ifPresent(throwable -> insertError(connection, id, throwable));
+    } catch (SQLException e) {
+      failures.increment();
+      LOGGER.log(Level.WARNING, "Could not update the result", e);
+    }
+  }
+
+  private void updateStarted(int id, Node node) {
+    try (var connection = dataSource.getConnection();
+        var preparedStatement =
+            connection.prepareStatement(
+                "UPDATE `teacup_report`.`result` SET started = ? WHERE id = ?")) {
+      preparedStatement.setTimestamp(1, new Timestamp(node.getTimeStarted()));
+      preparedStatement.setInt(2, id);
+
+      StatementEvent.execute(preparedStatement, "update started", node);
+    } catch (SQLException e) {
+      failures.increment();
+      LOGGER.log(Level.WARNING, "Could not update result", e);
     }
   }
+
+  private void write(Node node, Runnable runnable) {
+    if (writeBehind == null) runnable.run();
+    else writeBehind.submit(node, runnable);
+  }
 }
@@ -0,0 +1,98 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Histogram of durations in milliseconds with logarithmic buckets, each 2% wider than the one
+ * below. A quantile read from it is within 1% of the true value, no matter how many durations were
+ * added, and two sketches are merged by adding their bucket counts, so the sketches of different
+ * sessions and days can be combined after the fact.
+ *
+ * <p>Only the buckets that are used are kept, so a node that always takes about the same time costs
+ * a handful of bytes.
+ *
+ * @since 1.1
+ */
+final class DurationSketch {
+  private static final int ENTRY = Short.BYTES + Long.BYTES;
+  private static final double GAMMA = 1.02;
+  private static final double LOG_GAMMA = Math.log(GAMMA);
+
+  private final Map<Integer, Long> buckets = new TreeMap<>();
+  private long count;
+
+  void add(long millis) {
+    buckets.merge(getIndex(millis), 1L, Long::sum);
+    count++;
+  }
+
+  /**
+   * Creates a sketch from the bytes of {@link #toBytes}.
+   *
+   * @param bytes the bytes, or null for an empty sketch
+   * @return the sketch
+   */
+  static DurationSketch fromBytes(byte[] bytes) {
+    var sketch = new DurationSketch();
+
+    if (bytes != null)
+      for (var byteBuffer = ByteBuffer.wrap(bytes); byteBuffer.remaining() >= ENTRY; ) {
+        var index = (int) byteBuffer.getShort();
+        var bucketCount = byteBuffer.getLong();
+
+        sketch.buckets.merge(index, bucketCount, Long::sum);
+        sketch.count += bucketCount;
+      }
+
+    return sketch;
+  }
+
+  long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the quantile.
+   *
+   * @param quantile the quantile, between 0 and 1
+   * @return the duration in milliseconds, or 0 if the sketch is empty
+   */
+  long getQuantile(double quantile) {
+    var rank = Math.max(1L, (long) Math.ceil(count * quantile));
+    var seen = 0L;
+
+    for (var bucket : buckets.entrySet()) {
+      seen += bucket.getValue();
+      if (seen >= rank) return getValue(bucket.getKey());
+    }
+
+    return 0L;
+  }
+
+  void merge(DurationSketch sketch) {
+    sketch.buckets.forEach((index, bucketCount) -> buckets.merge(index, bucketCount, Long::sum));
+    count += sketch.count;
+  }
+
+  byte[] toBytes() {
+    var byteBuffer = ByteBuffer.allocate(buckets.size() * ENTRY);
+
+    buckets.forEach(
+        (index, bucketCount) -> byteBuffer.putShort(index.shortValue()).putLong(bucketCount));
+
+    return byteBuffer.array();
+  }
+
+  // bucket 0 holds 0 ms and bucket i holds (GAMMA^(i - 2), GAMMA^(i - 1)]
+  private static int getIndex(long millis) {
+    return millis <= 0L
+        ? 0
+        : (int) Math.min(Short.MAX_VALUE, Math.ceil(Math.log(millis) / LOG_GAMMA) + 1.0);
+  }
+
+  private static long getValue(int index) {
+    return index == 0 ? 0L : Math.round(2.0 * Math.pow(GAMMA, index - 1) / (GAMMA + 1.0));
+  }
+}
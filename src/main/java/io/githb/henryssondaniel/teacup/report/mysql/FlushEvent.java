@@ -0,0 +1,28 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a batch of log rows written to the database.
+ *
+ * @since 1.1
+ */
+@Category({"Teacup", "MySQL Reporter"})
+@Description("A batch of log rows written by the reporter")
+@Label("Log Flush")
+@Name("io.githb.henryssondaniel.teacup.report.mysql.Flush")
+final class FlushEvent extends Event {
+  @Label("Load")
+  @Description("Whether the rows were streamed with LOAD DATA instead of inserted")
+  boolean load;
+
+  @Label("Rows")
+  int rows;
+
+  @Label("Table")
+  String table;
+}
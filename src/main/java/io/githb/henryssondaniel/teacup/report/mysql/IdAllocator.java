@@ -0,0 +1,147 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out row IDs from blocks reserved in the sequence table, so that rows can be inserted with
+ * their IDs already known instead of reading the generated keys back one row at a time. A block is
+ * reserved with one statement and is used until it runs out. IDs of a block that is not used up are
+ * never used, so the IDs have gaps but never collide.
+ *
+ * <p>A result always gets the same ID as its execution, so there is no sequence for the results.
+ *
+ * <p>The sessions of a shard other than shard 0 get their IDs from the sequence of shard 0 instead,
+ * through the {@link ShardRouter}, and every session is saved in its directory, so that the session
+ * IDs are unique over all the shards.
+ *
+ * @since 1.1
+ */
+final class IdAllocator {
+  static final String ERROR = "error";
+  static final String EXECUTION = "execution";
+  static final String SESSION_EXECUTION = "session_execution";
+  static final String SKIPPED = "skipped";
+
+  private final Map<String, Block> blocks = new HashMap<>(4);
+  private final ShardRouter router;
+  private final int shard;
+  private final int size;
+
+  private boolean checked;
+
+  IdAllocator(Configuration configuration) {
+    this(configuration, null, 0);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param configuration the configuration
+   * @param router the router to get the session IDs from, or null if the sessions get their IDs
+   *     from this server
+   * @param shard the shard
+   */
+  IdAllocator(Configuration configuration, ShardRouter router, int shard) {
+    this.router = router;
+    this.shard = shard;
+    size = Math.max(1, configuration.getInt("id.block.size", 100));
+  }
+
+  /**
+   * Checks that the server holds no sessions that the shard directory does not know of, which would
+   * be the case for a server that was used without sharding. Their IDs would clash with the new
+   * ones and they would not be found. It is checked once, and only on a shard other than shard 0.
+   *
+   * @param connection the connection
+   * @throws SQLException if the server holds unknown sessions or could not be checked
+   */
+  synchronized void check(Connection connection) throws SQLException {
+    if (router == null || checked) return;
+
+    int highest;
+    try (var preparedStatement =
+            connection.prepareStatement(
+                "SELECT COALESCE(MAX(id), 0) FROM `teacup_report`.`session_execution`");
+        var resultSet = preparedStatement.executeQuery()) {
+      highest = resultSet.next() ? resultSet.getInt(1) : 0;
+    }
+
+    try (var directory = router.getConnection()) {
+      if (highest > ShardRouter.getHighest(directory, shard))
+        throw new SQLException(
+            "Shard "
+                + shard
+                + " holds sessions that are not in the shard directory, only shard 0 can be a"
+                + " server that was used without sharding");
+    }
+
+    checked = true;
+  }
+
+  /**
+   * Returns the next ID of the sequence, reserving a new block if needed. A session ID of a shard
+   * other than shard 0 is reserved on shard 0 and saved in its directory.
+   *
+   * @param connection the connection to reserve a new block with
+   * @param sequence the sequence
+   * @return the ID
+   * @throws SQLException if a new block was needed but could not be reserved, or the session could
+   *     not be saved in the directory
+   */
+  synchronized int next(Connection connection, String sequence) throws SQLException {
+    if (router != null && SESSION_EXECUTION.equals(sequence))
+      try (var directory = router.getConnection()) {
+        var id = nextId(directory, sequence);
+        ShardRouter.register(directory, id, shard);
+
+        return id;
+      }
+
+    return nextId(connection, sequence);
+  }
+
+  private int nextId(Connection connection, String sequence) throws SQLException {
+    var block = blocks.get(sequence);
+
+    if (block == null || block.next == block.end) {
+      block = reserve(connection, sequence);
+      blocks.put(sequence, block);
+    }
+
+    return block.next++;
+  }
+
+  private Block reserve(Connection connection, String sequence) throws SQLException {
+    // LAST_INSERT_ID(expr) comes back in the OK packet, so the generated keys cost no round trip
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "UPDATE `teacup_report`.`sequence` SET next_value = LAST_INSERT_ID(next_value) + ? WHERE name = ?",
+            Statement.RETURN_GENERATED_KEYS)) {
+      preparedStatement.setInt(1, size);
+      preparedStatement.setString(2, sequence);
+      preparedStatement.executeUpdate();
+
+      try (var resultSet = preparedStatement.getGeneratedKeys()) {
+        var first = resultSet.next() ? resultSet.getInt(1) : 0;
+        if (first <= 0) throw new SQLException("Could not reserve IDs from sequence " + sequence);
+
+        return new Block(first, first + size);
+      }
+    }
+  }
+
+  private static final class Block {
+    private final int end;
+
+    private int next;
+
+    private Block(int next, int end) {
+      this.end = end;
+      this.next = next;
+    }
+  }
+}
@@ -0,0 +1,409 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import io.github.henryssondaniel.teacup.core.testing.Result;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Append only journal of the reporter events, written to memory mapped segment files. Appending is
+ * a copy into memory, so the tests never wait for the database. The journal survives a crash of the
+ * JVM and is replayed into the database by a {@link JournalReplayer}, either in the background or
+ * offline by the {@link BulkLoader}.
+ *
+ * <p>Each record is the length followed by the type, the session and the payload. The sessions are
+ * numbered within the journal, so that the sessions that run at the same time through one reporter
+ * can be told apart, and the nodes are numbered within their session. A session belongs to the
+ * thread that initialized it, and a record that is not about a node of a session goes to the
+ * session of the calling thread. The length is written last, so a record that was cut off reads as
+ * the end of the journal. A length of -1 means that the journal continues in the next segment. The
+ * owner holds a lock on the lock file of the journal, so that nobody replays a journal that is
+ * still being written.
+ *
+ * <p>A record is encoded into a buffer of the calling thread, which is reused for its next record,
+ * so only the copy into the segment is done under the lock of the journal.
+ *
+ * @since 1.1
+ */
+final class Journal implements AutoCloseable {
+  static final byte FINISHED = 1;
+  static final byte INITIALIZE = 2;
+  static final byte INITIALIZED = 3;
+  static final String LOCK = ".lock";
+  static final byte LOG = 4;
+  static final int NEXT = -1;
+  static final String SEGMENT = ".journal";
+  static final byte SKIPPED = 5;
+  static final byte STARTED = 6;
+  static final byte TERMINATED = 7;
+
+  private static final ThreadLocal<Encoder> ENCODERS = ThreadLocal.withInitial(Encoder::new);
+  private static final Logger LOGGER = Logger.getLogger(Journal.class.getName());
+
+  private final ThreadLocal<Session> current = new ThreadLocal<>();
+  private final Path directory;
+  private final String id;
+  private final FileChannel lockChannel;
+  private final FileLock lock;
+  private final int segmentSize;
+  private final Map<Node, Session> sessions = new ConcurrentHashMap<>(16);
+
+  private MappedByteBuffer buffer;
+  private int last;
+  private long records;
+  private int segment;
+
+  Journal(Path directory, int segmentSize) throws IOException {
+    this.directory = Files.createDirectories(directory);
+    id = UUID.randomUUID().toString();
+    lockChannel =
+        FileChannel.open(
+            directory.resolve(id + LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    lock = lockChannel.lock();
+    this.segmentSize = segmentSize;
+
+    buffer = map(segment);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try (lockChannel) {
+      lock.release();
+    }
+  }
+
+  boolean finished(Node node, Result result) {
+    return append(
+        FINISHED,
+        node,
+        (output, session) -> {
+          output.putInt(session.getIndex(node));
+          output.putLong(node.getTimeFinished());
+          output.putInt(result.getStatus().ordinal());
+
+          var throwable = result.getThrowable();
+          output.putBoolean(throwable.isPresent());
+          if (throwable.isPresent()) output.putString(throwable.get().getMessage());
+        });
+  }
+
+  Path getDirectory() {
+    return directory;
+  }
+
+  String getId() {
+    return id;
+  }
+
+  synchronized long getRecords() {
+    return records;
+  }
+
+  /** Starts a new session that belongs to the calling thread. */
+  void initialize() {
+    Session session;
+
+    synchronized (this) {
+      session = new Session(++last);
+    }
+
+    current.set(session);
+    append(INITIALIZE, session, (output, value) -> {});
+  }
+
+  /**
+   * Records the nodes of the session of the calling thread.
+   *
+   * @param roots the root nodes
+   * @return false if the calling thread has no session, in which case nothing is recorded
+   */
+  boolean initialized(Iterable<? extends Node> roots) {
+    var session = current.get();
+    if (session == null) return false;
+
+    List<Node> list = new ArrayList<>(16);
+    List<Integer> parents = new ArrayList<>(16);
+    flatten(roots, -1, list, parents);
+
+    // the nodes are numbered through the whole session, the same way the replayer collects them
+    var offset = session.nodes.size();
+
+    for (var i = 0; i < list.size(); i++) {
+      session.nodes.put(list.get(i), offset + i);
+      sessions.put(list.get(i), session);
+    }
+
+    return append(
+        INITIALIZED,
+        session,
+        (output, value) -> {
+          output.putInt(list.size());
+
+          for (var i = 0; i < list.size(); i++) {
+            output.putInt(parents.get(i));
+            output.putString(list.get(i).getName());
+          }
+        });
+  }
+
+  boolean log(LogRecord logRecord, Node node) {
+    var message = LogBatch.format(logRecord);
+
+    return append(
+        LOG,
+        node,
+        (output, session) -> {
+          output.putInt(session.getIndex(node));
+          output.putString(logRecord.getLevel().getName());
+          output.putInt(logRecord.getLevel().intValue());
+          output.putString(message);
+          output.putLong(logRecord.getMillis());
+        });
+  }
+
+  boolean skipped(Node node, String reason) {
+    return append(
+        SKIPPED,
+        node,
+        (output, session) -> {
+          output.putInt(session.getIndex(node));
+          output.putString(reason);
+        });
+  }
+
+  boolean started(Node node) {
+    return append(
+        STARTED,
+        node,
+        (output, session) -> {
+          output.putInt(session.getIndex(node));
+          output.putLong(node.getTimeStarted());
+        });
+  }
+
+  /**
+   * Ends the session of the calling thread.
+   *
+   * @return false if the calling thread has no session
+   */
+  boolean terminated() {
+    var session = current.get();
+    if (session == null) return false;
+
+    append(TERMINATED, session, (output, value) -> {});
+
+    for (var node : session.nodes.keySet()) sessions.remove(node);
+    current.remove();
+
+    synchronized (this) {
+      buffer.force();
+    }
+
+    return true;
+  }
+
+  static Collection<String> getIds(Path directory) throws IOException {
+    List<String> ids = new ArrayList<>(16);
+
+    try (var paths = Files.list(directory)) {
+      paths
+          .map(path -> path.getFileName().toString())
+          .filter(name -> name.endsWith(LOCK))
+          .forEach(name -> ids.add(name.substring(0, name.length() - LOCK.length())));
+    }
+
+    return ids;
+  }
+
+  static String readString(ByteBuffer byteBuffer) {
+    var length = byteBuffer.getInt();
+    if (length < 0) return null;
+
+    var bytes = new byte[length];
+    byteBuffer.get(bytes);
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  static Path segment(Path directory, String id, int segment) {
+    return directory.resolve(String.format("%s.%06d%s", id, segment, SEGMENT));
+  }
+
+  private boolean append(byte type, Node node, Payload payload) {
+    var session = node == null ? null : sessions.get(node);
+    if (session == null) session = current.get();
+
+    return session != null && append(type, session, payload);
+  }
+
+  private boolean append(byte type, Session session, Payload payload) {
+    var encoder = ENCODERS.get();
+    var bytes = encoder.encode(type, session, payload);
+    var length = bytes.remaining();
+
+    synchronized (this) {
+      try {
+        if (buffer.remaining() < length + 2 * Integer.BYTES) {
+          // the next segment must exist before a reader is sent to it
+          var next = map(segment + 1, length + 2 * Integer.BYTES);
+          buffer.putInt(buffer.position(), NEXT);
+          buffer.force();
+
+          buffer = next;
+          segment++;
+        }
+
+        var position = buffer.position();
+        buffer.position(position + Integer.BYTES);
+        buffer.put(bytes);
+        buffer.putInt(position, length);
+
+        records++;
+      } catch (IOException e) {
+        LOGGER.log(Level.SEVERE, "Could not write to the journal", e);
+      }
+    }
+
+    encoder.release();
+
+    return true;
+  }
+
+  private static void flatten(
+      Iterable<? extends Node> roots,
+      int parent,
+      List<? super Node> list,
+      List<? super Integer> parents) {
+    for (var node : roots) {
+      var index = list.size();
+
+      list.add(node);
+      parents.add(parent);
+
+      flatten(node.getNodes(), index, list, parents);
+    }
+  }
+
+  private MappedByteBuffer map(int index) throws IOException {
+    return map(index, 0);
+  }
+
+  private MappedByteBuffer map(int index, int minimum) throws IOException {
+    try (var fileChannel =
+        FileChannel.open(
+            segment(directory, id, index),
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      return fileChannel.map(MapMode.READ_WRITE, 0L, Math.max(segmentSize, minimum));
+    }
+  }
+
+  @FunctionalInterface
+  private interface Payload {
+    void write(Encoder output, Session session);
+  }
+
+  /** Encodes the records of a thread into a buffer that is kept for its next record. */
+  private static final class Encoder {
+    private static final int CAPACITY = 256;
+    private static final int MAXIMUM = 64 * 1024;
+
+    private final CharsetEncoder charsetEncoder =
+        StandardCharsets.UTF_8
+            .newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private ByteBuffer byteBuffer = ByteBuffer.allocate(CAPACITY);
+
+    private ByteBuffer encode(byte type, Session session, Payload payload) {
+      byteBuffer.clear();
+      byteBuffer.put(type);
+      byteBuffer.putInt(session.id);
+      payload.write(this, session);
+
+      return byteBuffer.flip();
+    }
+
+    private void ensure(int bytes) {
+      if (byteBuffer.remaining() < bytes) {
+        var larger =
+            ByteBuffer.allocate(Math.max(byteBuffer.capacity() * 2, byteBuffer.position() + bytes));
+        byteBuffer = larger.put(byteBuffer.flip());
+      }
+    }
+
+    private void putBoolean(boolean value) {
+      ensure(1);
+      byteBuffer.put((byte) (value ? 1 : 0));
+    }
+
+    private void putInt(int value) {
+      ensure(Integer.BYTES);
+      byteBuffer.putInt(value);
+    }
+
+    private void putLong(long value) {
+      ensure(Long.BYTES);
+      byteBuffer.putLong(value);
+    }
+
+    private void putString(String value) {
+      if (value == null) putInt(-1);
+      else {
+        // a char is at most three bytes in UTF-8, a surrogate pair four for its two chars
+        ensure(Integer.BYTES + 3 * value.length());
+
+        var position = byteBuffer.position();
+        byteBuffer.position(position + Integer.BYTES);
+
+        charsetEncoder.reset();
+        charsetEncoder.encode(CharBuffer.wrap(value), byteBuffer, true);
+        charsetEncoder.flush(byteBuffer);
+
+        byteBuffer.putInt(position, byteBuffer.position() - position - Integer.BYTES);
+      }
+    }
+
+    private void release() {
+      // a buffer that grew for a large record is not kept
+      if (byteBuffer.capacity() > MAXIMUM) byteBuffer = ByteBuffer.allocate(CAPACITY);
+    }
+  }
+
+  /** A session of the journal and the numbers of its nodes. */
+  private static final class Session {
+    private final int id;
+    private final Map<Node, Integer> nodes = new ConcurrentHashMap<>(16);
+
+    private Session(int id) {
+      this.id = id;
+    }
+
+    private int getIndex(Node node) {
+      var index = node == null ? null : nodes.get(node);
+      return index == null ? -1 : index;
+    }
+  }
+}
@@ -0,0 +1,477 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.testing.Factory;
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import io.github.henryssondaniel.teacup.core.testing.Status;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Replays a {@link Journal} into the database through a reporter that writes directly. The sessions
+ * of the journal are replayed as they were recorded, each into a session of its own, switching the
+ * session of the reporter for every record.
+ *
+ * <p>When the reporter could not initialize a session or could not write one of its records, the
+ * sessions that are not yet terminated are dropped from the reporter and deleted from the database,
+ * and replayed from the start of the earliest one again, so nothing is lost or written twice while
+ * the database is unavailable. All of them are replayed, as they share the batches and the writers
+ * of the reporter and a failed write cannot be told apart between them. The records of the sessions
+ * that were terminated in the meantime are skipped. A session that could not be deleted is deleted
+ * before anything else is replayed.
+ *
+ * <p>The checkpoint file of the journal holds the start of the earliest session that is not yet
+ * terminated, the sessions after it that were terminated and the database sessions that are to be
+ * deleted, the partly written ones included, so that a journal that was left behind is replayed the
+ * same way. The segments before the start are deleted.
+ *
+ * <p>The replayer either follows a journal that is still being written, in a background thread, or
+ * replays a journal that was left behind once, see {@link BulkLoader}.
+ *
+ * @since 1.1
+ */
+final class JournalReplayer implements Runnable {
+  static final String CHECKPOINT = ".checkpoint";
+
+  private static final Logger LOGGER = Logger.getLogger(JournalReplayer.class.getName());
+  private static final long POLL = TimeUnit.MILLISECONDS.toNanos(10L);
+  private static final Status[] STATUSES = Status.values();
+
+  private final Path directory;
+  private final Map<Integer, Long> done = new HashMap<>(16);
+  private final String id;
+  private final Journal journal;
+  private final Map<Integer, Session> open = new HashMap<>(4);
+  private final List<Integer> purges = new ArrayList<>(4);
+  private final DefaultReporter reporter;
+  private final long retry;
+
+  private MappedByteBuffer buffer;
+  private long failures;
+  private long replayed;
+  private int segment;
+
+  JournalReplayer(
+      Path directory, String id, DefaultReporter reporter, Journal journal, long retry) {
+    this.directory = directory;
+    this.id = id;
+    this.journal = journal;
+    this.reporter = reporter;
+    this.retry = retry;
+
+    failures = reporter.getFailures();
+  }
+
+  @Override
+  public void run() {
+    while (!Thread.currentThread().isInterrupted())
+      try {
+        if (getReplayed() < journal.getRecords()) replayNext();
+        else TimeUnit.NANOSECONDS.sleep(POLL);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (IOException e) {
+        LOGGER.log(Level.SEVERE, "Could not read the journal", e);
+        sleep(retry);
+      }
+  }
+
+  /**
+   * Waits until everything that has been written to the journal so far has been replayed.
+   *
+   * @param timeout the maximum time to wait in milliseconds
+   * @return true if everything was replayed within the timeout
+   */
+  boolean await(long timeout) {
+    var records = journal.getRecords();
+    var end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+
+    synchronized (this) {
+      var remaining = end - System.nanoTime();
+
+      while (replayed < records && remaining > 0L) {
+        try {
+          TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+
+        remaining = end - System.nanoTime();
+      }
+
+      return replayed >= records;
+    }
+  }
+
+  /**
+   * Replays the journal once, up to where it ends. The segments and the checkpoint are deleted if
+   * everything was replayed.
+   *
+   * @return true if everything was replayed
+   * @throws IOException if the journal could not be read
+   */
+  boolean replay() throws IOException {
+    readCheckpoint();
+
+    int result;
+    do result = replayNext();
+    while (result > 0);
+
+    if (result == 0) delete();
+
+    return result == 0;
+  }
+
+  synchronized long getReplayed() {
+    return replayed;
+  }
+
+  DefaultReporter getReporter() {
+    return reporter;
+  }
+
+  private void delete() throws IOException {
+    // a segment after the last one exists if the journal was cut off while it moved on
+    deleteSegments(segment + 2);
+
+    Files.deleteIfExists(directory.resolve(id + CHECKPOINT));
+  }
+
+  private void deleteSegments(int before) throws IOException {
+    for (var index = 0; index < before; index++)
+      Files.deleteIfExists(Journal.segment(directory, id, index));
+  }
+
+  private int fail() {
+    if (journal == null) return -1;
+
+    sleep(retry);
+    return 1;
+  }
+
+  private void finished(ByteBuffer record, Session session) {
+    var node = session.getNode(record.getInt());
+    var time = record.getLong();
+    var status = STATUSES[record.getInt()];
+    var throwable = record.get() == 0 ? null : new Throwable(Journal.readString(record));
+
+    if (node != null) {
+      node.setTimeFinished(time);
+      reporter.finished(node, Factory.createResult(status, throwable));
+    }
+  }
+
+  private static Level getLevel(String name, int value) {
+    try {
+      return Level.parse(name);
+    } catch (IllegalArgumentException e) {
+      LOGGER.log(Level.FINE, "Custom level", e);
+      return new ReplayedLevel(name, value);
+    }
+  }
+
+  private long getMark() {
+    return (long) segment << 32 | (buffer == null ? 0 : buffer.position());
+  }
+
+  private void initialized(ByteBuffer record, Session session) {
+    var count = record.getInt();
+
+    List<List<Node>> children = new ArrayList<>(count);
+    var names = new String[count];
+    var parents = new int[count];
+
+    for (var i = 0; i < count; i++) {
+      children.add(new ArrayList<>(0));
+      parents[i] = record.getInt();
+      names[i] = Journal.readString(record);
+    }
+
+    // the nodes are in pre-order, so every child comes after its parent
+    var created = new Node[count];
+    List<Node> roots = new ArrayList<>(16);
+
+    for (var i = count - 1; i >= 0; i--) {
+      var nodeChildren = children.get(i);
+      Collections.reverse(nodeChildren);
+
+      created[i] = Factory.createNode(names[i], nodeChildren);
+
+      if (parents[i] < 0) roots.add(created[i]);
+      else children.get(parents[i]).add(created[i]);
+    }
+
+    Collections.reverse(roots);
+
+    Collections.addAll(session.nodes, created);
+
+    reporter.initialized(roots);
+  }
+
+  private void log(ByteBuffer record, Session session) {
+    var node = session.getNode(record.getInt());
+    var name = Journal.readString(record);
+    var value = record.getInt();
+
+    var logRecord = new LogRecord(getLevel(name, value), Journal.readString(record));
+    logRecord.setInstant(Instant.ofEpochMilli(record.getLong()));
+
+    reporter.log(logRecord, node);
+  }
+
+  private MappedByteBuffer map(int index) throws IOException {
+    try (var fileChannel = FileChannel.open(Journal.segment(directory, id, index))) {
+      return fileChannel.map(MapMode.READ_ONLY, 0L, fileChannel.size());
+    }
+  }
+
+  private ByteBuffer next() throws IOException {
+    if (buffer == null) buffer = map(segment);
+
+    var position = buffer.position();
+    var length = buffer.remaining() < Integer.BYTES ? 0 : buffer.getInt(position);
+
+    if (length == Journal.NEXT) {
+      buffer = map(segment + 1);
+      segment++;
+
+      return next();
+    }
+
+    if (length <= 0) return null;
+
+    var record = buffer.duplicate();
+    record.position(position + Integer.BYTES).limit(position + Integer.BYTES + length);
+    buffer.position(position + Integer.BYTES + length);
+
+    return record;
+  }
+
+  private boolean purge() throws IOException {
+    for (var iterator = purges.iterator(); iterator.hasNext(); )
+      if (reporter.purge(iterator.next())) iterator.remove();
+      else return false;
+
+    writeCheckpoint();
+    return true;
+  }
+
+  private void readCheckpoint() throws IOException {
+    var path = directory.resolve(id + CHECKPOINT);
+
+    try {
+      var checkpoint = ByteBuffer.wrap(Files.readAllBytes(path));
+      segment = checkpoint.getInt();
+      buffer = map(segment);
+      buffer.position(checkpoint.getInt());
+
+      // the terminated sessions started after the checkpoint, which is as far back as is needed
+      for (var count = checkpoint.getInt(); count > 0; count--)
+        done.put(checkpoint.getInt(), getMark());
+      for (var count = checkpoint.getInt(); count > 0; count--) purges.add(checkpoint.getInt());
+    } catch (NoSuchFileException e) {
+      LOGGER.log(Level.FINE, "No checkpoint", e);
+    }
+  }
+
+  private boolean replay(byte type, ByteBuffer record, Session session) {
+    if (type != Journal.INITIALIZE) reporter.setSession(session.context);
+
+    switch (type) {
+      case Journal.FINISHED:
+        finished(record, session);
+        return true;
+      case Journal.INITIALIZE:
+        reporter.initialize();
+        session.context = reporter.getSession();
+        return session.context != null;
+      case Journal.INITIALIZED:
+        initialized(record, session);
+        return true;
+      case Journal.LOG:
+        log(record, session);
+        return true;
+      case Journal.SKIPPED:
+        skipped(record, session);
+        return true;
+      case Journal.STARTED:
+        started(record, session);
+        return true;
+      case Journal.TERMINATED:
+        reporter.terminated();
+        return true;
+      default:
+        LOGGER.log(Level.WARNING, "Unknown journal record {0}", type);
+        return true;
+    }
+  }
+
+  /**
+   * Replays the next record.
+   *
+   * @return 1 if a record was replayed, 0 if the journal ended and -1 if a session could not be
+   *     initialized, written or deleted
+   */
+  private int replayNext() throws IOException {
+    if (!purges.isEmpty() && !purge()) return fail();
+
+    var mark = getMark();
+
+    var record = next();
+    if (record == null) return 0;
+
+    var type = record.get();
+    var number = record.getInt();
+
+    if (type == Journal.INITIALIZE && !done.containsKey(number))
+      open.put(number, new Session(mark, replayed));
+
+    var session = open.get(number);
+
+    if (session == null)
+      LOGGER.log(Level.FINE, "The session {0} of the journal is already replayed", number);
+    else if (!replay(type, record, session) || reporter.getFailures() != failures) {
+      LOGGER.log(Level.WARNING, "Could not replay the sessions, they will be replayed again");
+
+      reset();
+      return fail();
+    } else if (type == Journal.TERMINATED) {
+      open.remove(number);
+      done.put(number, session.mark);
+
+      writeCheckpoint();
+    } else if (type == Journal.INITIALIZE) writeCheckpoint();
+
+    synchronized (this) {
+      replayed++;
+      notifyAll();
+    }
+
+    return 1;
+  }
+
+  private void reset() throws IOException {
+    Session first = null;
+
+    for (var session : open.values()) {
+      if (session.context != null) {
+        reporter.discard(session.context);
+        purges.add(session.context.getId());
+      }
+
+      if (first == null || session.mark < first.mark) first = session;
+    }
+
+    open.clear();
+    failures = reporter.getFailures();
+
+    if (first != null) {
+      segment = (int) (first.mark >>> 32);
+      buffer = map(segment);
+      buffer.position((int) first.mark);
+
+      synchronized (this) {
+        replayed = first.replayed;
+      }
+    }
+
+    writeCheckpoint();
+  }
+
+  private void skipped(ByteBuffer record, Session session) {
+    var node = session.getNode(record.getInt());
+    var reason = Journal.readString(record);
+
+    if (node != null) reporter.skipped(node, reason);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException e) {
+      LOGGER.log(Level.FINE, "Interrupted", e);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void started(ByteBuffer record, Session session) {
+    var node = session.getNode(record.getInt());
+    var time = record.getLong();
+
+    if (node != null) {
+      node.setTimeStarted(time);
+      reporter.started(node);
+    }
+  }
+
+  private void writeCheckpoint() throws IOException {
+    var mark = getMark();
+    for (var session : open.values()) mark = Math.min(mark, session.mark);
+
+    var start = mark;
+    done.values().removeIf(value -> value < start);
+
+    // the sessions that are not yet terminated are replayed from their start again after a crash
+    List<Integer> deleted = new ArrayList<>(purges);
+    for (var session : open.values())
+      if (session.context != null) deleted.add(session.context.getId());
+
+    var checkpoint = ByteBuffer.allocate((4 + done.size() + deleted.size()) * Integer.BYTES);
+    checkpoint.putInt((int) (mark >>> 32)).putInt((int) mark).putInt(done.size());
+    for (var number : done.keySet()) checkpoint.putInt(number);
+    checkpoint.putInt(deleted.size());
+    for (var session : deleted) checkpoint.putInt(session);
+
+    var path = directory.resolve(id + CHECKPOINT);
+    var temporary = directory.resolve(id + CHECKPOINT + ".tmp");
+
+    Files.write(temporary, checkpoint.array());
+    Files.move(
+        temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+    deleteSegments((int) (mark >>> 32));
+  }
+
+  private static final class ReplayedLevel extends Level {
+    private static final long serialVersionUID = 1L;
+
+    private ReplayedLevel(String name, int value) {
+      super(name, value);
+    }
+  }
+
+  /** A session of the journal that is being replayed. */
+  private static final class Session {
+    private final long mark;
+    private final List<Node> nodes = new ArrayList<>(16);
+    private final long replayed;
+
+    private SessionContext context;
+
+    private Session(long mark, long replayed) {
+      this.mark = mark;
+      this.replayed = replayed;
+    }
+
+    private Node getNode(int index) {
+      return index >= 0 && index < nodes.size() ? nodes.get(index) : null;
+    }
+  }
+}
@@ -0,0 +1,382 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.text.MessageFormat;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+import javax.sql.DataSource;
+
+/**
+ * Collects log rows and inserts them with JDBC batches. The rows are flushed when the batch reaches
+ * its size, when the oldest row reaches the maximum age or when flushed explicitly. Adding a row
+ * never takes a lock, so any number of threads can log at the same time.
+ *
+ * <p>The rows live in a ring that is allocated with the batch and holds twice its size. A row is
+ * claimed and published through its sequence number, and released again as soon as it has been
+ * written, so adding a record allocates nothing but its formatted message. A thread that finds the
+ * ring full writes a batch itself before it adds its row.
+ *
+ * <p>In load mode the rows are instead written in the tab separated format of LOAD DATA and
+ * streamed to the server through the local infile stream of the connector, which is much faster
+ * than INSERT for large batches.
+ *
+ * @since 1.1
+ */
+final class LogBatch {
+  private static final ThreadLocal<MessageBuffer> BUFFERS =
+      ThreadLocal.withInitial(MessageBuffer::new);
+  private static final SimpleFormatter FORMATTER = new SimpleFormatter();
+  private static final Logger LOGGER = Logger.getLogger(LogBatch.class.getName());
+  private static final String[] LEVELS = {
+    null, "config", "fine", "finer", "finest", "info", "severe", "warning"
+  };
+  // indexed by the level value in hundreds, so FINEST (300) is 3 and SEVERE (1000) is 10
+  private static final int[] ORDINALS = {4, 4, 4, 4, 3, 2, 2, 1, 5, 7, 6};
+  private static final ScheduledExecutorService SCHEDULED_EXECUTOR_SERVICE =
+      Executors.newSingleThreadScheduledExecutor(LogBatch::createThread);
+
+  private final long age;
+  private final AtomicInteger count = new AtomicInteger();
+  private final DataSource dataSource;
+  private final LongAdder failures = new LongAdder();
+  private final AtomicLong head = new AtomicLong();
+  private final boolean load;
+  private final Row[] ring;
+  private final int size;
+  private final String sql;
+  private final String table;
+  private final AtomicLong tail = new AtomicLong();
+
+  LogBatch(DataSource dataSource, String table, String column, int size, long age, boolean load) {
+    this.age = age;
+    this.dataSource = dataSource;
+    this.load = load;
+    this.size = Math.max(1, size);
+
+    ring = new Row[Integer.highestOneBit(this.size * 2 - 1) << 1];
+    for (var index = 0; index < ring.length; index++) ring[index] = new Row(index);
+
+    sql =
+        load
+            ? "LOAD DATA LOCAL INFILE 'teacup' INTO TABLE `teacup_report`.`"
+                + table
+                + "` CHARACTER SET utf8mb4 ("
+                + column
+                + ", level, message, @time) SET time = FROM_UNIXTIME(@time / 1000)"
+            : "INSERT INTO `teacup_report`.`"
+                + table
+                + "`("
+                + column
+                + ", level, message, time) VALUES(?, ?, ?, FROM_UNIXTIME(? / 1000))";
+    this.table = table;
+  }
+
+  void add(int id, LogRecord logRecord) {
+    var level = getOrdinal(logRecord.getLevel());
+    var message = format(logRecord);
+
+    while (!offer(id, level, message, logRecord.getMillis())) if (write() == 0) Thread.onSpinWait();
+
+    var rowCount = count.incrementAndGet();
+
+    if (rowCount >= size) {
+      write();
+
+      // the rows added while writing are written with the next batch or when they get old
+      if (count.get() > 0) schedule();
+    } else if (rowCount == 1) schedule();
+  }
+
+  void flush() {
+    var rows = write();
+    while (rows > 0) rows = write();
+  }
+
+  /**
+   * Formats the message of the record the same way as {@link SimpleFormatter#formatMessage}. The
+   * message format and the buffer of the thread are reused as long as the thread logs the same
+   * message, and nothing at all is created if the message has no parameters.
+   *
+   * @param logRecord the log record
+   * @return the message
+   */
+  static String format(LogRecord logRecord) {
+    if (logRecord.getResourceBundle() != null) return FORMATTER.formatMessage(logRecord);
+
+    var message = logRecord.getMessage();
+    var parameters = logRecord.getParameters();
+
+    if (message == null || parameters == null || parameters.length == 0 || !hasParameter(message))
+      return message;
+
+    try {
+      return BUFFERS.get().format(message, parameters);
+    } catch (IllegalArgumentException e) {
+      LOGGER.log(Level.FINE, "Invalid message format", e);
+      return message;
+    }
+  }
+
+  long getFailures() {
+    return failures.sum();
+  }
+
+  /**
+   * Returns the ordinal of the level in the level table. A custom level gets the ordinal of the
+   * closest standard level below it.
+   *
+   * @param level the level
+   * @return the ordinal
+   */
+  static int getOrdinal(Level level) {
+    return ORDINALS[Math.max(0, Math.min(ORDINALS.length - 1, level.intValue() / 100))];
+  }
+
+  int getPending() {
+    return count.get();
+  }
+
+  private static Thread createThread(Runnable runnable) {
+    var thread = new Thread(runnable, "teacup-mysql-log-batch");
+    thread.setDaemon(true);
+
+    return thread;
+  }
+
+  private static void escape(StringBuilder stringBuilder, CharSequence value) {
+    if (value == null) stringBuilder.append("\\N");
+    else
+      for (var i = 0; i < value.length(); i++) {
+        var character = value.charAt(i);
+
+        switch (character) {
+          case '\0':
+            stringBuilder.append("\\0");
+            break;
+          case '\t':
+            stringBuilder.append("\\t");
+            break;
+          case '\n':
+            stringBuilder.append("\\n");
+            break;
+          case '\r':
+            stringBuilder.append("\\r");
+            break;
+          case '\\':
+            stringBuilder.append("\\\\");
+            break;
+          default:
+            stringBuilder.append(character);
+        }
+      }
+  }
+
+  // The same check as java.util.logging.Formatter: a brace followed by a digit
+  private static boolean hasParameter(String message) {
+    var fence = message.length() - 1;
+
+    for (var index = message.indexOf('{'); index > -1 && index < fence; ) {
+      var digit = message.charAt(index + 1);
+      if (digit >= '0' && digit <= '9') return true;
+
+      index = message.indexOf('{', index + 1);
+    }
+
+    return false;
+  }
+
+  private int discard(int rows) {
+    var discarded = 0;
+
+    for (long position; discarded < rows && (position = poll()) > -1L; discarded++)
+      release(position);
+
+    return discarded;
+  }
+
+  private int index(long position) {
+    return (int) position & ring.length - 1;
+  }
+
+  private int insert() {
+    var rows = 0;
+
+    try (var connection = dataSource.getConnection();
+        var preparedStatement = connection.prepareStatement(sql)) {
+      for (long position; rows < size && (position = poll()) > -1L; ) {
+        rows++;
+
+        var row = ring[index(position)];
+
+        try {
+          preparedStatement.setInt(1, row.id);
+          preparedStatement.setInt(2, row.level);
+          preparedStatement.setString(3, row.message);
+          preparedStatement.setLong(4, row.time);
+        } finally {
+          release(position);
+        }
+
+        preparedStatement.addBatch();
+      }
+
+      preparedStatement.executeBatch();
+    } catch (SQLException e) {
+      // the rest of the batch is dropped with it, so that a server that is down cannot fill the
+      // ring
+      rows += discard(size - rows);
+
+      failures.increment();
+      LOGGER.log(Level.SEVERE, "Could not insert the log", e);
+    }
+
+    return rows;
+  }
+
+  private boolean isEmpty() {
+    var position = head.get();
+    return ring[index(position)].sequence != position + 1;
+  }
+
+  private int load() {
+    var rows = 0;
+    var stringBuilder = new StringBuilder(size * 64);
+
+    for (long position; rows < size && (position = poll()) > -1L; rows++) {
+      var row = ring[index(position)];
+
+      stringBuilder.append(row.id).append('\t').append(LEVELS[row.level]).append('\t');
+      escape(stringBuilder, row.message);
+      stringBuilder.append('\t').append(row.time).append('\n');
+
+      release(position);
+    }
+
+    try (var connection = dataSource.getConnection();
+        var statement = connection.createStatement()) {
+      statement
+          .unwrap(JdbcStatement.class)
+          .setLocalInfileInputStream(
+              new ByteArrayInputStream(stringBuilder.toString().getBytes(StandardCharsets.UTF_8)));
+
+      statement.execute(sql);
+    } catch (SQLException e) {
+      failures.increment();
+      LOGGER.log(Level.SEVERE, "Could not load the log", e);
+    }
+
+    return rows;
+  }
+
+  private boolean offer(int id, int level, String message, long time) {
+    for (var position = tail.get(); ; position = tail.get()) {
+      var row = ring[index(position)];
+      var difference = row.sequence - position;
+
+      if (difference < 0L) return false;
+
+      if (difference == 0L && tail.compareAndSet(position, position + 1)) {
+        row.id = id;
+        row.level = level;
+        row.message = message;
+        row.time = time;
+
+        row.sequence = position + 1;
+
+        return true;
+      }
+    }
+  }
+
+  private long poll() {
+    for (var position = head.get(); ; position = head.get()) {
+      var difference = ring[index(position)].sequence - (position + 1);
+
+      if (difference < 0L) return -1L;
+      if (difference == 0L && head.compareAndSet(position, position + 1)) return position;
+    }
+  }
+
+  private void release(long position) {
+    var row = ring[index(position)];
+    row.message = null;
+    row.sequence = position + ring.length;
+  }
+
+  private void schedule() {
+    SCHEDULED_EXECUTOR_SERVICE.schedule(this::flush, age, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Writes the next batch of rows.
+   *
+   * @return how many rows were taken from the ring, written or not
+   */
+  private int write() {
+    if (isEmpty()) return 0;
+
+    var event = new FlushEvent();
+    event.begin();
+
+    var rows = load ? load() : insert();
+    count.addAndGet(-rows);
+
+    if (event.shouldCommit()) {
+      event.load = load;
+      event.rows = rows;
+      event.table = table;
+
+      event.commit();
+    }
+
+    return rows;
+  }
+
+  private static final class MessageBuffer {
+    private static final int MAXIMUM = 64 * 1024;
+
+    private final MessageFormat messageFormat = new MessageFormat("");
+
+    private String pattern;
+    private StringBuffer stringBuffer = new StringBuffer(256);
+
+    private String format(String message, Object... parameters) {
+      if (!message.equals(pattern)) {
+        pattern = null;
+        messageFormat.applyPattern(message);
+        pattern = message;
+      }
+
+      stringBuffer.setLength(0);
+      var formatted = messageFormat.format(parameters, stringBuffer, null).toString();
+
+      // a buffer that grew for a large message is not kept
+      if (stringBuffer.capacity() > MAXIMUM) stringBuffer = new StringBuffer(256);
+
+      return formatted;
+    }
+  }
+
+  private static final class Row {
+    private int id;
+    private int level;
+    private String message;
+    private volatile long sequence;
+    private long time;
+
+    private Row(long sequence) {
+      this.sequence = sequence;
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Decides which log records are saved, so that a test that logs a lot can not slow down the
+ * reporting of the others. Records below the minimum level are dropped. Records at or below the
+ * sample level are kept with a probability of one in the sample rate. At last every node, and the
+ * session, has a token bucket that limits how many records per second are saved.
+ *
+ * <p>The records that were sampled away or rate limited are counted, and replaced with one summary
+ * record when the node ends, or when the session terminates. Records below the minimum level are
+ * not counted, since they were never meant to be saved.
+ *
+ * @since 1.1
+ */
+final class LogFilter {
+  private static final Logger LOGGER = Logger.getLogger(LogFilter.class.getName());
+  private static final String SUPPRESSED = " log records suppressed";
+
+  private final Map<Node, Bucket> buckets = new ConcurrentHashMap<>(16);
+  private final long capacity;
+  private final boolean enabled;
+  private final int level;
+  private final long rate;
+  private final int sample;
+  private final int sampleLevel;
+  private final Bucket session;
+
+  LogFilter(Configuration configuration) {
+    level = parse(configuration.getString("log.level"), Level.ALL);
+    rate = Math.max(0L, configuration.getLong("log.rate", 0L));
+    capacity = Math.max(1L, configuration.getLong("log.rate.burst", rate));
+    sample = Math.max(1, configuration.getInt("log.sample", 1));
+    sampleLevel = parse(configuration.getString("log.sample.level"), Level.FINE);
+    session = new Bucket(capacity);
+
+    enabled = level > Level.ALL.intValue() || rate > 0L || sample > 1;
+  }
+
+  /**
+   * Returns if the record should be saved.
+   *
+   * @param logRecord the log record
+   * @param node the node, or null for the session
+   * @return true if the record should be saved
+   */
+  boolean admit(LogRecord logRecord, Node node) {
+    if (!enabled) return true;
+
+    var value = logRecord.getLevel().intValue();
+    if (value < level) return false;
+
+    var sampled =
+        sample == 1 || value > sampleLevel || ThreadLocalRandom.current().nextInt(sample) == 0;
+    if (rate == 0L && sampled) return true;
+
+    var bucket =
+        node == null ? session : buckets.computeIfAbsent(node, key -> new Bucket(capacity));
+    return bucket.admit(sampled, rate, capacity);
+  }
+
+  /**
+   * Returns the summary record of the node and forgets the node.
+   *
+   * @param node the node, or null for the session
+   * @return the summary record, or null if nothing was suppressed
+   */
+  LogRecord summarize(Node node) {
+    var bucket = node == null ? session : buckets.remove(node);
+    return bucket == null ? null : createSummary(bucket.suppressed.getAndSet(0L));
+  }
+
+  /**
+   * Hands the summary records of all nodes and the session to the consumer and forgets the nodes.
+   *
+   * @param consumer the consumer of the node, null for the session, and the summary record
+   */
+  void summarize(BiConsumer<? super Node, ? super LogRecord> consumer) {
+    for (var node : buckets.keySet()) {
+      var summary = summarize(node);
+      if (summary != null) consumer.accept(node, summary);
+    }
+
+    var summary = summarize((Node) null);
+    if (summary != null) consumer.accept(null, summary);
+  }
+
+  private static LogRecord createSummary(long suppressed) {
+    return suppressed > 0L ? new LogRecord(Level.WARNING, suppressed + SUPPRESSED) : null;
+  }
+
+  private static int parse(String name, Level defaultLevel) {
+    var value = defaultLevel.intValue();
+
+    if (name != null)
+      try {
+        value = Level.parse(name.trim()).intValue();
+      } catch (IllegalArgumentException e) {
+        LOGGER.log(Level.WARNING, "Invalid level " + name + ", using " + defaultLevel, e);
+      }
+
+    return value;
+  }
+
+  private static final class Bucket {
+    private final AtomicLong suppressed = new AtomicLong();
+
+    private long refilled = System.nanoTime();
+    private double tokens;
+
+    private Bucket(long capacity) {
+      tokens = capacity;
+    }
+
+    private synchronized boolean admit(boolean sampled, long rate, long capacity) {
+      var admitted = sampled;
+
+      if (sampled && rate > 0L) {
+        var now = System.nanoTime();
+        tokens =
+            Math.min(
+                capacity, tokens + (now - refilled) * rate / (double) TimeUnit.SECONDS.toNanos(1L));
+        refilled = now;
+
+        if (tokens >= 1.0) tokens--;
+        else admitted = false;
+      }
+
+      if (!admitted) suppressed.incrementAndGet();
+
+      return admitted;
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Data source that times how long it takes to get a connection, and how long every statement
+ * executed on it takes. Statements are timed by type, which is the first keyword and the table of
+ * the SQL, so that the inserts of the log are not mixed up with the updates of the results. Failed
+ * statements are counted by type as well.
+ *
+ * @since 1.1
+ */
+final class MeteredDataSource implements DataSource {
+  private static final String CONNECTION = "connection.acquire";
+  private static final String FAILED = ".failed";
+  private static final Logger LOGGER = Logger.getLogger(MeteredDataSource.class.getName());
+  private static final String SCHEMA = "`teacup_report`.`";
+  private static final String SQL = "sql.";
+
+  private final DataSource dataSource;
+  private final Metrics metrics;
+  private final Map<String, String> types = new ConcurrentHashMap<>(32);
+
+  MeteredDataSource(DataSource dataSource, Metrics metrics) {
+    this.dataSource = dataSource;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    var start = metrics.start();
+
+    try {
+      return (Connection) wrap(Connection.class, dataSource.getConnection(), null);
+    } finally {
+      metrics.stop(CONNECTION, start);
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    var start = metrics.start();
+
+    try {
+      return (Connection)
+          wrap(Connection.class, dataSource.getConnection(username, password), null);
+    } finally {
+      metrics.stop(CONNECTION, start);
+    }
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return dataSource.getLogWriter();
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return dataSource.getLoginTimeout();
+  }
+
+  @Override
+  public Logger getParentLogger() {
+    return LOGGER;
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this) || iface.isInstance(dataSource) || dataSource.isWrapperFor(iface);
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) throws SQLException {
+    dataSource.setLogWriter(out);
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) throws SQLException {
+    dataSource.setLoginTimeout(seconds);
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) return iface.cast(this);
+
+    return iface.isInstance(dataSource) ? iface.cast(dataSource) : dataSource.unwrap(iface);
+  }
+
+  /**
+   * Returns the type of the SQL, for example sql.insert.log.
+   *
+   * @param sql the SQL
+   * @return the type
+   */
+  String getType(String sql) {
+    return sql == null ? SQL + "unknown" : types.computeIfAbsent(sql, MeteredDataSource::parse);
+  }
+
+  private static String getSql(Object[] args, String sql) {
+    return args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+  }
+
+  private static String parse(String sql) {
+    var trimmed = sql.stripLeading();
+
+    var end = 0;
+    while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) end++;
+
+    var type = SQL + (end == 0 ? "unknown" : trimmed.substring(0, end).toLowerCase(Locale.ROOT));
+
+    var start = sql.indexOf(SCHEMA);
+    if (start >= 0) {
+      start += SCHEMA.length();
+
+      var table = sql.indexOf('`', start);
+      if (table > start) type += '.' + sql.substring(start, table);
+    }
+
+    return type;
+  }
+
+  private Object wrap(Class<?> type, Object target, String sql) {
+    return Proxy.newProxyInstance(
+        MeteredDataSource.class.getClassLoader(), new Class<?>[] {type}, new Handler(target, sql));
+  }
+
+  private final class Handler implements InvocationHandler {
+    private final String sql;
+    private final Object target;
+
+    private Handler(Object target, String sql) {
+      this.sql = sql;
+      this.target = target;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      var name = method.getName();
+
+      if (target instanceof Statement && name.startsWith("execute"))
+        return execute(method, args, getSql(args, sql));
+
+      var result = invoke(method, args);
+
+      var returnType = method.getReturnType();
+      if (Statement.class.isAssignableFrom(returnType) && result != null)
+        result = wrap(returnType, result, getSql(args, null));
+
+      return result;
+    }
+
+    private Object execute(Method method, Object[] args, String statement) throws Throwable {
+      var type = getType(statement);
+      var start = metrics.start();
+
+      try {
+        return invoke(method, args);
+      } catch (SQLException e) {
+        metrics.count(type + FAILED);
+        throw e;
+      } finally {
+        metrics.stop(type, start);
+      }
+    }
+
+    private Object invoke(Method method, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded least recently used cache of node IDs by node name. The node names rarely change between
+ * sessions, so the reporter keeps one cache for the whole JVM and only asks the database for names
+ * it has not seen before.
+ *
+ * @since 1.1
+ */
+final class NodeCache {
+  private static final Logger LOGGER = Logger.getLogger(NodeCache.class.getName());
+
+  private final int capacity;
+  private final Map<String, Integer> map;
+  private final boolean preload;
+
+  private boolean preloaded;
+
+  NodeCache(Configuration configuration) {
+    capacity = Math.max(0, configuration.getInt("node.cache.size", 10_000));
+    map =
+        new LinkedHashMap<>(16, 0.75F, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Entry<String, Integer> eldest) {
+            return size() > capacity;
+          }
+        };
+    preload = configuration.getBoolean("node.cache.preload");
+  }
+
+  synchronized Integer get(String name) {
+    return map.get(name);
+  }
+
+  /**
+   * Loads the most recently added nodes, at most as many as the cache can hold, with one streaming
+   * query. Only done once per cache, and only if enabled.
+   *
+   * @param connection the connection
+   */
+  void preload(Connection connection) {
+    synchronized (this) {
+      if (!preload || preloaded || capacity == 0) return;
+      preloaded = true;
+    }
+
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "SELECT id, name FROM `teacup_report`.`node` ORDER BY id DESC LIMIT ?")) {
+      preparedStatement.setFetchSize(Integer.MIN_VALUE);
+      preparedStatement.setInt(1, capacity);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) putIfAbsent(resultSet.getString(2), resultSet.getInt(1));
+      }
+    } catch (SQLException e) {
+      LOGGER.log(Level.WARNING, "Could not preload the nodes", e);
+    }
+  }
+
+  synchronized void put(String name, int id) {
+    if (capacity > 0) map.put(name, id);
+  }
+
+  synchronized int size() {
+    return map.size();
+  }
+
+  private synchronized void putIfAbsent(String name, int id) {
+    if (capacity > 0) map.putIfAbsent(name, id);
+  }
+}
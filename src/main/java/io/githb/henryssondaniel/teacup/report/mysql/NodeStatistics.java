@@ -0,0 +1,258 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.testing.Status;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects the runs of the current session and adds them to the node_statistics table, which holds
+ * the run count, failure count, total duration and a {@link DurationSketch} of every node and day
+ * in UTC. The statistics of any period are the sum of its days, so finding the slowest or flakiest
+ * nodes of the last month reads one row per node and day instead of every result.
+ *
+ * <p>A run is added to the day it finished on. The runs are added once per session. The sketches
+ * are merged in the reporter, so the update holds a named lock to keep the reporters of concurrent
+ * sessions from overwriting each other. The runs that could not get the lock in time are queued
+ * again and added with those of the next session.
+ *
+ * @since 1.1
+ */
+final class NodeStatistics {
+  private static final int CHUNK = 500;
+  private static final String LOCK = "teacup_report.statistics";
+  private static final int LOCK_TIMEOUT = 10;
+  private static final Logger LOGGER = Logger.getLogger(NodeStatistics.class.getName());
+  private static final long MILLISECONDS_PER_DAY = 86_400_000L;
+
+  private final Queue<Run> runs = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Adds the runs collected since the last flush to the statistics of the days they finished on.
+   *
+   * @param connection the connection
+   */
+  void flush(Connection connection) {
+    List<Run> chunk = new ArrayList<>(CHUNK);
+    List<Run> locked = new ArrayList<>(0);
+
+    Run run;
+    while ((run = runs.poll()) != null) {
+      chunk.add(run);
+
+      if (chunk.size() == CHUNK) {
+        if (!flush(connection, chunk)) locked.addAll(chunk);
+        chunk.clear();
+      }
+    }
+
+    if (!chunk.isEmpty() && !flush(connection, chunk)) locked.addAll(chunk);
+
+    runs.addAll(locked);
+  }
+
+  int getPending() {
+    return runs.size();
+  }
+
+  /**
+   * Records a finished run of an execution.
+   *
+   * @param execution the ID of the execution
+   * @param status the status
+   * @param started when the node started, or 0 if unknown
+   * @param finished when the node finished
+   */
+  void record(int execution, Status status, long started, long finished) {
+    runs.offer(
+        new Run(
+            execution,
+            status != Status.SUCCESSFUL,
+            started > 0L && finished >= started ? finished - started : -1L,
+            Math.floorDiv(finished, MILLISECONDS_PER_DAY)));
+  }
+
+  /**
+   * Adds a chunk of runs to the statistics.
+   *
+   * @param connection the connection
+   * @param chunk the runs
+   * @return false if the statistics could not be locked in time, so that the runs can be added
+   *     later
+   */
+  private static boolean flush(Connection connection, List<Run> chunk) {
+    try {
+      var nodes = selectNodes(connection, chunk);
+      Map<Long, Map<Integer, Statistics>> days = new HashMap<>(1);
+
+      for (var run : chunk) {
+        var node = nodes.get(run.execution);
+
+        if (node == null) LOGGER.log(Level.FINE, "The execution {0} does not exist", run.execution);
+        else
+          days.computeIfAbsent(run.day, key -> new HashMap<>(chunk.size()))
+              .computeIfAbsent(node, key -> new Statistics())
+              .add(run);
+      }
+
+      if (!days.isEmpty()) {
+        if (!lock(connection)) {
+          LOGGER.log(
+              Level.WARNING,
+              "Could not lock the node statistics within {0} seconds, the runs are added later",
+              LOCK_TIMEOUT);
+          return false;
+        }
+
+        try {
+          for (var entry : days.entrySet())
+            upsert(
+                connection, entry.getValue(), Date.valueOf(LocalDate.ofEpochDay(entry.getKey())));
+        } finally {
+          unlock(connection);
+        }
+      }
+    } catch (SQLException e) {
+      LOGGER.log(Level.WARNING, "Could not update the node statistics", e);
+    }
+
+    return true;
+  }
+
+  private static String in(int size) {
+    return " IN (" + String.join(", ", Collections.nCopies(size, "?")) + ')';
+  }
+
+  private static boolean lock(Connection connection) throws SQLException {
+    try (var preparedStatement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+      preparedStatement.setString(1, LOCK);
+      preparedStatement.setInt(2, LOCK_TIMEOUT);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        return resultSet.next() && resultSet.getInt(1) == 1;
+      }
+    }
+  }
+
+  private static Map<Integer, Integer> selectNodes(Connection connection, List<Run> chunk)
+      throws SQLException {
+    Map<Integer, Integer> nodes = new HashMap<>(chunk.size());
+
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "SELECT id, node FROM `teacup_report`.`execution` WHERE id" + in(chunk.size()))) {
+      for (var i = 0; i < chunk.size(); i++)
+        preparedStatement.setInt(i + 1, chunk.get(i).execution);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) nodes.put(resultSet.getInt(1), resultSet.getInt(2));
+      }
+    }
+
+    return nodes;
+  }
+
+  private static void selectSketches(
+      Connection connection, Map<Integer, Statistics> statistics, Date day) throws SQLException {
+    List<Integer> nodes = new ArrayList<>(statistics.keySet());
+
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "SELECT node, sketch FROM `teacup_report`.`node_statistics` WHERE day = ? AND node"
+                + in(nodes.size()))) {
+      preparedStatement.setDate(1, day);
+      for (var i = 0; i < nodes.size(); i++) preparedStatement.setInt(i + 2, nodes.get(i));
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          var value = statistics.get(resultSet.getInt(1));
+          if (value != null) value.sketch.merge(DurationSketch.fromBytes(resultSet.getBytes(2)));
+        }
+      }
+    }
+  }
+
+  private static void unlock(Connection connection) {
+    try (var preparedStatement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+      preparedStatement.setString(1, LOCK);
+      preparedStatement.executeQuery().close();
+    } catch (SQLException e) {
+      LOGGER.log(Level.WARNING, "Could not unlock the node statistics", e);
+    }
+  }
+
+  private static void upsert(Connection connection, Map<Integer, Statistics> statistics, Date day)
+      throws SQLException {
+    selectSketches(connection, statistics, day);
+
+    // The counters are added in the database, the merged sketch and its percentiles replace the old
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "INSERT INTO `teacup_report`.`node_statistics`"
+                + "(node, day, runs, failures, duration, sketch, p50, p90, p99) "
+                + "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?) AS new ON DUPLICATE KEY UPDATE "
+                + "runs = runs + new.runs, failures = failures + new.failures, "
+                + "duration = duration + new.duration, sketch = new.sketch, "
+                + "p50 = new.p50, p90 = new.p90, p99 = new.p99")) {
+      for (var entry : statistics.entrySet()) {
+        var value = entry.getValue();
+
+        preparedStatement.setInt(1, entry.getKey());
+        preparedStatement.setDate(2, day);
+        preparedStatement.setInt(3, value.runs);
+        preparedStatement.setInt(4, value.failures);
+        preparedStatement.setLong(5, value.duration);
+        preparedStatement.setBytes(6, value.sketch.toBytes());
+        preparedStatement.setLong(7, value.sketch.getQuantile(0.5));
+        preparedStatement.setLong(8, value.sketch.getQuantile(0.9));
+        preparedStatement.setLong(9, value.sketch.getQuantile(0.99));
+
+        preparedStatement.addBatch();
+      }
+
+      StatementEvent.executeBatch(preparedStatement, "upsert node_statistics");
+    }
+  }
+
+  private static final class Run {
+    private final long day;
+    private final long duration;
+    private final int execution;
+    private final boolean failed;
+
+    private Run(int execution, boolean failed, long duration, long day) {
+      this.day = day;
+      this.duration = duration;
+      this.execution = execution;
+      this.failed = failed;
+    }
+  }
+
+  private static final class Statistics {
+    private final DurationSketch sketch = new DurationSketch();
+
+    private long duration;
+    private int failures;
+    private int runs;
+
+    private void add(Run run) {
+      if (run.duration >= 0L) {
+        duration += run.duration;
+        sketch.add(run.duration);
+      }
+
+      if (run.failed) failures++;
+      runs++;
+    }
+  }
+}
@@ -0,0 +1,261 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Maintains the partitions of the log tables. Partitions are added ahead of time by splitting the
+ * last partition, which holds everything above the others and is empty as long as the manager runs
+ * often enough. Partitions that only hold rows older than the retention are dropped, which is far
+ * cheaper than deleting the rows.
+ *
+ * <p>Partitioned by time, there is one partition per day in UTC named after the day. Partitioned by
+ * session, there is one partition per range of IDs named after its upper bound, and a partition is
+ * expired when all sessions in it were initialized before the retention.
+ *
+ * <p>Tables that were not created partitioned are left alone, with a warning, as the log tables are
+ * only partitioned when they are created. The manager holds a named lock while it runs and skips
+ * the maintenance if another reporter holds it.
+ *
+ * @since 1.1
+ */
+final class PartitionManager {
+  private static final long DAY = ChronoUnit.DAYS.getDuration().getSeconds();
+  private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+  private static final String LOCK = "teacup_report.partition";
+  private static final Logger LOGGER = Logger.getLogger(PartitionManager.class.getName());
+  private static final String MAXVALUE = "MAXVALUE";
+
+  private final int ahead;
+  private final Partitioning partitioning;
+  private final long retention;
+  private final long size;
+
+  PartitionManager(Configuration configuration) {
+    ahead = Math.max(1, configuration.getInt("log.partition.ahead", 7));
+    partitioning = Partitioning.parse(configuration.getString("log.partition"));
+    retention = Math.max(0L, configuration.getLong("log.retention.days", 0L));
+    size = Math.max(1L, configuration.getLong("log.partition.size", 10_000L));
+  }
+
+  Partitioning getPartitioning() {
+    return partitioning;
+  }
+
+  /**
+   * Adds the partitions ahead and drops the expired ones, unless the tables are not partitioned or
+   * another reporter is maintaining them.
+   *
+   * @param connection the connection
+   * @param now the current time
+   */
+  void maintain(Connection connection, Instant now) {
+    if (partitioning != Partitioning.NONE)
+      try {
+        if (lock(connection))
+          try {
+            maintain(connection, "session_log", IdAllocator.SESSION_EXECUTION, now);
+            maintain(connection, "log", IdAllocator.EXECUTION, now);
+          } finally {
+            unlock(connection);
+          }
+        else LOGGER.log(Level.FINE, "The partitions are maintained by another reporter");
+      } catch (SQLException e) {
+        LOGGER.log(Level.WARNING, "Could not maintain the partitions", e);
+      }
+  }
+
+  private static void alter(Connection connection, String table, String alteration)
+      throws SQLException {
+    LOGGER.log(Level.INFO, "Altering the partitions of {0}: {1}", new Object[] {table, alteration});
+
+    try (var statement = connection.createStatement()) {
+      statement.execute("ALTER TABLE `teacup_report`.`" + table + "` " + alteration);
+    }
+  }
+
+  private static void append(StringBuilder split, String name, long bound) {
+    split
+        .append("PARTITION `")
+        .append(name)
+        .append("` VALUES LESS THAN (")
+        .append(bound)
+        .append("), ");
+  }
+
+  private long getCutoff(Connection connection, String session, Instant now) throws SQLException {
+    var time = now.minus(retention, ChronoUnit.DAYS);
+
+    if (partitioning == Partitioning.TIME) return time.getEpochSecond();
+
+    long cutoff;
+
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "SELECT MIN(id) FROM `teacup_report`.`session_execution` WHERE initialized >= ?")) {
+      preparedStatement.setTimestamp(1, Timestamp.from(time));
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        cutoff = resultSet.next() ? resultSet.getLong(1) : 0L;
+      }
+    }
+
+    if (cutoff > 0L && IdAllocator.EXECUTION.equals(session))
+      try (var preparedStatement =
+          connection.prepareStatement(
+              "SELECT MIN(id) FROM `teacup_report`.`execution` WHERE session_execution >= ?")) {
+        preparedStatement.setLong(1, cutoff);
+
+        try (var resultSet = preparedStatement.executeQuery()) {
+          cutoff = resultSet.next() ? resultSet.getLong(1) : 0L;
+        }
+      }
+
+    return cutoff > 0L ? cutoff : getNext(connection, session);
+  }
+
+  private static long getNext(Connection connection, String session) throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "SELECT next_value FROM `teacup_report`.`sequence` WHERE name = ?")) {
+      preparedStatement.setString(1, session);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        return resultSet.next() ? resultSet.getLong(1) : 1L;
+      }
+    }
+  }
+
+  private static List<Partition> getPartitions(Connection connection, String table)
+      throws SQLException {
+    List<Partition> partitions = new ArrayList<>(16);
+
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = 'teacup_report' AND TABLE_NAME = ? "
+                + "AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION")) {
+      preparedStatement.setString(1, table);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          var description = resultSet.getString(2);
+          partitions.add(
+              new Partition(
+                  resultSet.getString(1),
+                  MAXVALUE.equals(description) ? Long.MAX_VALUE : Long.parseLong(description)));
+        }
+      }
+    }
+
+    return partitions;
+  }
+
+  private static boolean lock(Connection connection) throws SQLException {
+    try (var preparedStatement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+      preparedStatement.setString(1, LOCK);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        return resultSet.next() && resultSet.getInt(1) == 1;
+      }
+    }
+  }
+
+  private void maintain(Connection connection, String table, String session, Instant now)
+      throws SQLException {
+    var partitions = getPartitions(connection, table);
+
+    if (partitions.isEmpty()
+        || !Partitioning.LAST.equals(partitions.get(partitions.size() - 1).name))
+      LOGGER.log(
+          Level.WARNING,
+          "The table {0} is not partitioned by the reporter, reporter.mysql.log.partition only"
+              + " applies when the log tables are created",
+          table);
+    else {
+      var highest = partitions.size() > 1 ? partitions.get(partitions.size() - 2).bound : 0L;
+      var split = split(connection, session, now, highest);
+
+      if (split.length() > 0)
+        alter(
+            connection,
+            table,
+            "REORGANIZE PARTITION `"
+                + Partitioning.LAST
+                + "` INTO ("
+                + split
+                + "PARTITION `"
+                + Partitioning.LAST
+                + "` VALUES LESS THAN MAXVALUE)");
+
+      if (retention > 0L) {
+        var cutoff = getCutoff(connection, session, now);
+        var expired = new StringBuilder(64);
+
+        for (var partition : partitions)
+          if (partition.bound <= cutoff)
+            expired
+                .append(expired.length() == 0 ? "" : ", ")
+                .append('`')
+                .append(partition.name)
+                .append('`');
+
+        if (expired.length() > 0) alter(connection, table, "DROP PARTITION " + expired);
+      }
+    }
+  }
+
+  private CharSequence split(Connection connection, String session, Instant now, long highest)
+      throws SQLException {
+    var split = new StringBuilder(64);
+
+    if (partitioning == Partitioning.TIME) {
+      var today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+
+      for (var day = 0; day < ahead; day++) {
+        var date = today.plusDays(day);
+        var bound = date.toEpochDay() * DAY + DAY;
+
+        if (bound > highest) append(split, FORMATTER.format(date), bound);
+      }
+    } else {
+      var next = getNext(connection, session);
+
+      // Rows between the highest partition and the next ID end up in the first new partition
+      for (var bound = (Math.max(highest, next) / size + 1) * size;
+          bound <= next + ahead * size;
+          bound += size) append(split, "p" + bound, bound);
+    }
+
+    return split;
+  }
+
+  private static void unlock(Connection connection) {
+    try (var preparedStatement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+      preparedStatement.setString(1, LOCK);
+      preparedStatement.executeQuery().close();
+    } catch (SQLException e) {
+      LOGGER.log(Level.WARNING, "Could not unlock the partitions", e);
+    }
+  }
+
+  private static final class Partition {
+    private final long bound;
+    private final String name;
+
+    private Partition(String name, long bound) {
+      this.bound = bound;
+      this.name = name;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * How the log tables are partitioned. A partitioned table is RANGE partitioned by day on the time
+ * of the rows, or in ranges of IDs on the session of the rows, which for the log table is the
+ * execution. New tables start with one partition holding everything, and the {@link
+ * PartitionManager} splits it ahead of time and drops the expired partitions.
+ *
+ * <p>The time of a row is kept to the second in a table that is partitioned by time.
+ *
+ * <p>MySQL does not allow foreign keys on partitioned tables, and every unique key must include the
+ * partitioning column, so the partitioned tables have no foreign key and a primary key of the ID
+ * and the partitioning column.
+ *
+ * @since 1.1
+ */
+enum Partitioning {
+  NONE,
+  SESSION,
+  TIME;
+
+  static final String LAST = "pmax";
+
+  private static final Logger LOGGER = Logger.getLogger(Partitioning.class.getName());
+
+  /**
+   * Returns the partitioning with the name, case insensitive.
+   *
+   * @param name the name, or null
+   * @return the partitioning, or NONE if the name is null or unknown
+   */
+  static Partitioning parse(String name) {
+    var partitioning = NONE;
+
+    if (name != null)
+      try {
+        partitioning = valueOf(name.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        LOGGER.log(Level.WARNING, "Invalid partitioning " + name + ", using none", e);
+      }
+
+    return partitioning;
+  }
+
+  /**
+   * Returns the column the table is partitioned on.
+   *
+   * @param session the column referring to the session, or the execution, of a row
+   * @return the column
+   */
+  String getColumn(String session) {
+    return this == TIME ? "time" : session;
+  }
+
+  /**
+   * Returns the PARTITION BY clause of the table, with one partition holding everything.
+   *
+   * @param session the column referring to the session, or the execution, of a row
+   * @return the clause
+   */
+  String getPartitionBy(String session) {
+    return " PARTITION BY RANGE ("
+        + (this == TIME ? "UNIX_TIMESTAMP(`time`)" : '`' + session + '`')
+        + ") (PARTITION `"
+        + LAST
+        + "` VALUES LESS THAN MAXVALUE)";
+  }
+
+  /**
+   * Returns the definition of the time column of a log table. Partitioned by time, the column has
+   * no fractional seconds, as UNIX_TIMESTAMP returns a DECIMAL for one that has and a table can
+   * only be partitioned by an integer.
+   *
+   * @return the definition
+   */
+  String getTimeDefinition() {
+    return this == TIME ? "`time` TIMESTAMP NOT NULL," : "`time` TIMESTAMP(3) NOT NULL,";
+  }
+}
@@ -0,0 +1,310 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registers the nodes of a session. The whole tree is registered with a fixed number of statements,
+ * no matter how many nodes it has: one query resolving the node names, one batch inserting the
+ * names that were not found and one query resolving those, one batch inserting the executions with
+ * their parents, one batch inserting the closure of the tree and, unless the results are deferred
+ * until the nodes finish, one batch inserting the results. Only the IN-lists are split into chunks.
+ * Node names found in the cache skip the first three steps, and names that already exist the next
+ * two, so a name is only inserted, and an AUTO_INCREMENT value only taken, when it is new. The
+ * execution IDs are taken from the ID allocator, so nothing is read back after the inserts.
+ *
+ * <p>The closure holds a row for every execution and each of its ancestors, itself included at
+ * depth 0, so a subtree is read with a range on the primary key of the closure.
+ *
+ * @since 1.1
+ */
+final class Registration {
+  private static final int CHUNK = 1_000;
+  private static final Logger LOGGER = Logger.getLogger(Registration.class.getName());
+
+  private Registration() {}
+
+  /**
+   * Registers the nodes, and all their children, as executions of the session.
+   *
+   * @param connection the connection
+   * @param session the session ID
+   * @param nodes the nodes
+   * @param nodeCache the node cache
+   * @param idAllocator the ID allocator
+   * @param results whether to insert empty results, to be updated when the nodes start and finish
+   * @return the execution IDs of the nodes that could be registered
+   * @throws SQLException if the nodes could not be registered
+   */
+  static Map<Node, Integer> register(
+      Connection connection,
+      int session,
+      Iterable<? extends Node> nodes,
+      NodeCache nodeCache,
+      IdAllocator idAllocator,
+      boolean results)
+      throws SQLException {
+    var event = new RegistrationEvent();
+    event.begin();
+
+    List<Node> list = new ArrayList<>(16);
+    List<String> names = new ArrayList<>(16);
+    List<Integer> parents = new ArrayList<>(16);
+    flatten(nodes, -1, list, names, parents);
+
+    // The IDs are kept for this call, since the cache may be smaller than the tree
+    Map<String, Integer> resolved = new HashMap<>(names.size());
+    Collection<String> missing = new LinkedHashSet<>(16);
+
+    for (var name : names)
+      if (!resolved.containsKey(name) && !missing.contains(name)) {
+        var id = nodeCache.get(name);
+
+        if (id == null) missing.add(name);
+        else resolved.put(name, id);
+      }
+
+    if (!missing.isEmpty()) {
+      selectNodes(connection, missing, resolved, nodeCache);
+
+      // A name inserted by another reporter in between is ignored, and found by the second select
+      Collection<String> unknown = new ArrayList<>(missing);
+      unknown.removeAll(resolved.keySet());
+
+      if (!unknown.isEmpty()) {
+        insertNodes(connection, unknown);
+        selectNodes(connection, unknown, resolved, nodeCache);
+      }
+    }
+
+    var executionIds =
+        insertExecutions(
+            connection,
+            session,
+            resolve(connection, names, resolved, nodeCache),
+            parents,
+            idAllocator);
+    insertClosure(connection, executionIds, parents);
+    if (results) insertResults(connection, executionIds);
+
+    Map<Node, Integer> map = new HashMap<>(list.size());
+
+    for (var i = 0; i < executionIds.length; i++)
+      if (executionIds[i] > 0) map.put(list.get(i), executionIds[i]);
+
+    if (event.shouldCommit()) {
+      event.executions = map.size();
+      event.missing = missing.size();
+      event.nodes = list.size();
+      event.session = session;
+
+      event.commit();
+    }
+
+    return map;
+  }
+
+  // The parents come before their children, so the parent of a node has a lower index
+  private static void flatten(
+      Iterable<? extends Node> nodes,
+      int parent,
+      List<? super Node> list,
+      Collection<String> names,
+      Collection<Integer> parents) {
+    for (var node : nodes) {
+      var index = list.size();
+
+      list.add(node);
+      names.add(node.getName());
+      parents.add(parent);
+
+      flatten(node.getNodes(), index, list, names, parents);
+    }
+  }
+
+  private static void insertClosure(
+      Connection connection, int[] executionIds, List<Integer> parents) throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "INSERT INTO `teacup_report`.`execution_closure`(`ancestor`, `descendant`, `depth`) VALUES(?, ?, ?)")) {
+      var count = 0;
+
+      for (var i = 0; i < executionIds.length; i++)
+        if (executionIds[i] > 0)
+          for (int ancestor = i, depth = 0;
+              ancestor >= 0;
+              ancestor = parents.get(ancestor), depth++)
+            if (executionIds[ancestor] > 0) {
+              preparedStatement.setInt(1, executionIds[ancestor]);
+              preparedStatement.setInt(2, executionIds[i]);
+              preparedStatement.setInt(3, depth);
+              preparedStatement.addBatch();
+
+              count++;
+            }
+
+      if (count > 0) StatementEvent.executeBatch(preparedStatement, "insert execution_closure");
+    }
+  }
+
+  private static int[] insertExecutions(
+      Connection connection,
+      int session,
+      int[] nodeIds,
+      List<Integer> parents,
+      IdAllocator idAllocator)
+      throws SQLException {
+    var executionIds = new int[nodeIds.length];
+
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "INSERT INTO `teacup_report`.`execution`(`id`, `node`, `session_execution`, `parent`) VALUES(?, ?, ?, ?)")) {
+      var count = 0;
+
+      for (var i = 0; i < nodeIds.length; i++)
+        if (nodeIds[i] > 0) {
+          executionIds[i] = idAllocator.next(connection, IdAllocator.EXECUTION);
+
+          var parent = parents.get(i) < 0 ? 0 : executionIds[parents.get(i)];
+
+          preparedStatement.setInt(1, executionIds[i]);
+          preparedStatement.setInt(2, nodeIds[i]);
+          preparedStatement.setInt(3, session);
+
+          if (parent > 0) preparedStatement.setInt(4, parent);
+          else preparedStatement.setNull(4, Types.INTEGER);
+
+          preparedStatement.addBatch();
+
+          count++;
+        }
+
+      if (count > 0) StatementEvent.executeBatch(preparedStatement, "insert execution");
+    }
+
+    return executionIds;
+  }
+
+  private static void insertNodes(Connection connection, Iterable<String> names)
+      throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement("INSERT IGNORE INTO `teacup_report`.`node`(name) VALUES(?)")) {
+      for (var name : names) {
+        preparedStatement.setString(1, name);
+        preparedStatement.addBatch();
+      }
+
+      StatementEvent.executeBatch(preparedStatement, "insert node");
+    }
+  }
+
+  private static void insertResults(Connection connection, int[] executionIds) throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "INSERT INTO `teacup_report`.`result`(`id`, `execution`) VALUES(?, ?)")) {
+      var count = 0;
+
+      for (var executionId : executionIds)
+        if (executionId > 0) {
+          preparedStatement.setInt(1, executionId);
+          preparedStatement.setInt(2, executionId);
+          preparedStatement.addBatch();
+
+          count++;
+        }
+
+      if (count > 0) StatementEvent.executeBatch(preparedStatement, "insert result");
+    }
+  }
+
+  private static int[] resolve(
+      Connection connection, List<String> names, Map<String, Integer> resolved, NodeCache nodeCache)
+      throws SQLException {
+    var ids = new int[names.size()];
+
+    for (var i = 0; i < ids.length; i++) {
+      var name = names.get(i);
+      var id = resolved.get(name);
+
+      // Only a node that the bulk select did not find, such as one deleted in between
+      if (id == null) {
+        id = selectNode(connection, name);
+        if (id > 0) nodeCache.put(name, id);
+
+        resolved.put(name, id);
+      }
+
+      ids[i] = id;
+    }
+
+    return ids;
+  }
+
+  private static int selectNode(Connection connection, String name) throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement("SELECT id FROM `teacup_report`.`node` WHERE name = ?")) {
+      preparedStatement.setString(1, name);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        if (resultSet.next()) return resultSet.getInt(1);
+      }
+    }
+
+    LOGGER.log(Level.WARNING, "Could not find the node {0}", name);
+
+    return 0;
+  }
+
+  private static void selectNodes(
+      Connection connection,
+      Collection<String> names,
+      Map<String, Integer> resolved,
+      NodeCache nodeCache)
+      throws SQLException {
+    List<String> chunk = new ArrayList<>(Math.min(CHUNK, names.size()));
+
+    for (var name : names) {
+      chunk.add(name);
+
+      if (chunk.size() == CHUNK) {
+        selectNodes(connection, chunk, resolved, nodeCache);
+        chunk.clear();
+      }
+    }
+
+    if (!chunk.isEmpty()) selectNodes(connection, chunk, resolved, nodeCache);
+  }
+
+  private static void selectNodes(
+      Connection connection, List<String> chunk, Map<String, Integer> resolved, NodeCache nodeCache)
+      throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "SELECT id, name FROM `teacup_report`.`node` WHERE name IN ("
+                + String.join(", ", Collections.nCopies(chunk.size(), "?"))
+                + ')')) {
+      for (var i = 0; i < chunk.size(); i++) preparedStatement.setString(i + 1, chunk.get(i));
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          var name = resultSet.getString(2);
+          var id = resultSet.getInt(1);
+
+          nodeCache.put(name, id);
+          resolved.put(name, id);
+        }
+      }
+    }
+  }
+}
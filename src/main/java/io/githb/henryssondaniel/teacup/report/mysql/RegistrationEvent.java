@@ -0,0 +1,33 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the registration of a node tree when the reporter is initialized.
+ *
+ * @since 1.1
+ */
+@Category({"Teacup", "MySQL Reporter"})
+@Description("The nodes of a session registered by the reporter")
+@Label("Registration")
+@Name("io.githb.henryssondaniel.teacup.report.mysql.Registration")
+final class RegistrationEvent extends Event {
+  @Label("Executions")
+  @Description("Number of executions inserted")
+  int executions;
+
+  @Label("New Nodes")
+  @Description("Number of node names that were not cached")
+  int missing;
+
+  @Label("Nodes")
+  @Description("Number of nodes in the tree")
+  int nodes;
+
+  @Label("Session")
+  int session;
+}
@@ -0,0 +1,68 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.time.Instant;
+import java.util.logging.Level;
+
+/**
+ * Log record of a node read by {@link ReportQuery}.
+ *
+ * @since 1.1
+ */
+public final class ReportLog {
+  private final long id;
+  private final Level level;
+  private final String message;
+  private final Instant time;
+
+  ReportLog(long id, Level level, String message, Instant time) {
+    this.id = id;
+    this.level = level;
+    this.message = message;
+    this.time = time;
+  }
+
+  /**
+   * Returns the ID.
+   *
+   * @return the ID
+   * @since 1.1
+   */
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Returns the level.
+   *
+   * @return the level
+   * @since 1.1
+   */
+  public Level getLevel() {
+    return level;
+  }
+
+  /**
+   * Returns the message.
+   *
+   * @return the message
+   * @since 1.1
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  /**
+   * Returns when the record was logged.
+   *
+   * @return the time
+   * @since 1.1
+   */
+  public Instant getTime() {
+    return time;
+  }
+
+  @Override
+  public String toString() {
+    return time + " " + level + ' ' + message;
+  }
+}
@@ -0,0 +1,140 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+/**
+ * Statistics of a node over a period, read by {@link ReportQuery}. The durations are in
+ * milliseconds and only include the runs where the start time was known. The percentiles are within
+ * 1% of the true values.
+ *
+ * @since 1.1
+ */
+public final class ReportNodeStatistics {
+  private final long duration;
+  private final long failures;
+  private final String name;
+  private final long node;
+  private final long p50;
+  private final long p90;
+  private final long p99;
+  private final long runs;
+  private final long timed;
+
+  ReportNodeStatistics(
+      long node, String name, long runs, long failures, long duration, DurationSketch sketch) {
+    this.duration = duration;
+    this.failures = failures;
+    this.name = name;
+    this.node = node;
+    p50 = sketch.getQuantile(0.5);
+    p90 = sketch.getQuantile(0.9);
+    p99 = sketch.getQuantile(0.99);
+    this.runs = runs;
+    timed = sketch.getCount();
+  }
+
+  /**
+   * Returns the share of the runs that did not succeed.
+   *
+   * @return the failure rate, between 0 and 1
+   * @since 1.1
+   */
+  public double getFailureRate() {
+    return runs == 0L ? 0.0 : (double) failures / runs;
+  }
+
+  /**
+   * Returns the number of runs that did not succeed.
+   *
+   * @return the failures
+   * @since 1.1
+   */
+  public long getFailures() {
+    return failures;
+  }
+
+  /**
+   * Returns the mean duration.
+   *
+   * @return the mean, or 0 if no run was timed
+   * @since 1.1
+   */
+  public long getMean() {
+    return timed == 0L ? 0L : duration / timed;
+  }
+
+  /**
+   * Returns the name of the node.
+   *
+   * @return the name
+   * @since 1.1
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the ID of the node.
+   *
+   * @return the node
+   * @since 1.1
+   */
+  public long getNode() {
+    return node;
+  }
+
+  /**
+   * Returns the median duration.
+   *
+   * @return the 50th percentile
+   * @since 1.1
+   */
+  public long getP50() {
+    return p50;
+  }
+
+  /**
+   * Returns the 90th percentile of the durations.
+   *
+   * @return the 90th percentile
+   * @since 1.1
+   */
+  public long getP90() {
+    return p90;
+  }
+
+  /**
+   * Returns the 99th percentile of the durations.
+   *
+   * @return the 99th percentile
+   * @since 1.1
+   */
+  public long getP99() {
+    return p99;
+  }
+
+  /**
+   * Returns the number of runs.
+   *
+   * @return the runs
+   * @since 1.1
+   */
+  public long getRuns() {
+    return runs;
+  }
+
+  @Override
+  public String toString() {
+    return name
+        + ": runs="
+        + runs
+        + ", failures="
+        + failures
+        + ", mean="
+        + getMean()
+        + ", p50="
+        + p50
+        + ", p90="
+        + p90
+        + ", p99="
+        + p99;
+  }
+}
@@ -0,0 +1,405 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import com.mysql.cj.jdbc.MysqlDataSource;
+import io.github.henryssondaniel.teacup.core.configuration.Factory;
+import io.github.henryssondaniel.teacup.core.testing.Status;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Reads the sessions, results and logs that the reporter saved. Everything is paged by keyset: a
+ * page starts after the last row of the previous page rather than at an offset, so every page is
+ * read straight from an index no matter how deep into a large session it is.
+ *
+ * <p>The log of a node can also be streamed in one pass. The rows are then fetched from a server
+ * side cursor a few at a time, so neither the server nor the client holds the whole log in memory.
+ *
+ * @since 1.1
+ */
+public final class ReportQuery {
+  private static final String LOG =
+      "SELECT id, level, message, time FROM `teacup_report`.`log` WHERE execution = ?";
+  private static final String LOG_AFTER = " AND (time > ? OR time = ? AND id > ?)";
+  private static final String LOG_ORDER = " ORDER BY time, id";
+  private static final Logger LOGGER = Logger.getLogger(ReportQuery.class.getName());
+  private static final String RESULT =
+      "SELECT e.id, n.name, r.started, r.finished, r.status, s.id, rs.reason, er.message "
+          + "FROM `teacup_report`.`execution` e "
+          + "JOIN `teacup_report`.`node` n ON n.id = e.node "
+          + "LEFT JOIN `teacup_report`.`result` r ON r.execution = e.id "
+          + "LEFT JOIN `teacup_report`.`error` er ON er.result = r.id "
+          + "LEFT JOIN `teacup_report`.`skipped` s ON s.execution = e.id "
+          + "LEFT JOIN `teacup_report`.`reason` rs ON rs.skipped = s.id ";
+
+  private final DataSource dataSource;
+  private final int fetchSize;
+
+  /**
+   * Constructor. Connects to the server of the reporter configuration.
+   *
+   * @since 1.1
+   */
+  public ReportQuery() {
+    this(Factory.getProperties());
+  }
+
+  /**
+   * Constructor. Connects to a shard of the reporter configuration, the one that {@link
+   * ShardRouter#getShard} returns for the session to read.
+   *
+   * @param shard the shard
+   * @since 1.1
+   */
+  public ReportQuery(int shard) {
+    this(new Configuration(Factory.getProperties()).forShard(shard));
+  }
+
+  private ReportQuery(Properties properties) {
+    this(createDataSource(properties), new Configuration(properties));
+  }
+
+  ReportQuery(DataSource dataSource, Configuration configuration) {
+    this.dataSource = dataSource;
+    fetchSize = configuration.getInt("query.fetch.size", 1_000);
+  }
+
+  /**
+   * Returns the direct children of an execution, in the order they were registered.
+   *
+   * @param execution the ID of the execution
+   * @return the results of the children
+   * @throws SQLException if the results could not be read
+   * @since 1.1
+   */
+  public List<ReportResult> getChildren(long execution) throws SQLException {
+    List<ReportResult> results = new ArrayList<>(16);
+
+    try (var connection = dataSource.getConnection();
+        var preparedStatement =
+            connection.prepareStatement(RESULT + "WHERE e.parent = ? ORDER BY e.id")) {
+      preparedStatement.setLong(1, execution);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) results.add(createResult(resultSet));
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Returns a page of the log of an execution, in time order.
+   *
+   * @param execution the ID of the execution
+   * @param after the last record of the previous page, or null for the first page
+   * @param limit the maximum number of records
+   * @return the records
+   * @throws SQLException if the log could not be read
+   * @since 1.1
+   */
+  public List<ReportLog> getLogs(long execution, ReportLog after, int limit) throws SQLException {
+    List<ReportLog> logs = new ArrayList<>(Math.min(limit, 1_000));
+
+    try (var connection = dataSource.getConnection();
+        var preparedStatement =
+            connection.prepareStatement(
+                LOG + (after == null ? "" : LOG_AFTER) + LOG_ORDER + " LIMIT ?")) {
+      var index = 1;
+      preparedStatement.setLong(index++, execution);
+
+      if (after != null) {
+        var time = Timestamp.from(after.getTime());
+        preparedStatement.setTimestamp(index++, time);
+        preparedStatement.setTimestamp(index++, time);
+        preparedStatement.setLong(index++, after.getId());
+      }
+
+      preparedStatement.setInt(index, limit);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) logs.add(createLog(resultSet));
+      }
+    }
+
+    return logs;
+  }
+
+  /**
+   * Returns the statistics of every node that ran in a period, merged over the days of the period.
+   *
+   * @param from the first day in UTC
+   * @param to the last day in UTC
+   * @return the statistics, in the order of the node IDs
+   * @throws SQLException if the statistics could not be read
+   * @since 1.1
+   */
+  public List<ReportNodeStatistics> getNodeStatistics(LocalDate from, LocalDate to)
+      throws SQLException {
+    List<ReportNodeStatistics> statistics = new ArrayList<>(64);
+
+    try (var connection = dataSource.getConnection();
+        var preparedStatement =
+            connection.prepareStatement(
+                "SELECT s.node, n.name, s.runs, s.failures, s.duration, s.sketch "
+                    + "FROM `teacup_report`.`node_statistics` s "
+                    + "JOIN `teacup_report`.`node` n ON n.id = s.node "
+                    + "WHERE s.day BETWEEN ? AND ? ORDER BY s.node")) {
+      preparedStatement.setDate(1, Date.valueOf(from));
+      preparedStatement.setDate(2, Date.valueOf(to));
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        var node = 0L;
+        String name = null;
+        long runs = 0L;
+        long failures = 0L;
+        long duration = 0L;
+        var sketch = new DurationSketch();
+
+        // The days of a node are consecutive, so a node is complete when the next one starts
+        while (resultSet.next()) {
+          var next = resultSet.getLong(1);
+
+          if (next != node) {
+            if (name != null)
+              statistics.add(
+                  new ReportNodeStatistics(node, name, runs, failures, duration, sketch));
+
+            node = next;
+            name = resultSet.getString(2);
+            runs = 0L;
+            failures = 0L;
+            duration = 0L;
+            sketch = new DurationSketch();
+          }
+
+          runs += resultSet.getLong(3);
+          failures += resultSet.getLong(4);
+          duration += resultSet.getLong(5);
+          sketch.merge(DurationSketch.fromBytes(resultSet.getBytes(6)));
+        }
+
+        if (name != null)
+          statistics.add(new ReportNodeStatistics(node, name, runs, failures, duration, sketch));
+      }
+    }
+
+    return statistics;
+  }
+
+  /**
+   * Returns a page of the executions of a session, in the order they were registered.
+   *
+   * @param session the ID of the session
+   * @param after the execution of the last result of the previous page, or 0 for the first page
+   * @param limit the maximum number of results
+   * @return the results
+   * @throws SQLException if the results could not be read
+   * @since 1.1
+   */
+  public List<ReportResult> getResults(long session, long after, int limit) throws SQLException {
+    List<ReportResult> results = new ArrayList<>(Math.min(limit, 1_000));
+
+    try (var connection = dataSource.getConnection();
+        var preparedStatement =
+            connection.prepareStatement(
+                RESULT + "WHERE e.session_execution = ? AND e.id > ? ORDER BY e.id LIMIT ?")) {
+      preparedStatement.setLong(1, session);
+      preparedStatement.setLong(2, after);
+      preparedStatement.setInt(3, limit);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) results.add(createResult(resultSet));
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Returns a page of the sessions, newest first.
+   *
+   * @param before the ID of the last session of the previous page, or {@link Long#MAX_VALUE} for
+   *     the first page
+   * @param limit the maximum number of sessions
+   * @return the sessions
+   * @throws SQLException if the sessions could not be read
+   * @since 1.1
+   */
+  public List<ReportSession> getSessions(long before, int limit) throws SQLException {
+    List<ReportSession> sessions = new ArrayList<>(Math.min(limit, 1_000));
+
+    try (var connection = dataSource.getConnection();
+        var preparedStatement =
+            connection.prepareStatement(
+                "SELECT id, initialized, terminated_time FROM `teacup_report`.`session_execution` "
+                    + "WHERE id < ? ORDER BY id DESC LIMIT ?")) {
+      preparedStatement.setLong(1, before);
+      preparedStatement.setInt(2, limit);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next())
+          sessions.add(
+              new ReportSession(
+                  resultSet.getLong(1), getInstant(resultSet, 2), getInstant(resultSet, 3)));
+      }
+    }
+
+    return sessions;
+  }
+
+  /**
+   * Returns the counts of the results of a session. The counts are written by the reporter while
+   * the session runs, so they can lag behind the results by the summary interval until the session
+   * has terminated.
+   *
+   * @param session the ID of the session
+   * @return the summary, or null if the session has none
+   * @throws SQLException if the summary could not be read
+   * @since 1.1
+   */
+  public ReportSummary getSummary(long session) throws SQLException {
+    try (var connection = dataSource.getConnection();
+        var preparedStatement =
+            connection.prepareStatement(
+                "SELECT aborted, duration, failed, skipped, successful "
+                    + "FROM `teacup_report`.`session_summary` WHERE session_execution = ?")) {
+      preparedStatement.setLong(1, session);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        return resultSet.next()
+            ? new ReportSummary(
+                session,
+                resultSet.getLong(1),
+                resultSet.getLong(2),
+                resultSet.getLong(3),
+                resultSet.getLong(4),
+                resultSet.getLong(5))
+            : null;
+      }
+    }
+  }
+
+  /**
+   * Returns the counts of the results below an execution, at any depth. The subtree is read from
+   * the closure of the executions, so the cost depends on the size of the subtree only.
+   *
+   * @param execution the ID of the execution
+   * @return the summary, or null if the execution does not exist
+   * @throws SQLException if the summary could not be read
+   * @since 1.1
+   */
+  public ReportSummary getSubtreeSummary(long execution) throws SQLException {
+    try (var connection = dataSource.getConnection();
+        var preparedStatement =
+            connection.prepareStatement(
+                "SELECT a.session_execution, "
+                    + "COALESCE(SUM(r.status = 'aborted'), 0), "
+                    + "COALESCE(SUM(TIMESTAMPDIFF(MICROSECOND, r.started, r.finished) DIV 1000), 0), "
+                    + "COALESCE(SUM(r.status = 'failed'), 0), "
+                    + "COUNT(s.id), "
+                    + "COALESCE(SUM(r.status = 'successful'), 0) "
+                    + "FROM `teacup_report`.`execution` a "
+                    + "LEFT JOIN `teacup_report`.`execution_closure` c "
+                    + "ON c.ancestor = a.id AND c.depth > 0 "
+                    + "LEFT JOIN `teacup_report`.`result` r ON r.execution = c.descendant "
+                    + "LEFT JOIN `teacup_report`.`skipped` s ON s.execution = c.descendant "
+                    + "WHERE a.id = ? GROUP BY a.session_execution")) {
+      preparedStatement.setLong(1, execution);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        return resultSet.next()
+            ? new ReportSummary(
+                resultSet.getLong(1),
+                resultSet.getLong(2),
+                resultSet.getLong(3),
+                resultSet.getLong(4),
+                resultSet.getLong(5),
+                resultSet.getLong(6))
+            : null;
+      }
+    }
+  }
+
+  /**
+   * Streams the whole log of an execution, in time order. The connection is held until the last
+   * record has been consumed.
+   *
+   * @param execution the ID of the execution
+   * @param consumer the consumer of the records
+   * @return the number of records
+   * @throws SQLException if the log could not be read
+   * @since 1.1
+   */
+  public long streamLogs(long execution, Consumer<? super ReportLog> consumer) throws SQLException {
+    var count = 0L;
+
+    try (var connection = dataSource.getConnection();
+        var preparedStatement =
+            connection.prepareStatement(
+                LOG + LOG_ORDER, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+      preparedStatement.setFetchSize(fetchSize);
+      preparedStatement.setLong(1, execution);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        while (resultSet.next()) {
+          consumer.accept(createLog(resultSet));
+          count++;
+        }
+      }
+    }
+
+    return count;
+  }
+
+  private static DataSource createDataSource(Properties properties) {
+    var dataSource = DefaultReporter.createMysqlDataSource(properties);
+
+    // The data source is not shared with a reporter, so the cursors do not affect its statements
+    try {
+      dataSource.unwrap(MysqlDataSource.class).setUseCursorFetch(true);
+    } catch (SQLException e) {
+      LOGGER.log(Level.WARNING, "Could not configure the cursors", e);
+    }
+
+    return dataSource;
+  }
+
+  private static ReportLog createLog(ResultSet resultSet) throws SQLException {
+    return new ReportLog(
+        resultSet.getLong(1),
+        Level.parse(resultSet.getString(2).toUpperCase(Locale.ROOT)),
+        resultSet.getString(3),
+        getInstant(resultSet, 4));
+  }
+
+  private static ReportResult createResult(ResultSet resultSet) throws SQLException {
+    var status = resultSet.getString(5);
+
+    return new ReportResult(
+        resultSet.getLong(1),
+        resultSet.getString(2),
+        getInstant(resultSet, 3),
+        getInstant(resultSet, 4),
+        status == null ? null : Status.valueOf(status.toUpperCase(Locale.ROOT)),
+        resultSet.getObject(6) != null,
+        resultSet.getString(7),
+        resultSet.getString(8));
+  }
+
+  private static Instant getInstant(ResultSet resultSet, int column) throws SQLException {
+    var timestamp = resultSet.getTimestamp(column);
+    return timestamp == null ? null : timestamp.toInstant();
+  }
+}
@@ -0,0 +1,124 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.testing.Status;
+import java.time.Instant;
+
+/**
+ * Execution of a node in a session, with its result, read by {@link ReportQuery}.
+ *
+ * @since 1.1
+ */
+public final class ReportResult {
+  private final String error;
+  private final long execution;
+  private final Instant finished;
+  private final String name;
+  private final String reason;
+  private final boolean skipped;
+  private final Instant started;
+  private final Status status;
+
+  ReportResult(
+      long execution,
+      String name,
+      Instant started,
+      Instant finished,
+      Status status,
+      boolean skipped,
+      String reason,
+      String error) {
+    this.error = error;
+    this.execution = execution;
+    this.finished = finished;
+    this.name = name;
+    this.reason = reason;
+    this.skipped = skipped;
+    this.started = started;
+    this.status = status;
+  }
+
+  /**
+   * Returns the message of the error.
+   *
+   * @return the error, or null if there was none
+   * @since 1.1
+   */
+  public String getError() {
+    return error;
+  }
+
+  /**
+   * Returns the ID of the execution, which is also the ID to read the log of the node with.
+   *
+   * @return the execution
+   * @since 1.1
+   */
+  public long getExecution() {
+    return execution;
+  }
+
+  /**
+   * Returns when the node finished.
+   *
+   * @return the finished time, or null if the node has not finished
+   * @since 1.1
+   */
+  public Instant getFinished() {
+    return finished;
+  }
+
+  /**
+   * Returns the name of the node.
+   *
+   * @return the name
+   * @since 1.1
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the reason the node was skipped.
+   *
+   * @return the reason, or null if the node was not skipped
+   * @since 1.1
+   */
+  public String getReason() {
+    return reason;
+  }
+
+  /**
+   * Returns when the node started.
+   *
+   * @return the started time, or null if the node has not started
+   * @since 1.1
+   */
+  public Instant getStarted() {
+    return started;
+  }
+
+  /**
+   * Returns the status.
+   *
+   * @return the status, or null if the node has not finished
+   * @since 1.1
+   */
+  public Status getStatus() {
+    return status;
+  }
+
+  /**
+   * Returns whether the node was skipped.
+   *
+   * @return true if skipped
+   * @since 1.1
+   */
+  public boolean isSkipped() {
+    return skipped;
+  }
+
+  @Override
+  public String toString() {
+    return name + ": " + (skipped ? "skipped" : status);
+  }
+}
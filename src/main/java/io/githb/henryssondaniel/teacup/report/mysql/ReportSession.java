@@ -0,0 +1,55 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.time.Instant;
+
+/**
+ * Session read by {@link ReportQuery}.
+ *
+ * @since 1.1
+ */
+public final class ReportSession {
+  private final long id;
+  private final Instant initialized;
+  private final Instant terminated;
+
+  ReportSession(long id, Instant initialized, Instant terminated) {
+    this.id = id;
+    this.initialized = initialized;
+    this.terminated = terminated;
+  }
+
+  /**
+   * Returns the ID.
+   *
+   * @return the ID
+   * @since 1.1
+   */
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Returns when the session was initialized.
+   *
+   * @return the initialized time
+   * @since 1.1
+   */
+  public Instant getInitialized() {
+    return initialized;
+  }
+
+  /**
+   * Returns when the session was terminated.
+   *
+   * @return the terminated time, or null if the session is still running
+   * @since 1.1
+   */
+  public Instant getTerminated() {
+    return terminated;
+  }
+
+  @Override
+  public String toString() {
+    return "id=" + id + ", initialized=" + initialized + ", terminated=" + terminated;
+  }
+}
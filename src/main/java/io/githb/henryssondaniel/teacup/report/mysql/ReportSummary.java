@@ -0,0 +1,109 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+/**
+ * Counts of the results of a session read by {@link ReportQuery}.
+ *
+ * @since 1.1
+ */
+public final class ReportSummary {
+  private final long aborted;
+  private final long duration;
+  private final long failed;
+  private final long session;
+  private final long skipped;
+  private final long successful;
+
+  ReportSummary(
+      long session, long aborted, long duration, long failed, long skipped, long successful) {
+    this.aborted = aborted;
+    this.duration = duration;
+    this.failed = failed;
+    this.session = session;
+    this.skipped = skipped;
+    this.successful = successful;
+  }
+
+  /**
+   * Returns the number of aborted nodes.
+   *
+   * @return the aborted count
+   * @since 1.1
+   */
+  public long getAborted() {
+    return aborted;
+  }
+
+  /**
+   * Returns the sum of the durations of the finished nodes in milliseconds.
+   *
+   * @return the duration
+   * @since 1.1
+   */
+  public long getDuration() {
+    return duration;
+  }
+
+  /**
+   * Returns the number of failed nodes.
+   *
+   * @return the failed count
+   * @since 1.1
+   */
+  public long getFailed() {
+    return failed;
+  }
+
+  /**
+   * Returns the ID of the session.
+   *
+   * @return the session
+   * @since 1.1
+   */
+  public long getSession() {
+    return session;
+  }
+
+  /**
+   * Returns the number of skipped nodes.
+   *
+   * @return the skipped count
+   * @since 1.1
+   */
+  public long getSkipped() {
+    return skipped;
+  }
+
+  /**
+   * Returns the number of successful nodes.
+   *
+   * @return the successful count
+   * @since 1.1
+   */
+  public long getSuccessful() {
+    return successful;
+  }
+
+  /**
+   * Returns the number of nodes that finished or were skipped.
+   *
+   * @return the total
+   * @since 1.1
+   */
+  public long getTotal() {
+    return aborted + failed + skipped + successful;
+  }
+
+  @Override
+  public String toString() {
+    return "successful="
+        + successful
+        + ", failed="
+        + failed
+        + ", aborted="
+        + aborted
+        + ", skipped="
+        + skipped
+        + ", duration="
+        + duration;
+  }
+}
@@ -0,0 +1,57 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.util.Map;
+
+/**
+ * Metrics of a reporter, registered as an MXBean named
+ * io.githb.henryssondaniel.teacup.report.mysql:type=DefaultReporter,name=[number] when
+ * reporter.mysql.metrics is true. Every getter returns a snapshot, so the metrics can also be
+ * polled in process through {@link DefaultReporter#getMetrics()}.
+ *
+ * <p>The timers are:
+ *
+ * <ul>
+ *   <li>callback.[callback] for every callback of the reporter
+ *   <li>connection.acquire for getting a connection from the data source
+ *   <li>sql.[statement].[table] for executing the statements, for example sql.insert.log
+ * </ul>
+ *
+ * <p>The counters are sql.[statement].[table].failed for the statements that failed, and
+ * log.suppressed for the log records that were sampled away or rate limited. The gauges are the
+ * depth of the queues: async.queued, log.pending, session_log.pending, journal.pending,
+ * pool.borrowed and pool.idle, where they apply.
+ *
+ * @since 1.1
+ */
+public interface ReporterMetricsMXBean {
+  /**
+   * Returns the counters by name.
+   *
+   * @return the counters
+   * @since 1.1
+   */
+  Map<String, Long> getCounters();
+
+  /**
+   * Returns the current value of the gauges by name.
+   *
+   * @return the gauges
+   * @since 1.1
+   */
+  Map<String, Long> getGauges();
+
+  /**
+   * Returns the timers by name.
+   *
+   * @return the timers
+   * @since 1.1
+   */
+  Map<String, TimerSnapshot> getTimers();
+
+  /**
+   * Resets the counters and the timers.
+   *
+   * @since 1.1
+   */
+  void reset();
+}
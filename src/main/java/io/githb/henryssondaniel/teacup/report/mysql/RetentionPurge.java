@@ -0,0 +1,280 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.configuration.Factory;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Deletes the sessions that were initialized before the retention, together with everything that
+ * belongs to them. The rows are deleted child first, in the order the foreign keys require, and in
+ * small chunks that each commit on their own, with a pause in between. That way no lock is held for
+ * long, replicas can keep up and the reporters can keep writing while the purge runs. A purge that
+ * is stopped half way simply continues with the same session the next time.
+ *
+ * <p>The sessions are walked by ID, oldest first, and the executions of a session by ID as well, so
+ * every chunk is found through the primary key or an index. The node statistics of the days before
+ * the retention are deleted last.
+ *
+ * <p>Usage: {@code RetentionPurge [days]}. The days default to the retention of the configuration.
+ *
+ * @since 1.1
+ */
+public final class RetentionPurge implements Runnable {
+  private static final String LOCK = "teacup_report.retention";
+  private static final Logger LOGGER = Logger.getLogger(RetentionPurge.class.getName());
+
+  private final int chunk;
+  private final DataSource dataSource;
+  private final long days;
+  private final long pause;
+
+  RetentionPurge(DataSource dataSource, Configuration configuration, long days) {
+    chunk = Math.max(1, configuration.getInt("retention.chunk", 500));
+    this.dataSource = dataSource;
+    this.days = days;
+    pause = Math.max(0L, configuration.getLong("retention.pause", 100L));
+  }
+
+  /**
+   * Purges the sessions.
+   *
+   * @param args the retention in days, optional
+   * @since 1.1
+   */
+  public static void main(String... args) {
+    var properties = Factory.getProperties();
+    var configuration = new Configuration(properties);
+
+    var days =
+        args.length > 0 ? Long.parseLong(args[0]) : configuration.getLong("retention.days", 0L);
+
+    if (days <= 0L) LOGGER.log(Level.SEVERE, "No retention");
+    else
+      LOGGER.log(
+          Level.INFO,
+          "Purged {0} sessions",
+          new RetentionPurge(DefaultReporter.createMysqlDataSource(properties), configuration, days)
+              .purge(Instant.now()));
+  }
+
+  @Override
+  public void run() {
+    var purged = purge(Instant.now());
+    if (purged > 0) LOGGER.log(Level.INFO, "Purged {0} sessions", purged);
+  }
+
+  /**
+   * Purges the sessions that were initialized before the retention, unless another purge is
+   * running.
+   *
+   * @param now the current time
+   * @return the number of sessions purged
+   */
+  int purge(Instant now) {
+    var purged = 0;
+
+    try (var connection = dataSource.getConnection()) {
+      if (lock(connection))
+        try {
+          var cutoff = Timestamp.from(now.minus(days, ChronoUnit.DAYS));
+
+          for (var sessions = selectSessions(connection, cutoff, 0L);
+              !sessions.isEmpty() && !Thread.currentThread().isInterrupted();
+              sessions = selectSessions(connection, cutoff, sessions.get(sessions.size() - 1)))
+            for (var session : sessions)
+              if (!Thread.currentThread().isInterrupted()) {
+                purge(connection, session);
+                purged++;
+              }
+
+          if (!Thread.currentThread().isInterrupted())
+            purgeStatistics(connection, LocalDate.ofInstant(now, ZoneOffset.UTC).minusDays(days));
+        } finally {
+          unlock(connection);
+        }
+      else LOGGER.log(Level.FINE, "The sessions are purged by another reporter");
+    } catch (SQLException e) {
+      LOGGER.log(Level.WARNING, "Could not purge the sessions", e);
+    }
+
+    return purged;
+  }
+
+  /**
+   * Deletes a session and everything that belongs to it.
+   *
+   * @param connection the connection
+   * @param session the ID of the session
+   * @throws SQLException if the session could not be deleted
+   */
+  void purge(Connection connection, long session) throws SQLException {
+    LOGGER.log(Level.FINE, "Purging the session {0}", session);
+
+    var sessionIds = Collections.singletonList(session);
+
+    for (var executions = selectExecutions(connection, session, 0L);
+        !executions.isEmpty();
+        executions = selectExecutions(connection, session, executions.get(executions.size() - 1))) {
+      var in = in(executions.size());
+
+      delete(
+          connection, "DELETE FROM `teacup_report`.`error` WHERE result" + in, executions, false);
+      delete(connection, "DELETE FROM `teacup_report`.`result` WHERE id" + in, executions, false);
+      delete(
+          connection,
+          "DELETE FROM `teacup_report`.`reason` WHERE skipped IN "
+              + "(SELECT id FROM `teacup_report`.`skipped` WHERE execution"
+              + in
+              + ')',
+          executions,
+          false);
+      delete(
+          connection,
+          "DELETE FROM `teacup_report`.`skipped` WHERE execution" + in,
+          executions,
+          false);
+      delete(
+          connection,
+          "DELETE FROM `teacup_report`.`log` WHERE execution" + in + " LIMIT " + chunk,
+          executions,
+          true);
+      // The ancestors have lower IDs than their descendants, so their rows are deleted first
+      delete(
+          connection,
+          "DELETE FROM `teacup_report`.`execution_closure` WHERE ancestor" + in,
+          executions,
+          false);
+      delete(
+          connection, "DELETE FROM `teacup_report`.`execution` WHERE id" + in, executions, false);
+    }
+
+    delete(
+        connection,
+        "DELETE FROM `teacup_report`.`session_log` WHERE session_execution = ? LIMIT " + chunk,
+        sessionIds,
+        true);
+    delete(
+        connection,
+        "DELETE FROM `teacup_report`.`session_summary` WHERE session_execution = ?",
+        sessionIds,
+        false);
+    delete(
+        connection,
+        "DELETE FROM `teacup_report`.`session_execution` WHERE id = ?",
+        sessionIds,
+        false);
+  }
+
+  private void delete(Connection connection, String sql, List<Long> ids, boolean repeat)
+      throws SQLException {
+    try (var preparedStatement = connection.prepareStatement(sql)) {
+      for (var i = 0; i < ids.size(); i++) preparedStatement.setLong(i + 1, ids.get(i));
+
+      int deleted;
+
+      do {
+        deleted = preparedStatement.executeUpdate();
+        pause();
+      } while (repeat && deleted >= chunk && !Thread.currentThread().isInterrupted());
+    }
+  }
+
+  private List<Long> getIds(PreparedStatement preparedStatement) throws SQLException {
+    List<Long> ids = new ArrayList<>(chunk);
+
+    try (var resultSet = preparedStatement.executeQuery()) {
+      while (resultSet.next()) ids.add(resultSet.getLong(1));
+    }
+
+    return ids;
+  }
+
+  private static String in(int size) {
+    return " IN (" + String.join(", ", Collections.nCopies(size, "?")) + ')';
+  }
+
+  private static boolean lock(Connection connection) throws SQLException {
+    try (var preparedStatement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+      preparedStatement.setString(1, LOCK);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        return resultSet.next() && resultSet.getInt(1) == 1;
+      }
+    }
+  }
+
+  private void pause() {
+    if (pause > 0L)
+      try {
+        Thread.sleep(pause);
+      } catch (InterruptedException e) {
+        LOGGER.log(Level.INFO, "Interrupted while purging the sessions", e);
+        Thread.currentThread().interrupt();
+      }
+  }
+
+  private void purgeStatistics(Connection connection, LocalDate cutoff) throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "DELETE FROM `teacup_report`.`node_statistics` WHERE day < ? LIMIT " + chunk)) {
+      preparedStatement.setDate(1, Date.valueOf(cutoff));
+
+      int deleted;
+
+      do {
+        deleted = preparedStatement.executeUpdate();
+        pause();
+      } while (deleted >= chunk && !Thread.currentThread().isInterrupted());
+    }
+  }
+
+  private List<Long> selectExecutions(Connection connection, long session, long after)
+      throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "SELECT id FROM `teacup_report`.`execution` WHERE session_execution = ? AND id > ? "
+                + "ORDER BY id LIMIT "
+                + chunk)) {
+      preparedStatement.setLong(1, session);
+      preparedStatement.setLong(2, after);
+
+      return getIds(preparedStatement);
+    }
+  }
+
+  private List<Long> selectSessions(Connection connection, Timestamp cutoff, long after)
+      throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "SELECT id FROM `teacup_report`.`session_execution` WHERE id > ? AND initialized < ? "
+                + "ORDER BY id LIMIT "
+                + chunk)) {
+      preparedStatement.setLong(1, after);
+      preparedStatement.setTimestamp(2, cutoff);
+
+      return getIds(preparedStatement);
+    }
+  }
+
+  private static void unlock(Connection connection) {
+    try (var preparedStatement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+      preparedStatement.setString(1, LOCK);
+      preparedStatement.executeQuery().close();
+    } catch (SQLException e) {
+      LOGGER.log(Level.WARNING, "Could not unlock the retention", e);
+    }
+  }
+}
@@ -0,0 +1,514 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Creates and migrates the database schema. The version is kept in the schema_version table, so a
+ * database that is up to date costs one query. An older database is migrated one version at a time
+ * while holding a named lock, so that sessions starting at the same time do not run the same DDL.
+ *
+ * @since 1.1
+ */
+final class Schema {
+  private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS ";
+  private static final String EXECUTION = "execution";
+  private static final String EXECUTION_FK =
+      " FOREIGN KEY (`execution`) REFERENCES `teacup_report`.`execution` (`id`)";
+  private static final String EXECUTION_INT = "`execution` INT UNSIGNED NOT NULL,";
+  private static final String ID = "`id` INT UNSIGNED NOT NULL AUTO_INCREMENT,";
+  private static final String LEVEL_ENUM =
+      "`level` ENUM('config', 'fine', 'finer', 'finest', 'info', 'severe', 'warning') NOT NULL,";
+  private static final String LOCK = "teacup_report.schema";
+  private static final int LOCK_TIMEOUT = 60;
+  private static final Logger LOGGER = Logger.getLogger(Schema.class.getName());
+  private static final Migration[] MIGRATIONS = {
+    Schema::createTables,
+    (connection, partitioning) -> createSequence(connection),
+    (connection, partitioning) -> createQueryIndexes(connection),
+    (connection, partitioning) -> createSessionSummary(connection),
+    (connection, partitioning) -> createNodeStatistics(connection),
+    (connection, partitioning) -> createExecutionClosure(connection),
+    (connection, partitioning) -> createSessionShard(connection)
+  };
+  private static final String MESSAGE_TEXT = "`message` TEXT NOT NULL,";
+  private static final String NO_ACTION = " ON DELETE NO ACTION ON UPDATE NO ACTION";
+  private static final String PRIMARY_KEY = "PRIMARY KEY (`id`),";
+  private static final String SESSION_EXECUTION = "session_execution";
+  private static final String SESSION_EXECUTION_FK =
+      " FOREIGN KEY (`session_execution`) REFERENCES `teacup_report`.`session_execution` (`id`)";
+  private static final String SESSION_LOG_INDEX =
+      "  INDEX `session_log.session_execution_idx` (`session_execution` ASC) VISIBLE";
+  private static final String UNIQUE_INDEX_EXECUTION =
+      "UNIQUE INDEX `execution_UNIQUE` (`execution` ASC) VISIBLE,";
+  private static final String UNIQUE_INDEX_ID = "UNIQUE INDEX `id_UNIQUE` (`id` ASC) VISIBLE";
+  private static final int UNKNOWN_DATABASE = 1049;
+  private static final int UNKNOWN_TABLE = 1146;
+  static final int VERSION = MIGRATIONS.length;
+
+  private Schema() {}
+
+  /**
+   * Migrates the schema to the latest version, unless it is already there.
+   *
+   * @param connection the connection
+   * @param partitioning the partitioning of the log tables, if they are created
+   * @throws SQLException if the schema could not be migrated
+   */
+  static void migrate(Connection connection, Partitioning partitioning) throws SQLException {
+    if (getVersion(connection) < VERSION) {
+      lock(connection);
+
+      try {
+        for (var version = getVersion(connection); version < VERSION; version++) {
+          LOGGER.log(Level.INFO, "Migrating the schema to version {0}", version + 1);
+
+          MIGRATIONS[version].migrate(connection, partitioning);
+          setVersion(connection, version + 1);
+        }
+      } finally {
+        unlock(connection);
+      }
+    }
+  }
+
+  private static void alter(Connection connection, String table, String alteration)
+      throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute("ALTER TABLE `teacup_report`.`" + table + "` " + alteration);
+    }
+  }
+
+  private static void createError(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`error` ("
+              + ID
+              + MESSAGE_TEXT
+              + "  `result` INT UNSIGNED NOT NULL,"
+              + PRIMARY_KEY
+              + UNIQUE_INDEX_ID
+              + ','
+              + "  UNIQUE INDEX `result_UNIQUE` (`result` ASC) VISIBLE,"
+              + "  CONSTRAINT `error_result`"
+              + "    FOREIGN KEY (`result`)"
+              + "    REFERENCES `teacup_report`.`result` (`id`)"
+              + NO_ACTION
+              + ");");
+    }
+  }
+
+  private static void createExecution(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`execution` ("
+              + ID
+              + "  `node` INT UNSIGNED NOT NULL,"
+              + "  `session_execution` INT UNSIGNED NOT NULL,"
+              + PRIMARY_KEY
+              + UNIQUE_INDEX_ID
+              + ','
+              + "  INDEX `execution.nod_idx` (`node` ASC) VISIBLE,"
+              + "  INDEX `execution.session_execution_idx` (`session_execution` ASC) VISIBLE,"
+              + "  CONSTRAINT `execution.node`"
+              + "    FOREIGN KEY (`node`)"
+              + "    REFERENCES `teacup_report`.`node` (`id`)"
+              + NO_ACTION
+              + ','
+              + "  CONSTRAINT `execution.session_execution`"
+              + SESSION_EXECUTION_FK
+              + NO_ACTION
+              + ");");
+    }
+  }
+
+  /**
+   * Adds the parent of every execution, and the closure table that holds every execution together
+   * with all its ancestors, so that a subtree is a range read instead of a scan of the session.
+   */
+  private static void createExecutionClosure(Connection connection) throws SQLException {
+    alter(
+        connection,
+        EXECUTION,
+        "ADD COLUMN `parent` INT UNSIGNED NULL, "
+            + "ADD INDEX `execution.parent_idx` (`parent` ASC) VISIBLE");
+
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`execution_closure` ("
+              + "  `ancestor` INT UNSIGNED NOT NULL,"
+              + "  `depth` SMALLINT UNSIGNED NOT NULL,"
+              + "  `descendant` INT UNSIGNED NOT NULL,"
+              + "  PRIMARY KEY (`ancestor`, `descendant`),"
+              + "  INDEX `execution_closure.descendant_idx` (`descendant` ASC) VISIBLE,"
+              + "  CONSTRAINT `execution_closure.ancestor`"
+              + "    FOREIGN KEY (`ancestor`)"
+              + "    REFERENCES `teacup_report`.`execution` (`id`)"
+              + NO_ACTION
+              + ','
+              + "  CONSTRAINT `execution_closure.descendant`"
+              + "    FOREIGN KEY (`descendant`)"
+              + "    REFERENCES `teacup_report`.`execution` (`id`)"
+              + NO_ACTION
+              + ");");
+    }
+  }
+
+  private static void createLog(Connection connection, Partitioning partitioning)
+      throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`log` ("
+              + EXECUTION_INT
+              + ID
+              + LEVEL_ENUM
+              + MESSAGE_TEXT
+              + partitioning.getTimeDefinition()
+              + (partitioning == Partitioning.NONE
+                  ? PRIMARY_KEY
+                      + UNIQUE_INDEX_ID
+                      + ','
+                      + "  INDEX `log.execution_idx` (`execution` ASC) VISIBLE,"
+                      + "  CONSTRAINT `log.execution`"
+                      + EXECUTION_FK
+                      + NO_ACTION
+                      + ')'
+                  : getPrimaryKey(partitioning, EXECUTION)
+                      + "  INDEX `log.execution_idx` (`execution` ASC) VISIBLE)"
+                      + partitioning.getPartitionBy(EXECUTION))
+              + ';');
+    }
+  }
+
+  private static void createNode(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`node` ("
+              + ID
+              + "  `name` VARCHAR(255) NOT NULL,"
+              + PRIMARY_KEY
+              + UNIQUE_INDEX_ID
+              + ','
+              + "  UNIQUE INDEX `name_UNIQUE` (`name` ASC) VISIBLE);");
+    }
+  }
+
+  private static void createNodeStatistics(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`node_statistics` ("
+              + "  `day` DATE NOT NULL,"
+              + "  `duration` BIGINT UNSIGNED NOT NULL,"
+              + "  `failures` INT UNSIGNED NOT NULL,"
+              + "  `node` INT UNSIGNED NOT NULL,"
+              + "  `p50` BIGINT UNSIGNED NOT NULL,"
+              + "  `p90` BIGINT UNSIGNED NOT NULL,"
+              + "  `p99` BIGINT UNSIGNED NOT NULL,"
+              + "  `runs` INT UNSIGNED NOT NULL,"
+              + "  `sketch` BLOB NOT NULL,"
+              + "  PRIMARY KEY (`node`, `day`),"
+              + "  INDEX `node_statistics.day_idx` (`day` ASC) VISIBLE,"
+              + "  CONSTRAINT `node_statistics.node`"
+              + "    FOREIGN KEY (`node`)"
+              + "    REFERENCES `teacup_report`.`node` (`id`)"
+              + NO_ACTION
+              + ");");
+    }
+  }
+
+  /**
+   * Replaces the foreign key indexes that the queries of {@link ReportQuery} page through with
+   * indexes that also hold the sort order, so that a page is read in index order and stops after
+   * the limit instead of sorting every row of the session or execution.
+   */
+  private static void createQueryIndexes(Connection connection) throws SQLException {
+    alter(
+        connection,
+        EXECUTION,
+        "ADD INDEX `execution.session_execution_id_idx` "
+            + "(`session_execution` ASC, `id` ASC, `node` ASC) VISIBLE, "
+            + "DROP INDEX `execution.session_execution_idx`");
+    alter(
+        connection,
+        "log",
+        "ADD INDEX `log.execution_time_idx` (`execution` ASC, `time` ASC) VISIBLE, "
+            + "DROP INDEX `log.execution_idx`");
+    alter(
+        connection,
+        "session_log",
+        "ADD INDEX `session_log.session_execution_time_idx` "
+            + "(`session_execution` ASC, `time` ASC) VISIBLE, "
+            + "DROP INDEX `session_log.session_execution_idx`");
+  }
+
+  private static void createReason(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`reason` ("
+              + ID
+              + "  `reason` TEXT NOT NULL,"
+              + "  `skipped` INT UNSIGNED NOT NULL,"
+              + PRIMARY_KEY
+              + UNIQUE_INDEX_ID
+              + ','
+              + "  UNIQUE INDEX `skipped_UNIQUE` (`skipped` ASC) VISIBLE,"
+              + "  CONSTRAINT `reason.skipped`"
+              + "    FOREIGN KEY (`skipped`)"
+              + "    REFERENCES `teacup_report`.`skipped` (`id`)"
+              + NO_ACTION
+              + ");");
+    }
+  }
+
+  private static void createResult(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`result` ("
+              + EXECUTION_INT
+              + "  `finished` TIMESTAMP(3) NULL,"
+              + ID
+              + "  `started` TIMESTAMP(3) NULL,"
+              + "  `status` ENUM('aborted', 'failed', 'successful') NULL,"
+              + PRIMARY_KEY
+              + UNIQUE_INDEX_ID
+              + ','
+              + UNIQUE_INDEX_EXECUTION
+              + "  CONSTRAINT `result.execution`"
+              + EXECUTION_FK
+              + NO_ACTION
+              + ");");
+    }
+  }
+
+  private static void createSchema(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute("CREATE SCHEMA IF NOT EXISTS teacup_report");
+    }
+  }
+
+  private static void createSchemaVersion(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`schema_version` ("
+              + "  `applied` TIMESTAMP(3) NOT NULL DEFAULT NOW(3),"
+              + "  `version` INT UNSIGNED NOT NULL,"
+              + "  PRIMARY KEY (`version`));");
+    }
+  }
+
+  private static void createSequence(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`sequence` ("
+              + "  `name` VARCHAR(64) NOT NULL,"
+              + "  `next_value` INT UNSIGNED NOT NULL,"
+              + "  PRIMARY KEY (`name`));");
+    }
+
+    // The results share the IDs of their executions, so both tables must be past the start
+    seedSequence(
+        connection,
+        IdAllocator.EXECUTION,
+        "GREATEST((SELECT COALESCE(MAX(id), 0) FROM `teacup_report`.`execution`), "
+            + "(SELECT COALESCE(MAX(id), 0) FROM `teacup_report`.`result`))");
+    seedSequence(
+        connection,
+        IdAllocator.ERROR,
+        "(SELECT COALESCE(MAX(id), 0) FROM `teacup_report`.`error`)");
+    seedSequence(
+        connection,
+        IdAllocator.SESSION_EXECUTION,
+        "(SELECT COALESCE(MAX(id), 0) FROM `teacup_report`.`session_execution`)");
+    seedSequence(
+        connection,
+        IdAllocator.SKIPPED,
+        "(SELECT COALESCE(MAX(id), 0) FROM `teacup_report`.`skipped`)");
+  }
+
+  private static void createSessionExecution(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`session_execution` ("
+              + ID
+              + "  `initialized` TIMESTAMP(3) NOT NULL DEFAULT NOW(3),"
+              + "  `terminated_time` TIMESTAMP(3) NULL,"
+              + PRIMARY_KEY
+              + UNIQUE_INDEX_ID
+              + ");");
+    }
+  }
+
+  private static void createSessionLog(Connection connection, Partitioning partitioning)
+      throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`session_log` ("
+              + ID
+              + LEVEL_ENUM
+              + MESSAGE_TEXT
+              + "  `session_execution` INT UNSIGNED NOT NULL,"
+              + partitioning.getTimeDefinition()
+              + (partitioning == Partitioning.NONE
+                  ? PRIMARY_KEY
+                      + UNIQUE_INDEX_ID
+                      + ','
+                      + SESSION_LOG_INDEX
+                      + ','
+                      + "  CONSTRAINT `session_log.session_execution`"
+                      + SESSION_EXECUTION_FK
+                      + NO_ACTION
+                      + ')'
+                  : getPrimaryKey(partitioning, SESSION_EXECUTION)
+                      + SESSION_LOG_INDEX
+                      + ')'
+                      + partitioning.getPartitionBy(SESSION_EXECUTION))
+              + ';');
+    }
+  }
+
+  /**
+   * Adds the shard directory, which holds the shard of every session of a sharded reporter. Only
+   * the directory of shard 0 is filled in.
+   */
+  private static void createSessionShard(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`session_shard` ("
+              + "  `session_execution` INT UNSIGNED NOT NULL,"
+              + "  `shard` SMALLINT UNSIGNED NOT NULL,"
+              + "  PRIMARY KEY (`session_execution`),"
+              + "  INDEX `session_shard.shard_idx` (`shard` ASC, `session_execution` ASC) VISIBLE);");
+    }
+  }
+
+  private static void createSessionSummary(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`session_summary` ("
+              + "  `aborted` INT UNSIGNED NOT NULL,"
+              + "  `duration` BIGINT UNSIGNED NOT NULL,"
+              + "  `failed` INT UNSIGNED NOT NULL,"
+              + "  `session_execution` INT UNSIGNED NOT NULL,"
+              + "  `skipped` INT UNSIGNED NOT NULL,"
+              + "  `successful` INT UNSIGNED NOT NULL,"
+              + "  `updated` TIMESTAMP(3) NOT NULL DEFAULT NOW(3) ON UPDATE NOW(3),"
+              + "  PRIMARY KEY (`session_execution`),"
+              + "  CONSTRAINT `session_summary.session_execution`"
+              + SESSION_EXECUTION_FK
+              + NO_ACTION
+              + ");");
+    }
+  }
+
+  private static void createSkipped(Connection connection) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(
+          CREATE_TABLE
+              + "`teacup_report`.`skipped` ("
+              + EXECUTION_INT
+              + ID
+              + PRIMARY_KEY
+              + UNIQUE_INDEX_ID
+              + ','
+              + UNIQUE_INDEX_EXECUTION
+              + "  CONSTRAINT `skipped.execution`"
+              + EXECUTION_FK
+              + NO_ACTION
+              + ");");
+    }
+  }
+
+  private static void createTables(Connection connection, Partitioning partitioning)
+      throws SQLException {
+    createSchema(connection);
+    createSchemaVersion(connection);
+    createNode(connection);
+    createSessionExecution(connection);
+    createSessionLog(connection, partitioning);
+    createExecution(connection);
+    createLog(connection, partitioning);
+    createSkipped(connection);
+    createReason(connection);
+    createResult(connection);
+    createError(connection);
+  }
+
+  private static String getPrimaryKey(Partitioning partitioning, String session) {
+    return "PRIMARY KEY (`id`, `" + partitioning.getColumn(session) + "`),";
+  }
+
+  private static int getVersion(Connection connection) throws SQLException {
+    try (var preparedStatement =
+            connection.prepareStatement(
+                "SELECT MAX(version) FROM `teacup_report`.`schema_version`");
+        var resultSet = preparedStatement.executeQuery()) {
+      return resultSet.next() ? resultSet.getInt(1) : 0;
+    } catch (SQLException e) {
+      if (e.getErrorCode() == UNKNOWN_DATABASE || e.getErrorCode() == UNKNOWN_TABLE) return 0;
+      throw e;
+    }
+  }
+
+  private static void lock(Connection connection) throws SQLException {
+    try (var preparedStatement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+      preparedStatement.setString(1, LOCK);
+      preparedStatement.setInt(2, LOCK_TIMEOUT);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        if (!resultSet.next() || resultSet.getInt(1) != 1)
+          throw new SQLException("Could not lock the schema within " + LOCK_TIMEOUT + " seconds");
+      }
+    }
+  }
+
+  private static void seedSequence(Connection connection, String name, String last)
+      throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "INSERT IGNORE INTO `teacup_report`.`sequence`(name, next_value) SELECT ?, "
+                + last
+                + " + 1")) {
+      preparedStatement.setString(1, name);
+      preparedStatement.execute();
+    }
+  }
+
+  private static void setVersion(Connection connection, int version) throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "INSERT INTO `teacup_report`.`schema_version`(version) VALUES(?)")) {
+      preparedStatement.setInt(1, version);
+      preparedStatement.execute();
+    }
+  }
+
+  private static void unlock(Connection connection) {
+    try (var preparedStatement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+      preparedStatement.setString(1, LOCK);
+      preparedStatement.executeQuery().close();
+    } catch (SQLException e) {
+      LOGGER.log(Level.WARNING, "Could not unlock the schema", e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface Migration {
+    void migrate(Connection connection, Partitioning partitioning) throws SQLException;
+  }
+}
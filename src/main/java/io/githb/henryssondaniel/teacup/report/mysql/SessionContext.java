@@ -0,0 +1,47 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The state of one session of a reporter: its ID, the nodes that belong to it, its log filter and
+ * its summary. A reporter keeps one for every session that is initialized and not yet terminated,
+ * so that launchers reporting at the same time through the same reporter do not overwrite each
+ * other. The connections, batches and writers of the reporter are shared by all its sessions.
+ *
+ * @since 1.1
+ */
+final class SessionContext {
+  private final int id;
+  private final LogFilter logFilter;
+  private final Set<Node> nodes = ConcurrentHashMap.newKeySet();
+  private final SessionSummary sessionSummary;
+
+  SessionContext(int id, LogFilter logFilter, SessionSummary sessionSummary) {
+    this.id = id;
+    this.logFilter = logFilter;
+    this.sessionSummary = sessionSummary;
+  }
+
+  int getId() {
+    return id;
+  }
+
+  LogFilter getLogFilter() {
+    return logFilter;
+  }
+
+  /**
+   * Returns the nodes of the session that have not ended yet.
+   *
+   * @return the nodes
+   */
+  Set<Node> getNodes() {
+    return nodes;
+  }
+
+  SessionSummary getSessionSummary() {
+    return sessionSummary;
+  }
+}
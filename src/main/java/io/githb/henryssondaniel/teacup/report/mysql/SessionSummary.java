@@ -0,0 +1,175 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.testing.Status;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Counts the results of the current session in memory and writes them to the session_summary table,
+ * so that an overview of a session is a single row read by primary key instead of an aggregate over
+ * all its executions.
+ *
+ * <p>The counters are written as absolute values, at most once per interval while the session runs
+ * and once more when it terminates. Writing the same counters twice is harmless, so a write that is
+ * lost or repeated is corrected by the next one. The counters only grow, so every column keeps the
+ * greatest value written and a scheduled write that finishes late cannot undo the final one. A
+ * write that fails is counted in the failures of the reporter.
+ *
+ * @since 1.1
+ */
+final class SessionSummary {
+  private static final Logger LOGGER = Logger.getLogger(SessionSummary.class.getName());
+  private static final ScheduledExecutorService SCHEDULED_EXECUTOR_SERVICE =
+      Executors.newSingleThreadScheduledExecutor(SessionSummary::createThread);
+
+  private final LongAdder aborted = new LongAdder();
+  private final DataSource dataSource;
+  private final AtomicBoolean dirty = new AtomicBoolean();
+  private final LongAdder duration = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder failures;
+  private final long interval;
+  private final LongAdder skipped = new LongAdder();
+  private final LongAdder successful = new LongAdder();
+
+  private volatile int session;
+
+  /**
+   * Constructor.
+   *
+   * @param dataSource the data source
+   * @param interval the milliseconds between the writes while the session runs, or 0
+   * @param failures the failed writes of the reporter, which the failed writes are added to
+   */
+  SessionSummary(DataSource dataSource, long interval, LongAdder failures) {
+    this.dataSource = dataSource;
+    this.failures = failures;
+    this.interval = interval;
+  }
+
+  /** Stops writing the counters, as the session is deleted. */
+  void discard() {
+    dirty.set(false);
+    session = 0;
+  }
+
+  /**
+   * Counts a finished node.
+   *
+   * @param status the status
+   * @param started when the node started, or 0 if unknown
+   * @param finished when the node finished
+   */
+  void finished(Status status, long started, long finished) {
+    switch (status) {
+      case ABORTED:
+        aborted.increment();
+        break;
+      case FAILED:
+        failed.increment();
+        break;
+      default:
+        successful.increment();
+    }
+
+    if (started > 0L && finished >= started) duration.add(finished - started);
+
+    changed();
+  }
+
+  /** Writes the counters if they changed since they were last written. */
+  void flush() {
+    if (dirty.getAndSet(false)) write();
+  }
+
+  void skipped() {
+    skipped.increment();
+    changed();
+  }
+
+  /**
+   * Starts counting a new session.
+   *
+   * @param session the ID of the session
+   */
+  void start(int session) {
+    aborted.reset();
+    dirty.set(false);
+    duration.reset();
+    failed.reset();
+    skipped.reset();
+    successful.reset();
+
+    this.session = session;
+  }
+
+  /**
+   * Writes the final counters of the session, even if nothing was counted.
+   *
+   * @param connection the connection
+   */
+  void terminate(Connection connection) {
+    dirty.set(false);
+    write(connection);
+
+    session = 0;
+  }
+
+  private void changed() {
+    if (interval > 0L && dirty.compareAndSet(false, true))
+      SCHEDULED_EXECUTOR_SERVICE.schedule(this::flush, interval, TimeUnit.MILLISECONDS);
+  }
+
+  private static Thread createThread(Runnable runnable) {
+    var thread = new Thread(runnable, "teacup-mysql-session-summary");
+    thread.setDaemon(true);
+
+    return thread;
+  }
+
+  private void write() {
+    if (session > 0)
+      try (var connection = dataSource.getConnection()) {
+        write(connection);
+      } catch (SQLException e) {
+        failures.increment();
+        LOGGER.log(Level.WARNING, "Could not write the session summary", e);
+      }
+  }
+
+  private void write(Connection connection) {
+    var id = session;
+
+    if (id > 0)
+      try (var preparedStatement =
+          connection.prepareStatement(
+              "INSERT INTO `teacup_report`.`session_summary`"
+                  + "(session_execution, aborted, duration, failed, skipped, successful) "
+                  + "VALUES(?, ?, ?, ?, ?, ?) AS new ON DUPLICATE KEY UPDATE "
+                  + "aborted = GREATEST(aborted, new.aborted), "
+                  + "duration = GREATEST(duration, new.duration), "
+                  + "failed = GREATEST(failed, new.failed), "
+                  + "skipped = GREATEST(skipped, new.skipped), "
+                  + "successful = GREATEST(successful, new.successful)")) {
+        preparedStatement.setInt(1, id);
+        preparedStatement.setLong(2, aborted.sum());
+        preparedStatement.setLong(3, duration.sum());
+        preparedStatement.setLong(4, failed.sum());
+        preparedStatement.setLong(5, skipped.sum());
+        preparedStatement.setLong(6, successful.sum());
+
+        StatementEvent.execute(preparedStatement, "upsert session_summary", null);
+      } catch (SQLException e) {
+        failures.increment();
+        LOGGER.log(Level.WARNING, "Could not write the session summary", e);
+      }
+  }
+}
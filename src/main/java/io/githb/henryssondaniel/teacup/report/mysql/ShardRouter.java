@@ -0,0 +1,133 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.configuration.Factory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+import javax.sql.DataSource;
+
+/**
+ * Finds the shard of a session of a sharded reporter in the shard directory, the session_shard
+ * table on shard 0.
+ *
+ * <p>The sessions of every shard get their IDs from the sequence of shard 0, so a session ID is
+ * unique over all the shards, and the shard of a session is saved in the directory before the
+ * session itself. The sessions of shard 0 are not saved there, so the sessions of a server that was
+ * used without sharding are found on shard 0 when it becomes shard 0. The other IDs, such as those
+ * of the executions, are handed out by every shard on its own and are only unique within it.
+ *
+ * @since 1.1
+ */
+public final class ShardRouter {
+  private final DataSource dataSource;
+  private final Partitioning partitioning;
+
+  private volatile boolean migrated;
+
+  /**
+   * Constructor. Connects to shard 0 of the reporter configuration.
+   *
+   * @since 1.1
+   */
+  public ShardRouter() {
+    this(new Configuration(Factory.getProperties()).forShard(0));
+  }
+
+  private ShardRouter(Properties properties) {
+    this(
+        DefaultReporter.createMysqlDataSource(properties),
+        Partitioning.parse(new Configuration(properties).getString("log.partition")));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param dataSource the data source of shard 0
+   * @param partitioning the partitioning of the log tables of shard 0, if they are created
+   */
+  ShardRouter(DataSource dataSource, Partitioning partitioning) {
+    this.dataSource = dataSource;
+    this.partitioning = partitioning;
+  }
+
+  /**
+   * Returns the shard of a session.
+   *
+   * @param session the ID of the session
+   * @return the shard, 0 if the session is not in the directory
+   * @throws SQLException if the directory could not be read
+   * @since 1.1
+   */
+  public int getShard(long session) throws SQLException {
+    try (var connection = dataSource.getConnection();
+        var preparedStatement =
+            connection.prepareStatement(
+                "SELECT shard FROM `teacup_report`.`session_shard` WHERE session_execution = ?")) {
+      preparedStatement.setLong(1, session);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        return resultSet.next() ? resultSet.getInt(1) : 0;
+      }
+    }
+  }
+
+  /**
+   * Returns a connection to shard 0, migrating its schema the first time.
+   *
+   * @return the connection
+   * @throws SQLException if the connection could not be opened or the schema not be migrated
+   */
+  Connection getConnection() throws SQLException {
+    var connection = dataSource.getConnection();
+
+    if (!migrated)
+      try {
+        Schema.migrate(connection, partitioning);
+        migrated = true;
+      } catch (SQLException e) {
+        connection.close();
+        throw e;
+      }
+
+    return connection;
+  }
+
+  /**
+   * Returns the highest session ID that the directory holds for a shard.
+   *
+   * @param connection a connection to shard 0
+   * @param shard the shard
+   * @return the ID, or 0 if the shard has no sessions
+   * @throws SQLException if the directory could not be read
+   */
+  static int getHighest(Connection connection, int shard) throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "SELECT COALESCE(MAX(session_execution), 0) FROM `teacup_report`.`session_shard` WHERE shard = ?")) {
+      preparedStatement.setInt(1, shard);
+
+      try (var resultSet = preparedStatement.executeQuery()) {
+        return resultSet.next() ? resultSet.getInt(1) : 0;
+      }
+    }
+  }
+
+  /**
+   * Saves the shard of a session in the directory.
+   *
+   * @param connection a connection to shard 0
+   * @param session the ID of the session
+   * @param shard the shard
+   * @throws SQLException if the directory could not be written
+   */
+  static void register(Connection connection, int session, int shard) throws SQLException {
+    try (var preparedStatement =
+        connection.prepareStatement(
+            "INSERT INTO `teacup_report`.`session_shard`(session_execution, shard) VALUES(?, ?)")) {
+      preparedStatement.setInt(1, session);
+      preparedStatement.setInt(2, shard);
+
+      StatementEvent.execute(preparedStatement, "insert session_shard", null);
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.configuration.Factory;
+import io.github.henryssondaniel.teacup.core.reporting.Reporter;
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import io.github.henryssondaniel.teacup.core.testing.Result;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Reporter that spreads the sessions over several MySQL servers, the shards. Every shard is
+ * reported to by a {@link DefaultReporter} of its own, configured with the common settings and the
+ * settings prefixed with reporter.mysql.shard.[shard]., and with its own connections, nodes and
+ * IDs. The shards take turns to get the sessions, and all the rows of a session are saved on its
+ * shard. The session IDs are handed out by shard 0, which also keeps the shard of every session,
+ * see {@link ShardRouter}.
+ *
+ * <p>A session belongs to the thread that initialized it and the nodes to the session they were
+ * initialized in, the same way as in {@link DefaultReporter}.
+ *
+ * @since 1.1
+ */
+public class ShardedReporter implements Reporter {
+  private static final Logger LOGGER = Logger.getLogger(ShardedReporter.class.getName());
+
+  private final ThreadLocal<Session> current = new ThreadLocal<>();
+  private final Map<Node, Session> nodes = new ConcurrentHashMap<>(16);
+  private final DefaultReporter[] reporters;
+  private final AtomicLong sequence = new AtomicLong();
+  private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Constructor.
+   *
+   * @since 1.1
+   */
+  public ShardedReporter() {
+    this(createReporters(Factory.getProperties()));
+    Runtime.getRuntime().addShutdownHook(new Thread(this::close, "teacup-mysql-shutdown"));
+  }
+
+  ShardedReporter(DefaultReporter... reporters) {
+    this.reporters = reporters.clone();
+  }
+
+  @Override
+  public void finished(Node node, Result result) {
+    getReporter(remove(node)).finished(node, result);
+  }
+
+  @Override
+  public void initialize() {
+    var session = new Session((int) (sequence.getAndIncrement() % reporters.length));
+
+    LOGGER.log(Level.FINE, "Reporting the session to shard {0}", session.shard);
+
+    sessions.add(session);
+    current.set(session);
+
+    reporters[session.shard].initialize();
+  }
+
+  @Override
+  public void initialized(Collection<? extends Node> nodes) {
+    var session = getSession();
+
+    if (session != null) add(session, nodes);
+
+    getReporter(session).initialized(nodes);
+  }
+
+  @Override
+  public void log(LogRecord logRecord, Node node) {
+    getReporter(node == null ? null : nodes.get(node)).log(logRecord, node);
+  }
+
+  @Override
+  public void skipped(Node node, String reason) {
+    getReporter(remove(node)).skipped(node, reason);
+  }
+
+  @Override
+  public void started(Node node) {
+    getReporter(nodes.get(node)).started(node);
+  }
+
+  @Override
+  public void terminated() {
+    var session = getSession();
+
+    if (session != null && sessions.remove(session)) {
+      if (current.get() == session) current.remove();
+      for (var node : session.nodes) nodes.remove(node);
+    }
+
+    getReporter(session).terminated();
+  }
+
+  /** Closes the reporters of all the shards, and with them their connection pools. */
+  void close() {
+    for (var reporter : reporters) reporter.close();
+  }
+
+  private void add(Session session, Iterable<? extends Node> children) {
+    for (var node : children) {
+      nodes.put(node, session);
+      session.nodes.add(node);
+
+      add(session, node.getNodes());
+    }
+  }
+
+  private static DefaultReporter[] createReporters(Properties properties) {
+    var configuration = new Configuration(properties);
+    var shards = configuration.getShards();
+
+    if (shards == 0) {
+      LOGGER.log(Level.SEVERE, "No shards, reporting to reporter.mysql.server.name");
+      return new DefaultReporter[] {
+        new DefaultReporter(DefaultReporter.createMysqlDataSource(properties), properties)
+      };
+    }
+
+    var reporters = new DefaultReporter[shards];
+    ShardRouter router = null;
+
+    for (var shard = 0; shard < shards; shard++) {
+      var shardProperties = configuration.forShard(shard);
+      var shardConfiguration = new Configuration(shardProperties);
+      var dataSource = DefaultReporter.createMysqlDataSource(shardProperties);
+
+      if (shard == 0)
+        router =
+            new ShardRouter(
+                dataSource, Partitioning.parse(shardConfiguration.getString("log.partition")));
+
+      reporters[shard] =
+          new DefaultReporter(
+              dataSource,
+              shardProperties,
+              new NodeCache(shardConfiguration),
+              shard == 0
+                  ? new IdAllocator(shardConfiguration)
+                  : new IdAllocator(shardConfiguration, router, shard));
+    }
+
+    return reporters;
+  }
+
+  private DefaultReporter getReporter(Session session) {
+    var target = session == null ? getSession() : session;
+    return reporters[target == null ? 0 : target.shard];
+  }
+
+  // The session of the calling thread, or null if it has none and shard 0 is to drop the callback
+  private Session getSession() {
+    var session = current.get();
+    return session != null && sessions.contains(session) ? session : null;
+  }
+
+  private Session remove(Node node) {
+    var session = nodes.remove(node);
+    if (session != null) session.nodes.remove(node);
+
+    return session;
+  }
+
+  private static final class Session {
+    private final Set<Node> nodes = ConcurrentHashMap.newKeySet();
+    private final int shard;
+
+    private Session(int shard) {
+      this.shard = shard;
+    }
+  }
+}
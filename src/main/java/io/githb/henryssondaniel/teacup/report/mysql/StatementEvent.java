@@ -0,0 +1,83 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a statement executed by the reporter. The node name and the row count
+ * are only read if the event is recorded, so executing through this class costs next to nothing
+ * when no recording is running.
+ *
+ * @since 1.1
+ */
+@Category({"Teacup", "MySQL Reporter"})
+@Description("A statement executed by the reporter")
+@Label("Statement")
+@Name("io.githb.henryssondaniel.teacup.report.mysql.Statement")
+final class StatementEvent extends Event {
+  @Label("Node")
+  String node;
+
+  @Label("Rows")
+  long rows;
+
+  @Label("Statement")
+  String statement;
+
+  /**
+   * Executes the statement.
+   *
+   * @param preparedStatement the prepared statement
+   * @param statement the kind of statement, for example "update result"
+   * @param node the node the statement is executed for, or null
+   * @throws SQLException if the statement could not be executed
+   */
+  static void execute(PreparedStatement preparedStatement, String statement, Node node)
+      throws SQLException {
+    var event = new StatementEvent();
+    event.begin();
+
+    preparedStatement.execute();
+
+    event.end();
+
+    if (event.shouldCommit()) {
+      event.node = node == null ? null : node.getName();
+      event.rows = Math.max(0, preparedStatement.getUpdateCount());
+      event.statement = statement;
+
+      event.commit();
+    }
+  }
+
+  /**
+   * Executes the batch of the statement.
+   *
+   * @param preparedStatement the prepared statement
+   * @param statement the kind of statement, for example "insert execution"
+   * @throws SQLException if the batch could not be executed
+   */
+  static void executeBatch(PreparedStatement preparedStatement, String statement)
+      throws SQLException {
+    var event = new StatementEvent();
+    event.begin();
+
+    var counts = preparedStatement.executeBatch();
+
+    event.end();
+
+    if (event.shouldCommit()) {
+      if (counts != null) for (var count : counts) event.rows += Math.max(0, count);
+
+      event.statement = statement;
+
+      event.commit();
+    }
+  }
+}
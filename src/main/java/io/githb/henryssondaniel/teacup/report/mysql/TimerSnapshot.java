@@ -0,0 +1,101 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+/**
+ * Snapshot of a timer. All times are in nanoseconds. The percentiles are rounded up to the next
+ * power of two, but never above the maximum.
+ *
+ * @since 1.1
+ */
+public final class TimerSnapshot {
+  private final long count;
+  private final long max;
+  private final long p50;
+  private final long p90;
+  private final long p99;
+  private final long total;
+
+  TimerSnapshot(long count, long total, long max, long p50, long p90, long p99) {
+    this.count = count;
+    this.max = max;
+    this.p50 = p50;
+    this.p90 = p90;
+    this.p99 = p99;
+    this.total = total;
+  }
+
+  /**
+   * Returns the number of timed calls.
+   *
+   * @return the count
+   * @since 1.1
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the longest time.
+   *
+   * @return the maximum
+   * @since 1.1
+   */
+  public long getMax() {
+    return max;
+  }
+
+  /**
+   * Returns the mean time.
+   *
+   * @return the mean, or 0 if nothing was timed
+   * @since 1.1
+   */
+  public long getMean() {
+    return count == 0L ? 0L : total / count;
+  }
+
+  /**
+   * Returns the median time.
+   *
+   * @return the 50th percentile
+   * @since 1.1
+   */
+  public long getP50() {
+    return p50;
+  }
+
+  /**
+   * Returns the 90th percentile.
+   *
+   * @return the 90th percentile
+   * @since 1.1
+   */
+  public long getP90() {
+    return p90;
+  }
+
+  /**
+   * Returns the 99th percentile.
+   *
+   * @return the 99th percentile
+   * @since 1.1
+   */
+  public long getP99() {
+    return p99;
+  }
+
+  /**
+   * Returns the sum of all times.
+   *
+   * @return the total
+   * @since 1.1
+   */
+  public long getTotal() {
+    return total;
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + count + ", mean=" + getMean() + ", p50=" + p50 + ", p90=" + p90 + ", p99="
+        + p99 + ", max=" + max;
+  }
+}
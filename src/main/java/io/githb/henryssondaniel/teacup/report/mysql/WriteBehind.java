@@ -0,0 +1,128 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs database writes on background threads. Writes with the same key always end up on the same
+ * thread and are therefore executed in the order they were submitted. Submitting blocks while the
+ * queue of that thread is full.
+ *
+ * @since 1.1
+ */
+final class WriteBehind {
+  private static final Logger LOGGER = Logger.getLogger(WriteBehind.class.getName());
+
+  private final ThreadPoolExecutor[] executorServices;
+
+  WriteBehind(int writers, int capacity) {
+    executorServices = new ThreadPoolExecutor[Math.max(1, writers)];
+
+    for (var i = 0; i < executorServices.length; i++) {
+      var name = "teacup-mysql-writer-" + i;
+      executorServices[i] =
+          new ThreadPoolExecutor(
+              1,
+              1,
+              0L,
+              TimeUnit.MILLISECONDS,
+              new ArrayBlockingQueue<>(Math.max(1, capacity)),
+              runnable -> createThread(runnable, name),
+              WriteBehind::put);
+    }
+  }
+
+  /**
+   * Waits until everything submitted before this call has been written. A queue that stays full
+   * until the timeout counts as not written.
+   *
+   * @param timeout the maximum time to wait in milliseconds
+   * @return true if everything was written in time, otherwise false
+   */
+  boolean await(long timeout) {
+    var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+    var drained = true;
+    Collection<Future<?>> futures = new ArrayList<>(executorServices.length);
+
+    for (var executorService : executorServices) {
+      var marker = new FutureTask<>(() -> {}, null);
+
+      // a task that is put in the queue directly does not start the writer thread
+      executorService.prestartCoreThread();
+
+      // offered rather than submitted, which blocks without a deadline while the queue is full
+      try {
+        if (executorService
+            .getQueue()
+            .offer(marker, Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS))
+          futures.add(marker);
+        else drained = false;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+
+    for (var future : futures)
+      try {
+        future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      } catch (ExecutionException | TimeoutException e) {
+        drained = false;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        drained = false;
+      }
+
+    return drained;
+  }
+
+  int getQueued() {
+    var queued = 0;
+    for (var executorService : executorServices) queued += executorService.getQueue().size();
+
+    return queued;
+  }
+
+  void submit(Object key, Runnable runnable) {
+    executorServices[Math.floorMod(Objects.hashCode(key), executorServices.length)].execute(
+        () -> run(runnable));
+  }
+
+  private static Thread createThread(Runnable runnable, String name) {
+    var thread = new Thread(runnable, name);
+    thread.setDaemon(true);
+
+    return thread;
+  }
+
+  private static void put(Runnable runnable, ThreadPoolExecutor threadPoolExecutor) {
+    if (threadPoolExecutor.isShutdown())
+      throw new RejectedExecutionException("The writer has been shut down");
+
+    try {
+      threadPoolExecutor.getQueue().put(runnable);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted while waiting for the queue", e);
+    }
+  }
+
+  private static void run(Runnable runnable) {
+    try {
+      runnable.run();
+    } catch (RuntimeException e) {
+      LOGGER.log(Level.SEVERE, "Could not write in the background", e);
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BulkLoaderTest {
+  private static final String TEST = "test";
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource = mock(DataSource.class);
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+  private final Properties properties = new Properties();
+  private final ResultSet resultSet = mock(ResultSet.class);
+
+  @TempDir Path directory;
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+    when(connection.prepareStatement(anyString(), anyInt())).thenReturn(preparedStatement);
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+    when(preparedStatement.getGeneratedKeys()).thenReturn(resultSet);
+    when(resultSet.getInt(1)).thenReturn(Schema.VERSION);
+    when(resultSet.next()).thenReturn(true);
+  }
+
+  @Test
+  void getThreads() {
+    assertThat(BulkLoader.getThreads(" 2 ")).isEqualTo(2);
+  }
+
+  @Test
+  void getThreadsWhenNotNumber() {
+    assertThat(BulkLoader.getThreads(TEST)).isZero();
+  }
+
+  @Test
+  void getThreadsWhenNotPositive() {
+    assertThat(BulkLoader.getThreads("-1")).isZero();
+  }
+
+  @Test
+  void load() throws IOException, SQLException {
+    write();
+    write();
+
+    assertThat(BulkLoader.load(directory, 2, dataSource, properties)).isEqualTo(2);
+
+    try (var paths = Files.list(directory)) {
+      assertThat(paths).isEmpty();
+    }
+
+    verify(preparedStatement).setString(2, IdAllocator.SESSION_EXECUTION);
+  }
+
+  @Test
+  void loadWhenDatabaseError() throws IOException, SQLException {
+    when(dataSource.getConnection()).thenThrow(new SQLException(TEST));
+
+    var id = write();
+
+    assertThat(BulkLoader.load(directory, 1, dataSource, properties)).isZero();
+    assertThat(Journal.segment(directory, id, 0)).exists();
+  }
+
+  @Test
+  void loadWhenJournalDirectory() throws IOException, SQLException {
+    properties.setProperty("reporter.mysql.journal.directory", directory.toString());
+    properties.setProperty("reporter.mysql.log.level", "SEVERE");
+
+    write();
+
+    assertThat(BulkLoader.load(directory, 1, dataSource, properties)).isOne();
+
+    try (var paths = Files.list(directory)) {
+      assertThat(paths).isEmpty();
+    }
+
+    verify(preparedStatement).setString(2, IdAllocator.SESSION_EXECUTION);
+    verify(preparedStatement).setString(3, TEST);
+  }
+
+  @Test
+  void loadWhenLocked() throws IOException {
+    try (var journal = new Journal(directory, 1024)) {
+      journal.initialize();
+
+      assertThat(BulkLoader.load(directory, 1, dataSource, properties)).isZero();
+      assertThat(Journal.segment(directory, journal.getId(), 0)).exists();
+    }
+
+    verifyNoInteractions(dataSource);
+  }
+
+  @Test
+  void loadWhenNoDirectory() {
+    assertThat(BulkLoader.load(directory.resolve(TEST), 1, dataSource, properties)).isZero();
+    verifyNoInteractions(dataSource);
+  }
+
+  @Test
+  void mainWhenInvalidThreads() throws IOException {
+    write();
+
+    BulkLoader.main(directory.toString(), TEST);
+
+    try (var paths = Files.list(directory)) {
+      assertThat(paths).isNotEmpty();
+    }
+  }
+
+  private String write() throws IOException {
+    try (var journal = new Journal(directory, 1024)) {
+      journal.initialize();
+      journal.log(new LogRecord(Level.INFO, TEST), null);
+      journal.terminated();
+
+      return journal.getId();
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.Properties;
+import org.junit.jupiter.api.Test;
+
+class ConfigurationTest {
+  private static final String KEY = "key";
+  private static final String PROPERTY = "reporter.mysql." + KEY;
+
+  private final Properties properties = new Properties();
+  private final Configuration configuration = new Configuration(properties);
+
+  @Test
+  void forShard() {
+    properties.setProperty(PROPERTY, KEY);
+    properties.setProperty("reporter.mysql.server.name", "common");
+    properties.setProperty("reporter.mysql.shard.0.server.name", "zero");
+    properties.setProperty("reporter.mysql.shard.1.server.name", "one");
+    properties.setProperty("reporter.mysql.shard.1.user", "user");
+
+    assertThat(configuration.forShard(1))
+        .containsOnly(
+            Map.entry(PROPERTY, KEY),
+            Map.entry("reporter.mysql.server.name", "one"),
+            Map.entry("reporter.mysql.user", "user"));
+  }
+
+  @Test
+  void getBoolean() {
+    properties.setProperty(PROPERTY, "true");
+    assertThat(configuration.getBoolean(KEY)).isTrue();
+  }
+
+  @Test
+  void getBooleanWhenMissing() {
+    assertThat(configuration.getBoolean(KEY)).isFalse();
+  }
+
+  @Test
+  void getInt() {
+    properties.setProperty(PROPERTY, " 5 ");
+    assertThat(configuration.getInt(KEY, 1)).isEqualTo(5);
+  }
+
+  @Test
+  void getLongWhenInvalid() {
+    properties.setProperty(PROPERTY, "five");
+    assertThat(configuration.getLong(KEY, 1L)).isEqualTo(1L);
+  }
+
+  @Test
+  void getLongWhenMissing() {
+    assertThat(configuration.getLong(KEY, 1L)).isEqualTo(1L);
+  }
+
+  @Test
+  void getShards() {
+    properties.setProperty("reporter.mysql.shard.0.server.name", "zero");
+    properties.setProperty("reporter.mysql.shard.1.server.name", "one");
+    properties.setProperty("reporter.mysql.shard.3.server.name", "three");
+
+    assertThat(configuration.getShards()).isEqualTo(2);
+  }
+
+  @Test
+  void getShardsWhenNone() {
+    assertThat(configuration.getShards()).isZero();
+  }
+
+  @Test
+  void getString() {
+    properties.setProperty(PROPERTY, KEY);
+    assertThat(configuration.getString(KEY)).isEqualTo(KEY);
+  }
+
+  @Test
+  void without() {
+    properties.setProperty(PROPERTY, KEY);
+
+    assertThat(configuration.without(KEY)).isEmpty();
+    assertThat(configuration.getString(KEY)).isEqualTo(KEY);
+  }
+}
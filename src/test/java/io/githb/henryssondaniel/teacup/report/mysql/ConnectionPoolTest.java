@@ -0,0 +1,198 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+import javax.sql.DataSource;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConnectionPoolTest {
+  private static final String SQL = "sql";
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource = mock(DataSource.class);
+  private final Properties properties = new Properties();
+
+  private ConnectionPool connectionPool;
+
+  @AfterEach
+  void afterEach() {
+    connectionPool.close();
+  }
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    when(connection.getAutoCommit()).thenReturn(true);
+    when(connection.isValid(anyInt())).thenReturn(true);
+    when(dataSource.getConnection()).thenReturn(connection);
+
+    properties.setProperty("reporter.mysql.pool.size.max", "1");
+    properties.setProperty("reporter.mysql.pool.timeout", "10");
+
+    connectionPool = new ConnectionPool(dataSource, new Configuration(properties));
+  }
+
+  @Test
+  void close() throws SQLException {
+    connectionPool.getConnection().close();
+    connectionPool.close();
+
+    verify(connection).close();
+    assertThat(connectionPool.getIdle()).isZero();
+  }
+
+  @Test
+  void closeWhenBorrowed() throws SQLException {
+    var pooled = connectionPool.getConnection();
+    connectionPool.close();
+    pooled.close();
+
+    verify(connection).close();
+    assertThat(connectionPool.getIdle()).isZero();
+    assertThatThrownBy(connectionPool::getConnection)
+        .isInstanceOf(SQLException.class)
+        .hasMessage("The connection pool is closed");
+  }
+
+  @Test
+  void getConnection() throws SQLException {
+    try (var pooled = connectionPool.getConnection()) {
+      pooled.prepareStatement(SQL);
+      assertThat(connectionPool.getBorrowed()).isOne();
+    }
+
+    try (var pooled = connectionPool.getConnection()) {
+      pooled.prepareStatement(SQL);
+    }
+
+    verify(connection, times(2)).prepareStatement(SQL);
+    verify(connection, never()).close();
+    verify(dataSource).getConnection();
+    assertThat(connectionPool.getBorrowed()).isZero();
+    assertThat(connectionPool.getIdle()).isOne();
+  }
+
+  @Test
+  void getConnectionWhenClosed() throws SQLException {
+    var pooled = connectionPool.getConnection();
+    pooled.close();
+    pooled.close();
+
+    assertThat(pooled.equals(pooled)).isTrue();
+    assertThat(pooled.hashCode()).isEqualTo(System.identityHashCode(pooled));
+    assertThat(pooled.isClosed()).isTrue();
+    assertThat(pooled.toString()).startsWith("Pooled ");
+    assertThatThrownBy(() -> pooled.prepareStatement(SQL)).isInstanceOf(SQLException.class);
+    verify(connection, never()).prepareStatement(SQL);
+  }
+
+  @Test
+  void getConnectionWhenError() throws SQLException {
+    when(dataSource.getConnection()).thenThrow(new SQLException(SQL));
+
+    assertThatThrownBy(connectionPool::getConnection).isInstanceOf(SQLException.class);
+    assertThatThrownBy(connectionPool::getConnection).hasMessage(SQL);
+  }
+
+  @Test
+  void getConnectionWhenExhausted() throws SQLException {
+    try (var pooled = connectionPool.getConnection()) {
+      assertThatThrownBy(connectionPool::getConnection)
+          .isInstanceOf(SQLException.class)
+          .hasMessageContaining("Timed out");
+    }
+  }
+
+  @Test
+  void getConnectionWhenInvalid() throws InterruptedException, SQLException {
+    var invalid = mock(Connection.class);
+    when(dataSource.getConnection()).thenReturn(invalid, connection);
+
+    connectionPool.getConnection().close();
+    Thread.sleep(600L);
+    connectionPool.getConnection().close();
+
+    verify(invalid).isValid(anyInt());
+    verify(invalid).close();
+  }
+
+  @Test
+  void getConnectionWhenRecording(@TempDir Path directory) throws IOException, SQLException {
+    var file = directory.resolve("recording.jfr");
+
+    try (var recording = new Recording()) {
+      recording
+          .enable("io.githb.henryssondaniel.teacup.report.mysql.ConnectionAcquire")
+          .withoutThreshold();
+      recording.start();
+
+      connectionPool.getConnection().close();
+      connectionPool.getConnection().close();
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    assertThat(RecordingFile.readAllEvents(file))
+        .extracting(event -> event.getBoolean("opened"), event -> event.getInt("borrowed"))
+        .containsExactly(tuple(true, 1), tuple(false, 1));
+  }
+
+  @Test
+  void getConnectionWhenTransaction() throws SQLException {
+    when(connection.getAutoCommit()).thenReturn(false);
+
+    connectionPool.getConnection().close();
+
+    verify(connection).rollback();
+    verify(connection).setAutoCommit(true);
+  }
+
+  @Test
+  void housekeeping() throws InterruptedException, SQLException {
+    properties.setProperty("reporter.mysql.pool.idle.timeout", "0");
+    properties.setProperty("reporter.mysql.pool.leak.threshold", "1");
+
+    try (var pool = new ConnectionPool(dataSource, new Configuration(properties))) {
+      pool.getConnection().close();
+      Thread.sleep(10L);
+      pool.housekeeping();
+
+      assertThat(pool.getIdle()).isZero();
+      verify(connection).close();
+    }
+  }
+
+  @Test
+  void housekeepingWhenMinimum() throws SQLException {
+    properties.setProperty("reporter.mysql.pool.size.min", "1");
+
+    try (var pool = new ConnectionPool(dataSource, new Configuration(properties))) {
+      pool.housekeeping();
+      assertThat(pool.getIdle()).isOne();
+    }
+  }
+
+  @Test
+  void unwrap() throws SQLException {
+    assertThat(connectionPool.isWrapperFor(ConnectionPool.class)).isTrue();
+    assertThat(connectionPool.unwrap(DataSource.class)).isSameAs(connectionPool);
+  }
+}
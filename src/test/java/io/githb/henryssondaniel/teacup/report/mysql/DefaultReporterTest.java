@@ -1,35 +1,56 @@
 package io.githb.henryssondaniel.teacup.report.mysql;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.mysql.cj.jdbc.MysqlDataSource;
 import io.github.henryssondaniel.teacup.core.reporting.Reporter;
 import io.github.henryssondaniel.teacup.core.testing.Node;
 import io.github.henryssondaniel.teacup.core.testing.Result;
 import io.github.henryssondaniel.teacup.core.testing.Status;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.Collections;
 import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
+import javax.management.JMException;
+import javax.management.ObjectName;
 import javax.sql.DataSource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.MockitoAnnotations;
 
 class DefaultReporterTest {
   private static final String REASON = "reason";
   private static final String TEST = "test";
+  private static final int THREADS = 32;
 
   private final Connection connection = mock(Connection.class);
   private final DataSource dataSource = mock(DataSource.class);
@@ -38,7 +59,11 @@ class DefaultReporterTest {
   private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
   private final Result result = mock(Result.class);
   private final ResultSet resultSet = mock(ResultSet.class);
+  private final ResultSet sequenceKeys = mock(ResultSet.class);
+  private final PreparedStatement sequenceStatement = mock(PreparedStatement.class);
+  private final PreparedStatement sessionStatement = mock(PreparedStatement.class);
   private final Statement statement = mock(Statement.class);
+  private final PreparedStatement versionStatement = mock(PreparedStatement.class);
 
   @BeforeEach
   void beforeEach() throws SQLException {
@@ -60,6 +85,77 @@ class DefaultReporterTest {
     setupResultSet();
   }
 
+  @Test
+  void close() throws SQLException {
+    var connectionPool = new ConnectionPool(dataSource, new Configuration(new Properties()));
+    connectionPool.getConnection().close();
+
+    new DefaultReporter(connectionPool).close();
+
+    verify(connection).close();
+    assertThat(connectionPool.getIdle()).isZero();
+  }
+
+  @Test
+  void closeWhenJournal(@TempDir Path directory) throws SQLException {
+    var properties = createJournalProperties(directory);
+    var connectionPool = new ConnectionPool(dataSource, new Configuration(properties));
+
+    var reporter = new DefaultReporter(connectionPool, properties);
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+    reporter.close();
+
+    verify(sessionStatement).execute();
+    verify(connection).close();
+    assertThat(connectionPool.getIdle()).isZero();
+  }
+
+  @Test
+  void createMysqlDataSource() throws SQLException {
+    var properties = new Properties();
+    properties.setProperty("reporter.mysql.log.load", "true");
+    properties.setProperty("reporter.mysql.statement.server", "true");
+
+    var mysqlDataSource =
+        DefaultReporter.createMysqlDataSource(properties).unwrap(MysqlDataSource.class);
+
+    assertThat(mysqlDataSource.getAllowLoadLocalInfile()).isTrue();
+    assertThat(mysqlDataSource.getCachePrepStmts()).isTrue();
+    assertThat(mysqlDataSource.getPrepStmtCacheSize()).isEqualTo(50);
+    assertThat(mysqlDataSource.getRewriteBatchedStatements()).isTrue();
+    assertThat(mysqlDataSource.getUseServerPrepStmts()).isTrue();
+  }
+
+  @Test
+  void createMysqlDataSourceWhenNoCache() throws SQLException {
+    var properties = new Properties();
+    properties.setProperty("reporter.mysql.statement.cache.size", "0");
+
+    var mysqlDataSource =
+        DefaultReporter.createMysqlDataSource(properties).unwrap(MysqlDataSource.class);
+
+    assertThat(mysqlDataSource.getAllowLoadLocalInfile()).isFalse();
+    assertThat(mysqlDataSource.getCachePrepStmts()).isFalse();
+    assertThat(mysqlDataSource.getUseServerPrepStmts()).isFalse();
+  }
+
+  @Test
+  void discard() throws SQLException {
+    var reporter = new DefaultReporter(dataSource);
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+
+    reporter.discard(reporter.getSession());
+    reporter.finished(node, result);
+    reporter.terminated();
+
+    assertThat(reporter.getSession()).isNull();
+    verifyNoInteractions(result);
+    verify(connection, never())
+        .prepareStatement(startsWith("UPDATE `teacup_report`.`session_execution`"));
+  }
+
   @Test
   void finished() {
     Reporter reporter = new DefaultReporter(dataSource);
@@ -69,11 +165,46 @@ class DefaultReporterTest {
 
     verify(node).getName();
     verify(node).getNodes();
-    verify(node).getTimeFinished();
-    verify(result).getStatus();
+    verify(node, times(2)).getTimeFinished();
+    verify(result, times(2)).getStatus();
     verify(result).getThrowable();
   }
 
+  @Test
+  void finishedWhenAsync() throws SQLException {
+    Reporter reporter = new DefaultReporter(dataSource, createAsyncProperties());
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+    reporter.finished(node, result);
+    reporter.terminated();
+
+    verify(dataSource, times(4)).getConnection();
+    verify(node, times(2)).getTimeFinished();
+    verify(result, times(2)).getStatus();
+    verify(result).getThrowable();
+  }
+
+  @Test
+  void finishedWhenDeferred() throws SQLException {
+    when(node.getTimeStarted()).thenReturn(1L);
+
+    Reporter reporter = new DefaultReporter(dataSource, createDeferredProperties());
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+    reporter.started(node);
+
+    clearInvocations(connection, dataSource, preparedStatement);
+
+    reporter.finished(node, result);
+
+    verify(connection).prepareStatement(startsWith("INSERT INTO `teacup_report`.`result`"));
+    verify(connection).prepareStatement(startsWith("INSERT INTO `teacup_report`.`error`"));
+    verify(dataSource).getConnection();
+    verify(preparedStatement, times(2)).execute();
+    verify(preparedStatement).setTimestamp(3, new Timestamp(1L));
+    verify(preparedStatement).setInt(5, 3);
+  }
+
   @Test
   void finishedWhenInsertErrorError() throws SQLException {
     Reporter reporter = new DefaultReporter(dataSource);
@@ -82,7 +213,7 @@ class DefaultReporterTest {
 
     try (var connectionStatement =
         connection.prepareStatement(
-            "INSERT INTO `teacup_report`.`error`(message, result) VALUES(?, ?)")) {
+            "INSERT INTO `teacup_report`.`error`(id, message, result) VALUES(?, ?, ?)")) {
       when(connectionStatement).thenThrow(new SQLException(TEST));
     }
 
@@ -90,8 +221,8 @@ class DefaultReporterTest {
 
     verify(node).getName();
     verify(node).getNodes();
-    verify(node).getTimeFinished();
-    verify(result).getStatus();
+    verify(node, times(2)).getTimeFinished();
+    verify(result, times(2)).getStatus();
     verify(result).getThrowable();
   }
 
@@ -131,20 +262,77 @@ class DefaultReporterTest {
 
     verify(node).getName();
     verify(node).getNodes();
-    verify(node, times(0)).getTimeFinished();
-    verifyNoInteractions(result);
+    verify(node).getTimeFinished();
+    verify(result).getStatus();
+    verify(result, never()).getThrowable();
+  }
+
+  @Test
+  void getMetrics() throws JMException, SQLException {
+    var properties = new Properties();
+    properties.setProperty("reporter.mysql.metrics", "true");
+
+    var reporter = new DefaultReporter(dataSource, properties);
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+
+    when(preparedStatement.execute()).thenThrow(new SQLException(TEST));
+
+    reporter.started(node);
+    reporter.finished(node, result);
+
+    var metrics = reporter.getMetrics();
+
+    assertThat(metrics.getCounters()).containsEntry("sql.update.result.failed", 2L);
+    assertThat(metrics.getGauges())
+        .containsOnlyKeys(
+            "log.pending", "session_log.pending", "sessions.active", "statistics.pending");
+    assertThat(metrics.getTimers())
+        .containsKeys(
+            "callback.finished",
+            "callback.initialize",
+            "callback.initialized",
+            "callback.started",
+            "connection.acquire",
+            "sql.insert.session_execution",
+            "sql.update.result");
+    assertThat(metrics.getTimers().get("callback.finished").getCount()).isOne();
+    assertThat(
+            ManagementFactory.getPlatformMBeanServer()
+                .queryNames(
+                    new ObjectName(
+                        "io.githb.henryssondaniel.teacup.report.mysql:type=DefaultReporter,*"),
+                    null))
+        .isNotEmpty();
+
+    metrics.reset();
+
+    assertThat(metrics.getCounters()).containsEntry("sql.update.result.failed", 0L);
+  }
+
+  @Test
+  void getMetricsWhenDisabled() {
+    var reporter = new DefaultReporter(dataSource);
+    reporter.initialize();
+
+    var metrics = reporter.getMetrics();
+
+    assertThat(metrics.getCounters()).isEmpty();
+    assertThat(metrics.getGauges()).isEmpty();
+    assertThat(metrics.getTimers()).isEmpty();
   }
 
   @Test
   void initialize() throws SQLException {
     new DefaultReporter(dataSource).initialize();
 
-    verify(connection, times(11)).createStatement();
+    verify(connection, never()).createStatement();
     verify(dataSource).getConnection();
-    verify(statement, times(11)).close();
-    verify(statement, times(10)).execute(anyString());
-    verify(statement).execute(anyString(), same(Statement.RETURN_GENERATED_KEYS));
-    verify(statement).getGeneratedKeys();
+    verify(sequenceStatement).setString(2, IdAllocator.SESSION_EXECUTION);
+    verify(sessionStatement).close();
+    verify(sessionStatement).execute();
+    verify(sessionStatement).setInt(1, 1);
+    verify(versionStatement).executeQuery();
   }
 
   @Test
@@ -159,34 +347,42 @@ class DefaultReporterTest {
     verify(dataSource).getConnection();
   }
 
+  @Test
+  void initializeWhenJournalError(@TempDir Path directory) throws IOException, SQLException {
+    var file = Files.createFile(directory.resolve(TEST));
+
+    new DefaultReporter(dataSource, createJournalProperties(file)).initialize();
+
+    verify(dataSource).getConnection();
+    verify(sessionStatement).execute();
+  }
+
   @Test
   void initializeWhenNoKey() throws SQLException {
-    when(resultSet.next()).thenReturn(false);
+    when(sequenceKeys.next()).thenReturn(false);
 
-    new DefaultReporter(dataSource).initialize();
+    Reporter reporter = new DefaultReporter(dataSource);
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
 
-    verify(connection, times(11)).createStatement();
     verify(dataSource).getConnection();
-    verify(statement, times(11)).close();
-    verify(statement, times(10)).execute(anyString());
-    verify(statement).execute(anyString(), same(Statement.RETURN_GENERATED_KEYS));
-    verify(statement).getGeneratedKeys();
+    verify(sessionStatement, never()).execute();
+    verify(sequenceStatement).executeUpdate();
+    verifyNoInteractions(node);
   }
 
   @Test
   void initializeWhenSessionIdError() throws SQLException {
-    try (var generatedKeys = statement.getGeneratedKeys()) {
-      when(generatedKeys).thenThrow(new SQLException(TEST));
-    }
+    when(sequenceStatement.getGeneratedKeys()).thenThrow(new SQLException(TEST));
 
-    new DefaultReporter(dataSource).initialize();
+    Reporter reporter = new DefaultReporter(dataSource);
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
 
-    verify(connection, times(11)).createStatement();
     verify(dataSource).getConnection();
-    verify(statement, times(11)).close();
-    verify(statement, times(10)).execute(anyString());
-    verify(statement).execute(anyString(), same(Statement.RETURN_GENERATED_KEYS));
-    verify(statement).getGeneratedKeys();
+    verify(sessionStatement, never()).execute();
+    verify(sequenceStatement).close();
+    verifyNoInteractions(node);
   }
 
   @Test
@@ -196,16 +392,36 @@ class DefaultReporterTest {
 
     reporter.initialized(Collections.singletonList(node));
 
+    verify(connection, times(6)).prepareStatement(anyString());
     verify(dataSource, times(2)).getConnection();
     verify(node).getName();
     verify(node).getNodes();
-    verify(preparedStatement, times(3)).close();
-    verify(preparedStatement, times(2)).execute();
+    verify(preparedStatement, times(3)).addBatch();
+    verify(preparedStatement, times(4)).close();
+    verify(preparedStatement, times(3)).executeBatch();
     verify(preparedStatement).executeQuery();
-    verify(preparedStatement).getGeneratedKeys();
-    verify(preparedStatement, times(2)).setInt(1, 1);
-    verify(preparedStatement).setInt(2, 1);
+    verify(preparedStatement, times(3)).setInt(1, 1);
+    verify(preparedStatement, times(3)).setInt(2, 1);
+    verify(preparedStatement).setInt(3, 1);
     verify(preparedStatement).setString(1, null);
+    verify(sequenceStatement).setString(2, IdAllocator.EXECUTION);
+  }
+
+  @Test
+  void initializedWhenCached() throws SQLException {
+    Reporter reporter = new DefaultReporter(dataSource);
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+    reporter.terminated();
+    reporter.initialize();
+
+    clearInvocations(connection, preparedStatement);
+
+    reporter.initialized(Collections.singletonList(node));
+
+    verify(connection, times(3)).prepareStatement(anyString());
+    verify(preparedStatement, times(3)).executeBatch();
+    verify(preparedStatement, never()).executeQuery();
   }
 
   @Test
@@ -225,24 +441,15 @@ class DefaultReporterTest {
   }
 
   @Test
-  void initializedWhenExecutionIdError() throws SQLException {
-    Reporter reporter = new DefaultReporter(dataSource);
+  void initializedWhenDeferred() throws SQLException {
+    Reporter reporter = new DefaultReporter(dataSource, createDeferredProperties());
     reporter.initialize();
-
-    when(preparedStatement.getGeneratedKeys()).thenThrow(new SQLException(TEST));
-
     reporter.initialized(Collections.singletonList(node));
 
-    verify(dataSource, times(2)).getConnection();
-    verify(node).getName();
-    verify(node).getNodes();
-    verify(preparedStatement, times(2)).close();
-    verify(preparedStatement).execute();
-    verify(preparedStatement).executeQuery();
-    verify(preparedStatement).getGeneratedKeys();
-    verify(preparedStatement).setInt(1, 1);
-    verify(preparedStatement).setInt(2, 1);
-    verify(preparedStatement).setString(1, null);
+    verify(connection, never())
+        .prepareStatement(startsWith("INSERT INTO `teacup_report`.`result`"));
+    verify(preparedStatement, times(2)).addBatch();
+    verify(preparedStatement, times(2)).executeBatch();
   }
 
   @Test
@@ -251,108 +458,126 @@ class DefaultReporterTest {
     reporter.initialize();
 
     try (var connectionStatement =
-        connection.prepareStatement(anyString(), same(Statement.RETURN_GENERATED_KEYS))) {
+        connection.prepareStatement(startsWith("INSERT INTO `teacup_report`.`execution`"))) {
       when(connectionStatement).thenThrow(new SQLException(TEST));
     }
 
     reporter.initialized(Collections.singletonList(node));
+    reporter.started(node);
 
     verify(dataSource, times(2)).getConnection();
+    verify(node, times(2)).getName();
     verify(node).getNodes();
-    verify(preparedStatement).close();
-    verify(preparedStatement, never()).execute();
+    verify(preparedStatement, never()).addBatch();
+    verify(preparedStatement, never()).executeBatch();
     verify(preparedStatement).executeQuery();
-    verify(preparedStatement, never()).getGeneratedKeys();
     verify(preparedStatement, never()).setInt(1, 1);
-    verify(preparedStatement, never()).setInt(2, 1);
-    verify(preparedStatement).setString(1, null);
   }
 
   @Test
-  void initializedWhenInsertNodeIdError() throws SQLException {
+  void initializedWhenInsertNodeError() throws SQLException {
     Reporter reporter = new DefaultReporter(dataSource);
     reporter.initialize();
 
-    try (var generatedKeys = preparedStatement.getGeneratedKeys()) {
-      when(generatedKeys).thenThrow(new SQLException(TEST));
+    try (var query = preparedStatement.executeQuery()) {
+      when(query).thenReturn(resultSet);
     }
 
+    when(preparedStatement.executeBatch()).thenThrow(new SQLException(TEST));
     when(resultSet.next()).thenReturn(false);
 
     reporter.initialized(Collections.singletonList(node));
 
+    verify(connection).prepareStatement(startsWith("INSERT IGNORE INTO `teacup_report`.`node`"));
     verify(dataSource, times(2)).getConnection();
-    verify(node, times(2)).getName();
+    verify(node).getName();
     verify(node).getNodes();
     verify(preparedStatement, times(2)).close();
-    verify(preparedStatement).execute();
+    verify(preparedStatement).executeBatch();
     verify(preparedStatement).executeQuery();
-    verify(preparedStatement).getGeneratedKeys();
-    verify(preparedStatement, never()).setInt(1, 0);
-    verify(preparedStatement, never()).setInt(2, 1);
     verify(preparedStatement, times(2)).setString(1, null);
   }
 
   @Test
-  void initializedWhenInsertNodeNoExecutionId() throws SQLException {
+  void initializedWhenInsertResultError() throws SQLException {
     Reporter reporter = new DefaultReporter(dataSource);
     reporter.initialize();
 
-    when(resultSet.next()).thenReturn(false, true, false);
+    try (var connectionStatement =
+        connection.prepareStatement(startsWith("INSERT INTO `teacup_report`.`result`"))) {
+      when(connectionStatement).thenThrow(new SQLException(TEST));
+    }
 
     reporter.initialized(Collections.singletonList(node));
+    reporter.started(node);
 
-    verify(dataSource, times(2)).getConnection();
     verify(node, times(2)).getName();
-    verify(node).getNodes();
-    verify(preparedStatement, times(3)).close();
-    verify(preparedStatement, times(2)).execute();
+    verify(preparedStatement, times(4)).close();
+    verify(preparedStatement, times(2)).executeBatch();
     verify(preparedStatement).executeQuery();
-    verify(preparedStatement, times(2)).getGeneratedKeys();
-    verify(preparedStatement).setInt(1, 1);
-    verify(preparedStatement).setInt(2, 1);
-    verify(preparedStatement, times(2)).setString(1, null);
+    verify(preparedStatement, times(2)).setInt(1, 1);
+    verify(preparedStatement, times(2)).setInt(2, 1);
   }
 
   @Test
-  void initializedWhenInsertNodeNoId() throws SQLException {
+  void initializedWhenNoExecutionId() throws SQLException {
+    when(sequenceKeys.next()).thenReturn(true, false);
+
     Reporter reporter = new DefaultReporter(dataSource);
     reporter.initialize();
-
-    when(resultSet.next()).thenReturn(false);
-
     reporter.initialized(Collections.singletonList(node));
+    reporter.started(node);
 
     verify(dataSource, times(2)).getConnection();
     verify(node, times(2)).getName();
     verify(node).getNodes();
+    verify(preparedStatement, never()).addBatch();
     verify(preparedStatement, times(2)).close();
-    verify(preparedStatement).execute();
+    verify(preparedStatement, never()).executeBatch();
     verify(preparedStatement).executeQuery();
-    verify(preparedStatement).getGeneratedKeys();
-    verify(preparedStatement, never()).setInt(1, 0);
-    verify(preparedStatement, never()).setInt(2, 1);
-    verify(preparedStatement, times(2)).setString(1, null);
+    verify(preparedStatement, never()).setInt(1, 1);
+    verify(sequenceStatement, times(2)).executeUpdate();
   }
 
   @Test
-  void initializedWhenInsertResultError() throws SQLException {
+  void initializedWhenNodeFoundByName() throws SQLException {
     Reporter reporter = new DefaultReporter(dataSource);
     reporter.initialize();
 
-    try (var state = connection.prepareStatement(anyString())) {
-      when(state).thenReturn(preparedStatement).thenThrow(new SQLException(TEST));
+    try (var query = preparedStatement.executeQuery()) {
+      when(query).thenReturn(resultSet, resultSet).thenAnswer(invocation -> createQueryResultSet());
     }
 
+    when(resultSet.next()).thenReturn(false);
+
     reporter.initialized(Collections.singletonList(node));
 
-    verify(preparedStatement, times(3)).close();
-    verify(preparedStatement).execute();
-    verify(preparedStatement).executeQuery();
-    verify(preparedStatement).getGeneratedKeys();
-    verify(preparedStatement).setInt(1, 1);
-    verify(preparedStatement).setInt(2, 1);
-    verify(preparedStatement).setString(1, null);
+    verify(connection, times(9)).prepareStatement(anyString());
+    verify(node).getName();
+    verify(preparedStatement, times(4)).executeBatch();
+    verify(preparedStatement, times(3)).executeQuery();
+    verify(preparedStatement, times(4)).setString(1, null);
+  }
+
+  @Test
+  void initializedWhenNodeNotFound() throws SQLException {
+    Reporter reporter = new DefaultReporter(dataSource);
+    reporter.initialize();
+
+    try (var query = preparedStatement.executeQuery()) {
+      when(query).thenReturn(resultSet);
+    }
+
+    when(resultSet.next()).thenReturn(false);
+
+    reporter.initialized(Collections.singletonList(node));
+
+    verify(connection, times(9)).prepareStatement(anyString());
+    verify(node).getName();
+    verify(preparedStatement).addBatch();
+    verify(preparedStatement, times(3)).executeQuery();
+    verify(preparedStatement, never()).setInt(1, 1);
+    verify(preparedStatement, times(4)).setString(1, null);
   }
 
   @Test
@@ -374,6 +599,100 @@ class DefaultReporterTest {
     verifyNoInteractions(preparedStatement);
   }
 
+  @Test
+  void initializedWhenTree() throws SQLException {
+    var child = mock(Node.class);
+    doReturn(Collections.singletonList(child)).when(node).getNodes();
+
+    Reporter reporter = new DefaultReporter(dataSource);
+    reporter.initialize();
+
+    reporter.initialized(Collections.singletonList(node));
+
+    verify(child).getName();
+    verify(child).getNodes();
+    verify(connection, times(6)).prepareStatement(anyString());
+    verify(preparedStatement, times(7)).addBatch();
+    verify(preparedStatement, times(3)).executeBatch();
+    verify(preparedStatement).executeQuery();
+  }
+
+  @Test
+  void logWhenAsync() throws SQLException {
+    when(logRecord.getLevel()).thenReturn(Level.INFO);
+
+    Reporter reporter = new DefaultReporter(dataSource, createAsyncProperties());
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+    reporter.log(logRecord, node);
+    reporter.terminated();
+
+    verify(dataSource, times(4)).getConnection();
+    verifyLogRecord();
+  }
+
+  @Test
+  void logWhenBatched() throws SQLException {
+    when(logRecord.getLevel()).thenReturn(Level.INFO);
+
+    doReturn(mock(PreparedStatement.class))
+        .when(connection)
+        .prepareStatement(startsWith("INSERT INTO `teacup_report`.`node_statistics`"));
+
+    var properties = new Properties();
+    properties.setProperty("reporter.mysql.batch.size", "10");
+
+    Reporter reporter = new DefaultReporter(dataSource, properties);
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+
+    clearInvocations(dataSource, preparedStatement);
+
+    reporter.log(logRecord, node);
+    reporter.log(logRecord, null);
+
+    verify(dataSource, never()).getConnection();
+
+    reporter.finished(node, result);
+
+    verify(dataSource, times(2)).getConnection();
+    verify(preparedStatement).addBatch();
+
+    reporter.terminated();
+
+    verify(dataSource, times(4)).getConnection();
+    verify(preparedStatement, times(2)).addBatch();
+    verify(preparedStatement, times(2)).executeBatch();
+  }
+
+  @Test
+  void logWhenConcurrent() throws InterruptedException, SQLException {
+    var properties = new Properties();
+    properties.setProperty("reporter.mysql.batch.size", "100");
+
+    Reporter reporter = new DefaultReporter(dataSource, properties);
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+
+    clearInvocations(dataSource, preparedStatement);
+
+    var executorService = Executors.newFixedThreadPool(THREADS);
+    for (var thread = 0; thread < THREADS; thread++)
+      executorService.execute(
+          () -> {
+            for (var record = 0; record < 100; record++)
+              reporter.log(new LogRecord(Level.INFO, TEST), node);
+          });
+
+    executorService.shutdown();
+    assertThat(executorService.awaitTermination(10L, TimeUnit.SECONDS)).isTrue();
+
+    reporter.terminated();
+
+    verify(preparedStatement, times(THREADS * 100)).addBatch();
+    verify(preparedStatement, atLeast(THREADS)).executeBatch();
+  }
+
   @Test
   void logWhenConfig() throws SQLException {
     when(logRecord.getLevel()).thenReturn(Level.CONFIG);
@@ -391,6 +710,8 @@ class DefaultReporterTest {
 
   @Test
   void logWhenConnectionError() throws SQLException {
+    when(logRecord.getLevel()).thenReturn(Level.WARNING);
+
     Reporter reporter = new DefaultReporter(dataSource);
     reporter.initialize();
 
@@ -401,7 +722,7 @@ class DefaultReporterTest {
     reporter.log(logRecord, node);
 
     verify(dataSource, times(2)).getConnection();
-    verifyNoInteractions(logRecord);
+    verifyLogRecord();
     verifyNoInteractions(node);
     verifyNoInteractions(preparedStatement);
   }
@@ -486,6 +807,28 @@ class DefaultReporterTest {
     verifyNoInteractions(dataSource);
   }
 
+  @Test
+  void logWhenRateLimited() throws SQLException {
+    var properties = new Properties();
+    properties.setProperty("reporter.mysql.log.rate", "1");
+
+    Reporter reporter = new DefaultReporter(dataSource, properties);
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+    reporter.log(new LogRecord(Level.INFO, TEST), node);
+    reporter.log(new LogRecord(Level.INFO, TEST), node);
+    reporter.log(new LogRecord(Level.INFO, TEST), null);
+    reporter.log(new LogRecord(Level.INFO, TEST), null);
+    reporter.finished(node, result);
+
+    verify(preparedStatement).setString(3, "1 log records suppressed");
+
+    reporter.terminated();
+
+    verify(preparedStatement, times(2)).setString(3, "1 log records suppressed");
+    verify(preparedStatement, times(2)).setString(3, TEST);
+  }
+
   @Test
   void logWhenSevere() throws SQLException {
     when(logRecord.getLevel()).thenReturn(Level.SEVERE);
@@ -501,19 +844,43 @@ class DefaultReporterTest {
     verify(node).getNodes();
   }
 
+  @Test
+  void purge() throws SQLException {
+    var properties = new Properties();
+    properties.setProperty("reporter.mysql.retention.pause", "0");
+
+    when(preparedStatement.executeQuery()).thenReturn(mock(ResultSet.class));
+
+    assertThat(new DefaultReporter(dataSource, properties).purge(1)).isTrue();
+
+    verify(connection)
+        .prepareStatement("DELETE FROM `teacup_report`.`session_execution` WHERE id = ?");
+    verify(connection).close();
+  }
+
+  @Test
+  void purgeWhenConnectionError() throws SQLException {
+    when(dataSource.getConnection()).thenThrow(new SQLException(TEST));
+    assertThat(new DefaultReporter(dataSource).purge(1)).isFalse();
+  }
+
   @Test
   void skipped() throws SQLException {
     Reporter reporter = new DefaultReporter(dataSource);
     reporter.initialize();
     reporter.initialized(Collections.singletonList(node));
+
+    clearInvocations(connection, dataSource, preparedStatement);
     reporter.skipped(node, REASON);
 
-    verify(connection, times(3)).prepareStatement(anyString());
-    verify(dataSource, times(3)).getConnection();
+    verify(connection, times(2)).prepareStatement(anyString());
+    verify(dataSource).getConnection();
     verify(node).getName();
-    verify(preparedStatement, times(4)).execute();
-    verify(preparedStatement, times(3)).setInt(1, 1);
-    verify(preparedStatement).setString(1, null);
+    verify(preparedStatement, times(2)).execute();
+    verify(preparedStatement).setInt(1, 1);
+    verify(preparedStatement, times(2)).setInt(2, 1);
+    verify(preparedStatement).setString(1, REASON);
+    verify(sequenceStatement).setString(2, IdAllocator.SKIPPED);
   }
 
   @Test
@@ -522,18 +889,18 @@ class DefaultReporterTest {
     reporter.initialize();
     reporter.initialized(Collections.singletonList(node));
 
-    try (var generatedKeys = preparedStatement.getGeneratedKeys()) {
-      when(generatedKeys).thenThrow(new SQLException(TEST));
-    }
+    clearInvocations(connection, dataSource, preparedStatement);
+
+    when(sequenceStatement.getGeneratedKeys()).thenThrow(new SQLException(TEST));
 
     reporter.skipped(node, REASON);
 
-    verify(connection, times(2)).prepareStatement(anyString());
-    verify(dataSource, times(3)).getConnection();
+    verify(connection).prepareStatement(anyString());
+    verify(dataSource).getConnection();
     verify(node).getName();
-    verify(preparedStatement, times(3)).execute();
-    verify(preparedStatement, times(3)).setInt(1, 1);
-    verify(preparedStatement).setString(1, null);
+    verify(preparedStatement, never()).execute();
+    verify(preparedStatement, never()).setInt(1, 1);
+    verify(preparedStatement, never()).setString(1, REASON);
   }
 
   @Test
@@ -542,16 +909,18 @@ class DefaultReporterTest {
     reporter.initialize();
     reporter.initialized(Collections.singletonList(node));
 
-    when(resultSet.next()).thenReturn(false);
+    clearInvocations(connection, dataSource, preparedStatement);
+
+    when(sequenceKeys.next()).thenReturn(false);
 
     reporter.skipped(node, REASON);
 
-    verify(connection, times(2)).prepareStatement(anyString());
-    verify(dataSource, times(3)).getConnection();
+    verify(connection).prepareStatement(anyString());
+    verify(dataSource).getConnection();
     verify(node).getName();
-    verify(preparedStatement, times(3)).execute();
-    verify(preparedStatement, times(3)).setInt(1, 1);
-    verify(preparedStatement).setString(1, null);
+    verify(preparedStatement, never()).execute();
+    verify(preparedStatement, never()).setInt(1, 1);
+    verify(preparedStatement, never()).setString(1, REASON);
   }
 
   @Test
@@ -560,18 +929,20 @@ class DefaultReporterTest {
     reporter.initialize();
     reporter.initialized(Collections.singletonList(node));
 
+    clearInvocations(connection, dataSource, preparedStatement);
+
     try (var conn = dataSource.getConnection()) {
       when(conn).thenThrow(new SQLException(TEST));
     }
 
     reporter.skipped(node, REASON);
 
-    verify(connection, times(2)).prepareStatement(anyString());
-    verify(dataSource, times(3)).getConnection();
+    verify(connection, never()).prepareStatement(anyString());
+    verify(dataSource).getConnection();
     verify(node).getName();
-    verify(preparedStatement, times(2)).execute();
-    verify(preparedStatement, times(2)).setInt(1, 1);
-    verify(preparedStatement, never()).setString(2, REASON);
+    verify(preparedStatement, never()).execute();
+    verify(preparedStatement, never()).setInt(1, 1);
+    verify(preparedStatement, never()).setString(1, REASON);
   }
 
   @Test
@@ -579,14 +950,16 @@ class DefaultReporterTest {
     Reporter reporter = new DefaultReporter(dataSource);
     reporter.initialize();
     reporter.initialized(Collections.singletonList(node));
+
+    clearInvocations(connection, dataSource, preparedStatement);
     reporter.skipped(node, null);
 
-    verify(connection, times(2)).prepareStatement(anyString());
-    verify(dataSource, times(3)).getConnection();
+    verify(connection).prepareStatement(anyString());
+    verify(dataSource).getConnection();
     verify(node).getName();
-    verify(preparedStatement, times(3)).execute();
-    verify(preparedStatement, times(3)).setInt(1, 1);
-    verify(preparedStatement).setString(1, null);
+    verify(preparedStatement).execute();
+    verify(preparedStatement).setInt(1, 1);
+    verify(preparedStatement, never()).setString(1, REASON);
   }
 
   @Test
@@ -601,6 +974,9 @@ class DefaultReporterTest {
   void skippedWhenNotInitialized() throws SQLException {
     Reporter reporter = new DefaultReporter(dataSource);
     reporter.initialize();
+
+    clearInvocations(connection);
+
     reporter.skipped(node, REASON);
 
     verify(connection, never()).prepareStatement(anyString());
@@ -617,18 +993,21 @@ class DefaultReporterTest {
     reporter.initialize();
     reporter.initialized(Collections.singletonList(node));
 
-    try (var prepare = connection.prepareStatement(anyString())) {
+    clearInvocations(connection, dataSource, preparedStatement);
+
+    try (var prepare =
+        connection.prepareStatement(startsWith("INSERT INTO `teacup_report`.`reason`"))) {
       when(prepare).thenThrow(new SQLException(TEST));
     }
 
     reporter.skipped(node, REASON);
 
-    verify(connection, times(3)).prepareStatement(anyString());
-    verify(dataSource, times(3)).getConnection();
+    verify(connection, times(2)).prepareStatement(anyString());
+    verify(dataSource).getConnection();
     verify(node).getName();
-    verify(preparedStatement, times(3)).execute();
-    verify(preparedStatement, times(3)).setInt(1, 1);
-    verify(preparedStatement).setString(1, null);
+    verify(preparedStatement).execute();
+    verify(preparedStatement).setInt(1, 1);
+    verify(preparedStatement, never()).setString(1, REASON);
   }
 
   @Test
@@ -660,6 +1039,20 @@ class DefaultReporterTest {
     verify(node, times(0)).getTimeStarted();
   }
 
+  @Test
+  void startedWhenDeferred() throws SQLException {
+    Reporter reporter = new DefaultReporter(dataSource, createDeferredProperties());
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+
+    clearInvocations(dataSource);
+
+    reporter.started(node);
+
+    verify(node).getTimeStarted();
+    verifyNoInteractions(dataSource);
+  }
+
   @Test
   void startedWhenNoId() {
     Reporter reporter = new DefaultReporter(dataSource);
@@ -688,7 +1081,45 @@ class DefaultReporterTest {
     reporter.terminated();
 
     verify(dataSource, times(2)).getConnection();
-    verify(connection).prepareStatement(anyString());
+    verify(connection, times(4)).prepareStatement(anyString());
+  }
+
+  @Test
+  void terminatedWhenConcurrentSessions()
+      throws ExecutionException, InterruptedException, SQLException, TimeoutException {
+    var other = mock(Node.class);
+    var reporter = new DefaultReporter(dataSource);
+    var executorService = Executors.newSingleThreadExecutor();
+
+    try {
+      executorService
+          .submit(
+              () -> {
+                reporter.initialize();
+                reporter.initialized(Collections.singletonList(other));
+              })
+          .get(10L, TimeUnit.SECONDS);
+
+      reporter.initialize();
+      reporter.initialized(Collections.singletonList(node));
+      reporter.terminated();
+
+      assertThat(reporter.getSession()).isNull();
+      assertThat(executorService.submit(reporter::getSession).get(10L, TimeUnit.SECONDS))
+          .isNotNull();
+
+      reporter.finished(other, result);
+      verify(result).getThrowable();
+
+      executorService.submit(reporter::terminated).get(10L, TimeUnit.SECONDS);
+    } finally {
+      executorService.shutdown();
+    }
+
+    verify(connection, times(2))
+        .prepareStatement(startsWith("UPDATE `teacup_report`.`session_execution`"));
+    verify(sessionStatement).setInt(1, 1);
+    verify(sessionStatement).setInt(1, 2);
   }
 
   @Test
@@ -696,6 +1127,8 @@ class DefaultReporterTest {
     Reporter reporter = new DefaultReporter(dataSource);
     reporter.initialize();
 
+    clearInvocations(connection);
+
     when(dataSource.getConnection()).thenThrow(new SQLException(TEST));
 
     reporter.terminated();
@@ -704,12 +1137,127 @@ class DefaultReporterTest {
     verify(connection, never()).prepareStatement(anyString());
   }
 
+  @Test
+  void terminatedWhenJournal(@TempDir Path directory) throws SQLException {
+    Reporter reporter = new DefaultReporter(dataSource, createJournalProperties(directory));
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+    reporter.log(new LogRecord(Level.INFO, TEST), node);
+    reporter.finished(node, result);
+    reporter.terminated();
+
+    verify(result).getStatus();
+    verify(sessionStatement).execute();
+    verify(statement, never()).execute(anyString());
+    assertThat(directory).isDirectoryContaining("glob:**" + JournalReplayer.CHECKPOINT);
+  }
+
   @Test
   void terminatedWhenNoSessionId() {
     new DefaultReporter(dataSource).terminated();
     verifyNoInteractions(dataSource);
   }
 
+  @Test
+  void terminatedWhenOtherThread()
+      throws ExecutionException, InterruptedException, SQLException, TimeoutException {
+    var reporter = new DefaultReporter(dataSource);
+    reporter.initialize();
+
+    var executorService = Executors.newSingleThreadExecutor();
+
+    try {
+      executorService.submit(reporter::terminated).get(10L, TimeUnit.SECONDS);
+    } finally {
+      executorService.shutdown();
+    }
+
+    assertThat(reporter.getSession()).isNotNull();
+    verify(connection, never())
+        .prepareStatement(startsWith("UPDATE `teacup_report`.`session_execution`"));
+  }
+
+  @Test
+  void terminatedWhenRetention() throws SQLException {
+    var lockStatement = mock(PreparedStatement.class);
+    doReturn(lockStatement).when(connection).prepareStatement("SELECT GET_LOCK(?, 0)");
+    doReturn(mock(ResultSet.class)).when(lockStatement).executeQuery();
+
+    var properties = new Properties();
+    properties.setProperty("reporter.mysql.retention.days", "1");
+
+    Reporter reporter = new DefaultReporter(dataSource, properties);
+    reporter.initialize();
+    reporter.terminated();
+
+    verify(lockStatement, timeout(10_000L)).setString(1, "teacup_report.retention");
+  }
+
+  @Test
+  void terminatedWhenStatistics() throws SQLException {
+    var statisticsStatement = mock(PreparedStatement.class);
+    doReturn(statisticsStatement)
+        .when(connection)
+        .prepareStatement(startsWith("INSERT INTO `teacup_report`.`node_statistics`"));
+
+    Reporter reporter = new DefaultReporter(dataSource);
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+    reporter.finished(node, result);
+    reporter.terminated();
+
+    verify(statisticsStatement).setInt(3, 1);
+    verify(statisticsStatement).executeBatch();
+  }
+
+  @Test
+  void terminatedWhenSummary() throws SQLException {
+    var summaryStatement = mock(PreparedStatement.class);
+    doReturn(summaryStatement)
+        .when(connection)
+        .prepareStatement(startsWith("INSERT INTO `teacup_report`.`session_summary`"));
+
+    Reporter reporter = new DefaultReporter(dataSource);
+    reporter.initialize();
+    reporter.initialized(Collections.singletonList(node));
+    reporter.finished(node, result);
+    reporter.terminated();
+
+    verify(summaryStatement).setInt(1, 1);
+    verify(summaryStatement).setLong(6, 1L);
+    verify(summaryStatement).execute();
+  }
+
+  private static ResultSet createQueryResultSet() throws SQLException {
+    var queryResultSet = mock(ResultSet.class);
+    when(queryResultSet.getInt(1)).thenReturn(1);
+    when(queryResultSet.next()).thenReturn(true, false);
+
+    return queryResultSet;
+  }
+
+  private static Properties createAsyncProperties() {
+    var properties = new Properties();
+    properties.setProperty("reporter.mysql.async", "true");
+    properties.setProperty("reporter.mysql.async.writers", "2");
+
+    return properties;
+  }
+
+  private static Properties createJournalProperties(Path directory) {
+    var properties = new Properties();
+    properties.setProperty("reporter.mysql.journal.directory", directory.toString());
+
+    return properties;
+  }
+
+  private static Properties createDeferredProperties() {
+    var properties = new Properties();
+    properties.setProperty("reporter.mysql.result.deferred", "true");
+
+    return properties;
+  }
+
   private void setupConnection() throws SQLException {
     try (var connectionStatement = connection.createStatement()) {
       when(connectionStatement).thenReturn(statement);
@@ -723,11 +1271,33 @@ class DefaultReporterTest {
         connection.prepareStatement(anyString(), same(Statement.RETURN_GENERATED_KEYS))) {
       when(connectionStatement).thenReturn(preparedStatement);
     }
+
+    doReturn(versionStatement).when(connection).prepareStatement(startsWith("SELECT MAX(version)"));
+
+    var versionResultSet = mock(ResultSet.class);
+    when(versionResultSet.getInt(1)).thenReturn(Schema.VERSION);
+    when(versionResultSet.next()).thenReturn(true);
+
+    doReturn(versionResultSet).when(versionStatement).executeQuery();
+
+    doReturn(sequenceStatement)
+        .when(connection)
+        .prepareStatement(
+            startsWith("UPDATE `teacup_report`.`sequence`"), same(Statement.RETURN_GENERATED_KEYS));
+
+    when(sequenceKeys.getInt(1)).thenReturn(1);
+    when(sequenceKeys.next()).thenReturn(true);
+
+    doReturn(sequenceKeys).when(sequenceStatement).getGeneratedKeys();
+
+    doReturn(sessionStatement)
+        .when(connection)
+        .prepareStatement(startsWith("INSERT INTO `teacup_report`.`session_execution`"));
   }
 
   private void setupPreparedStatement() throws SQLException {
     try (var query = preparedStatement.executeQuery()) {
-      when(query).thenReturn(resultSet);
+      when(query).thenAnswer(invocation -> createQueryResultSet());
     }
 
     try (var generatedKeys = preparedStatement.getGeneratedKeys()) {
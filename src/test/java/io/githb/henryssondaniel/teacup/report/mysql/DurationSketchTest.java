@@ -0,0 +1,76 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Percentage.withPercentage;
+
+import org.junit.jupiter.api.Test;
+
+class DurationSketchTest {
+  @Test
+  void add() {
+    var sketch = new DurationSketch();
+    for (var millis = 1L; millis <= 1_000L; millis++) sketch.add(millis);
+
+    assertThat(sketch.getCount()).isEqualTo(1_000L);
+    assertThat(sketch.getQuantile(0.5)).isCloseTo(500L, withPercentage(1.0));
+    assertThat(sketch.getQuantile(0.9)).isCloseTo(900L, withPercentage(1.0));
+    assertThat(sketch.getQuantile(0.99)).isCloseTo(990L, withPercentage(1.0));
+  }
+
+  @Test
+  void addWhenZero() {
+    var sketch = new DurationSketch();
+    sketch.add(0L);
+
+    assertThat(sketch.getQuantile(0.5)).isZero();
+  }
+
+  @Test
+  void fromBytes() {
+    var sketch = new DurationSketch();
+    sketch.add(10L);
+    sketch.add(10L);
+    sketch.add(1_000_000L);
+
+    var copy = DurationSketch.fromBytes(sketch.toBytes());
+
+    assertThat(copy.getCount()).isEqualTo(3L);
+    assertThat(copy.getQuantile(0.5)).isEqualTo(10L);
+    assertThat(copy.getQuantile(1.0)).isCloseTo(1_000_000L, withPercentage(1.0));
+  }
+
+  @Test
+  void fromBytesWhenNull() {
+    assertThat(DurationSketch.fromBytes(null).getCount()).isZero();
+  }
+
+  @Test
+  void getQuantileWhenEmpty() {
+    assertThat(new DurationSketch().getQuantile(0.5)).isZero();
+  }
+
+  @Test
+  void merge() {
+    var sketch = new DurationSketch();
+    sketch.add(10L);
+
+    var other = new DurationSketch();
+    other.add(100L);
+    other.add(100L);
+
+    sketch.merge(other);
+
+    assertThat(sketch.getCount()).isEqualTo(3L);
+    assertThat(sketch.getQuantile(0.3)).isEqualTo(10L);
+    assertThat(sketch.getQuantile(0.5)).isEqualTo(100L);
+  }
+
+  @Test
+  void toBytes() {
+    var sketch = new DurationSketch();
+    sketch.add(10L);
+    sketch.add(10L);
+
+    assertThat(sketch.toBytes()).hasSize(Short.BYTES + Long.BYTES);
+  }
+}
@@ -0,0 +1,158 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IdAllocatorTest {
+  private final Connection connection = mock(Connection.class);
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+  private final Properties properties = new Properties();
+  private final ResultSet resultSet = mock(ResultSet.class);
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    when(connection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS)))
+        .thenReturn(preparedStatement);
+    when(preparedStatement.getGeneratedKeys()).thenReturn(resultSet);
+    when(resultSet.getInt(1)).thenReturn(10, 20);
+    when(resultSet.next()).thenReturn(true);
+
+    properties.setProperty("reporter.mysql.id.block.size", "2");
+  }
+
+  @Test
+  void check() throws SQLException {
+    var directory = mockDirectory(10);
+    var statement = mockHighest(connection, 10);
+
+    var idAllocator = new IdAllocator(new Configuration(properties), directory, 1);
+    idAllocator.check(connection);
+    idAllocator.check(connection);
+
+    verify(statement).executeQuery();
+  }
+
+  @Test
+  void checkWhenNoRouter() throws SQLException {
+    new IdAllocator(new Configuration(properties)).check(connection);
+    verify(connection, never()).prepareStatement(anyString());
+  }
+
+  @Test
+  void checkWhenUnknownSessions() throws SQLException {
+    var directory = mockDirectory(10);
+    mockHighest(connection, 11);
+
+    var idAllocator = new IdAllocator(new Configuration(properties), directory, 1);
+
+    assertThatExceptionOfType(SQLException.class)
+        .isThrownBy(() -> idAllocator.check(connection))
+        .withMessageStartingWith("Shard 1 holds sessions that are not in the shard directory");
+  }
+
+  @Test
+  void next() throws SQLException {
+    var idAllocator = new IdAllocator(new Configuration(properties));
+
+    assertThat(idAllocator.next(connection, IdAllocator.EXECUTION)).isEqualTo(10);
+    assertThat(idAllocator.next(connection, IdAllocator.EXECUTION)).isEqualTo(11);
+    assertThat(idAllocator.next(connection, IdAllocator.EXECUTION)).isEqualTo(20);
+
+    verify(preparedStatement, times(2)).executeUpdate();
+    verify(preparedStatement, times(2)).setInt(1, 2);
+    verify(preparedStatement, times(2)).setString(2, IdAllocator.EXECUTION);
+  }
+
+  @Test
+  void nextWhenNoKey() throws SQLException {
+    when(resultSet.next()).thenReturn(false);
+
+    var idAllocator = new IdAllocator(new Configuration(properties));
+
+    assertThatExceptionOfType(SQLException.class)
+        .isThrownBy(() -> idAllocator.next(connection, IdAllocator.SKIPPED))
+        .withMessage("Could not reserve IDs from sequence skipped");
+  }
+
+  @Test
+  void nextWhenRouter() throws SQLException {
+    var directory = mockDirectory(0);
+    var directoryConnection = directory.getConnection();
+    var registerStatement = mock(PreparedStatement.class);
+    when(directoryConnection.prepareStatement(startsWith("INSERT INTO")))
+        .thenReturn(registerStatement);
+
+    var idAllocator = new IdAllocator(new Configuration(properties), directory, 2);
+
+    assertThat(idAllocator.next(connection, IdAllocator.SESSION_EXECUTION)).isEqualTo(10);
+    assertThat(idAllocator.next(connection, IdAllocator.EXECUTION)).isEqualTo(20);
+
+    verify(connection).prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS));
+    verify(registerStatement).setInt(1, 10);
+    verify(registerStatement).setInt(2, 2);
+    verify(registerStatement).execute();
+  }
+
+  @Test
+  void nextWhenSequences() throws SQLException {
+    var idAllocator = new IdAllocator(new Configuration(properties));
+
+    assertThat(idAllocator.next(connection, IdAllocator.ERROR)).isEqualTo(10);
+    assertThat(idAllocator.next(connection, IdAllocator.SKIPPED)).isEqualTo(20);
+    assertThat(idAllocator.next(connection, IdAllocator.ERROR)).isEqualTo(11);
+
+    verify(preparedStatement, times(2)).executeUpdate();
+  }
+
+  private ShardRouter mockDirectory(int highest) throws SQLException {
+    var directoryConnection = mock(Connection.class);
+    when(directoryConnection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS)))
+        .thenReturn(preparedStatement);
+    mockHighest(directoryConnection, highest);
+
+    var versionResultSet = mock(ResultSet.class);
+    when(versionResultSet.getInt(1)).thenReturn(Schema.VERSION);
+    when(versionResultSet.next()).thenReturn(true);
+
+    var versionStatement = mock(PreparedStatement.class);
+    when(versionStatement.executeQuery()).thenReturn(versionResultSet);
+    when(directoryConnection.prepareStatement(startsWith("SELECT MAX(version)")))
+        .thenReturn(versionStatement);
+
+    var dataSource = mock(DataSource.class);
+    when(dataSource.getConnection()).thenReturn(directoryConnection);
+
+    return new ShardRouter(dataSource, Partitioning.NONE);
+  }
+
+  private static PreparedStatement mockHighest(Connection connection, int highest)
+      throws SQLException {
+    var highestResultSet = mock(ResultSet.class);
+    when(highestResultSet.getInt(1)).thenReturn(highest);
+    when(highestResultSet.next()).thenReturn(true);
+
+    var statement = mock(PreparedStatement.class);
+    when(statement.executeQuery()).thenReturn(highestResultSet);
+    when(connection.prepareStatement(startsWith("SELECT COALESCE(MAX("))).thenReturn(statement);
+
+    return statement;
+  }
+}
@@ -0,0 +1,401 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.henryssondaniel.teacup.core.testing.Factory;
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import io.github.henryssondaniel.teacup.core.testing.Status;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalReplayerTest {
+  private static final String TEST = "test";
+
+  private final Node child = Factory.createNode("child", Collections.emptyList());
+  private final SessionContext context = new SessionContext(1, null, null);
+  private final Node parent = Factory.createNode("parent", Collections.singletonList(child));
+  private final DefaultReporter reporter = mock(DefaultReporter.class);
+
+  @TempDir Path directory;
+
+  @Test
+  void await() throws IOException, InterruptedException {
+    when(reporter.getSession()).thenReturn(context);
+
+    try (var journal = new Journal(directory, 1024)) {
+      var replayer = new JournalReplayer(directory, journal.getId(), reporter, journal, 0L);
+
+      var thread = new Thread(replayer);
+      thread.start();
+
+      writeSession(journal);
+
+      assertThat(replayer.await(10_000L)).isTrue();
+      assertThat(replayer.getReplayed()).isEqualTo(journal.getRecords());
+      assertThat(directory.resolve(journal.getId() + JournalReplayer.CHECKPOINT)).exists();
+
+      thread.interrupt();
+      thread.join();
+    }
+
+    verify(reporter).terminated();
+  }
+
+  @Test
+  void awaitWhenNotInitialized() throws IOException, InterruptedException {
+    try (var journal = new Journal(directory, 1024)) {
+      var replayer = new JournalReplayer(directory, journal.getId(), reporter, journal, 10L);
+
+      var thread = new Thread(replayer);
+      thread.start();
+
+      writeSession(journal);
+
+      assertThat(replayer.await(100L)).isFalse();
+      assertThat(replayer.getReplayed()).isZero();
+
+      when(reporter.getSession()).thenReturn(context);
+      assertThat(replayer.await(10_000L)).isTrue();
+
+      thread.interrupt();
+      thread.join();
+    }
+
+    verify(reporter, times(1)).terminated();
+  }
+
+  @Test
+  void awaitWhenWriteFails() throws IOException, InterruptedException {
+    var failures = new AtomicLong();
+
+    when(reporter.getFailures()).thenAnswer(invocation -> failures.get());
+    when(reporter.getSession()).thenReturn(context);
+    when(reporter.purge(1)).thenReturn(true);
+    doAnswer(invocation -> failures.compareAndSet(0L, 1L))
+        .when(reporter)
+        .skipped(any(Node.class), anyString());
+
+    try (var journal = new Journal(directory, 1024)) {
+      var replayer = new JournalReplayer(directory, journal.getId(), reporter, journal, 0L);
+
+      var thread = new Thread(replayer);
+      thread.start();
+
+      writeSession(journal);
+
+      assertThat(replayer.await(10_000L)).isTrue();
+      assertThat(replayer.getReplayed()).isEqualTo(journal.getRecords());
+
+      thread.interrupt();
+      thread.join();
+    }
+
+    verify(reporter).discard(context);
+    verify(reporter, times(2)).initialize();
+    verify(reporter).purge(1);
+    verify(reporter, times(2)).skipped(argThat(node -> "parent".equals(node.getName())), eq(TEST));
+    verify(reporter).terminated();
+  }
+
+  @Test
+  void replay() throws IOException {
+    when(reporter.getSession()).thenReturn(context);
+
+    String id;
+    try (var journal = new Journal(directory, 1024)) {
+      id = journal.getId();
+      writeSession(journal);
+    }
+
+    assertThat(new JournalReplayer(directory, id, reporter, null, 0L).replay()).isTrue();
+
+    verify(reporter).initialize();
+    verify(reporter)
+        .initialized(
+            argThat(
+                (Collection<? extends Node> nodes) ->
+                    nodes.size() == 1
+                        && "parent".equals(nodes.iterator().next().getName())
+                        && "child"
+                            .equals(
+                                nodes.iterator().next().getNodes().iterator().next().getName())));
+    verify(reporter).started(argThat(node -> node.getTimeStarted() == 1L));
+    verify(reporter)
+        .log(
+            argThat(logRecord -> logRecord.getLevel() == Level.INFO),
+            argThat(node -> node != null && "child".equals(node.getName())));
+    verify(reporter)
+        .log(argThat(logRecord -> "CUSTOM".equals(logRecord.getLevel().getName())), isNull());
+    verify(reporter)
+        .finished(
+            argThat(node -> node.getTimeFinished() == 2L),
+            argThat(
+                result ->
+                    result.getStatus() == Status.FAILED
+                        && TEST.equals(result.getThrowable().orElseThrow().getMessage())));
+    verify(reporter).skipped(argThat(node -> "parent".equals(node.getName())), eq(TEST));
+    verify(reporter).terminated();
+
+    try (var paths = Files.list(directory)) {
+      assertThat(paths).allMatch(path -> path.toString().endsWith(Journal.LOCK));
+    }
+  }
+
+  @Test
+  void replayWhenCheckpoint() throws IOException, InterruptedException {
+    when(reporter.getSession()).thenReturn(context);
+
+    String id;
+    try (var journal = new Journal(directory, 64)) {
+      id = journal.getId();
+
+      var replayer = new JournalReplayer(directory, id, reporter, journal, 0L);
+
+      var thread = new Thread(replayer);
+      thread.start();
+
+      writeSession(journal);
+
+      assertThat(replayer.await(10_000L)).isTrue();
+
+      thread.interrupt();
+      thread.join();
+
+      journal.initialize();
+      journal.terminated();
+    }
+
+    assertThat(Journal.segment(directory, id, 0)).doesNotExist();
+    assertThat(new JournalReplayer(directory, id, reporter, null, 0L).replay()).isTrue();
+
+    verify(reporter, times(2)).initialize();
+    verify(reporter, times(2)).terminated();
+  }
+
+  @Test
+  void replayWhenInitializedTwice() throws IOException {
+    when(reporter.getSession()).thenReturn(context);
+
+    var other = Factory.createNode("other", Collections.emptyList());
+
+    String id;
+    try (var journal = new Journal(directory, 1024)) {
+      id = journal.getId();
+
+      journal.initialize();
+      journal.initialized(Collections.singletonList(parent));
+      journal.initialized(Collections.singletonList(other));
+      journal.started(child);
+      journal.started(other);
+      journal.terminated();
+    }
+
+    assertThat(new JournalReplayer(directory, id, reporter, null, 0L).replay()).isTrue();
+
+    verify(reporter, times(2)).initialized(anyCollection());
+    verify(reporter).started(argThat(node -> "child".equals(node.getName())));
+    verify(reporter).started(argThat(node -> "other".equals(node.getName())));
+  }
+
+  @Test
+  void replayWhenNotInitialized() throws IOException {
+    String id;
+    try (var journal = new Journal(directory, 1024)) {
+      id = journal.getId();
+      writeSession(journal);
+    }
+
+    assertThat(new JournalReplayer(directory, id, reporter, null, 0L).replay()).isFalse();
+
+    verify(reporter).initialize();
+    verify(reporter, never()).initialized(anyCollection());
+    verify(reporter, never()).log(any(LogRecord.class), any(Node.class));
+    verify(reporter, never()).skipped(any(Node.class), anyString());
+    assertThat(Journal.segment(directory, id, 0)).exists();
+  }
+
+  @Test
+  void replayWhenPurgeFails() throws IOException {
+    var failures = new AtomicLong();
+
+    when(reporter.getFailures()).thenAnswer(invocation -> failures.get());
+    when(reporter.getSession()).thenReturn(context);
+    doAnswer(invocation -> failures.incrementAndGet()).when(reporter).terminated();
+
+    String id;
+    try (var journal = new Journal(directory, 1024)) {
+      id = journal.getId();
+      writeSession(journal);
+    }
+
+    assertThat(new JournalReplayer(directory, id, reporter, null, 0L).replay()).isFalse();
+    assertThat(new JournalReplayer(directory, id, reporter, null, 0L).replay()).isFalse();
+    assertThat(Journal.segment(directory, id, 0)).exists();
+
+    verify(reporter).purge(1);
+    verify(reporter).initialize();
+  }
+
+  @Test
+  void replayWhenSessions() throws ExecutionException, IOException, InterruptedException {
+    var other = Factory.createNode("other", Collections.emptyList());
+    var otherContext = new SessionContext(2, null, null);
+
+    when(reporter.getSession()).thenReturn(context, otherContext);
+
+    var executorService = Executors.newSingleThreadExecutor();
+
+    String id;
+    try (var journal = new Journal(directory, 1024)) {
+      id = journal.getId();
+
+      journal.initialize();
+      journal.initialized(Collections.singletonList(parent));
+
+      executorService
+          .submit(
+              () -> {
+                journal.initialize();
+                journal.initialized(Collections.singletonList(other));
+              })
+          .get();
+
+      journal.started(child);
+      journal.started(other);
+      executorService.submit(journal::terminated).get();
+      journal.terminated();
+    } finally {
+      executorService.shutdown();
+    }
+
+    assertThat(new JournalReplayer(directory, id, reporter, null, 0L).replay()).isTrue();
+
+    var inOrder = inOrder(reporter);
+    inOrder.verify(reporter).initialize();
+    inOrder.verify(reporter).setSession(context);
+    inOrder.verify(reporter).initialized(anyCollection());
+    inOrder.verify(reporter).initialize();
+    inOrder.verify(reporter).setSession(otherContext);
+    inOrder.verify(reporter).initialized(anyCollection());
+    inOrder.verify(reporter).setSession(context);
+    inOrder.verify(reporter).started(argThat(node -> "child".equals(node.getName())));
+    inOrder.verify(reporter).setSession(otherContext);
+    inOrder.verify(reporter).started(argThat(node -> "other".equals(node.getName())));
+    inOrder.verify(reporter).setSession(otherContext);
+    inOrder.verify(reporter).terminated();
+    inOrder.verify(reporter).setSession(context);
+    inOrder.verify(reporter).terminated();
+  }
+
+  @Test
+  void replayWhenWriteFails() throws IOException, InterruptedException {
+    var failures = new AtomicLong();
+    var otherContext = new SessionContext(2, null, null);
+
+    when(reporter.getFailures()).thenAnswer(invocation -> failures.get());
+    when(reporter.getSession())
+        .thenReturn(context, otherContext, new SessionContext(3, null, null));
+    when(reporter.purge(1)).thenReturn(true);
+    doAnswer(invocation -> failures.compareAndSet(0L, 1L))
+        .when(reporter)
+        .skipped(any(Node.class), anyString());
+
+    String id;
+    try (var journal = new Journal(directory, 1024)) {
+      id = journal.getId();
+
+      journal.initialize();
+      journal.initialized(Collections.singletonList(parent));
+
+      var thread =
+          new Thread(
+              () -> {
+                journal.initialize();
+                journal.terminated();
+              });
+      thread.start();
+      thread.join();
+
+      journal.skipped(parent, TEST);
+      journal.terminated();
+    }
+
+    assertThat(new JournalReplayer(directory, id, reporter, null, 0L).replay()).isFalse();
+    assertThat(directory.resolve(id + JournalReplayer.CHECKPOINT)).exists();
+
+    // the partly written session is deleted and replayed, the other one is not replayed again
+    assertThat(new JournalReplayer(directory, id, reporter, null, 0L).replay()).isTrue();
+    assertThat(Journal.segment(directory, id, 0)).doesNotExist();
+
+    verify(reporter).discard(context);
+    verify(reporter, never()).discard(otherContext);
+    verify(reporter).purge(1);
+    verify(reporter, times(3)).initialize();
+    verify(reporter, times(2)).skipped(any(Node.class), eq(TEST));
+    verify(reporter, times(2)).terminated();
+  }
+
+  @Test
+  void replayWhenSegments() throws IOException {
+    when(reporter.getSession()).thenReturn(context);
+
+    String id;
+    try (var journal = new Journal(directory, 64)) {
+      id = journal.getId();
+      writeSession(journal);
+    }
+
+    assertThat(Journal.segment(directory, id, 1)).exists();
+    assertThat(new JournalReplayer(directory, id, reporter, null, 0L).replay()).isTrue();
+    assertThat(Journal.segment(directory, id, 0)).doesNotExist();
+    assertThat(Journal.segment(directory, id, 1)).doesNotExist();
+
+    verify(reporter).terminated();
+  }
+
+  private void writeSession(Journal journal) {
+    journal.initialize();
+    journal.initialized(Collections.singletonList(parent));
+
+    child.setTimeStarted(1L);
+    journal.started(child);
+    journal.log(new LogRecord(Level.INFO, TEST), child);
+    journal.log(new LogRecord(new CustomLevel(), TEST), null);
+
+    child.setTimeFinished(2L);
+    journal.finished(child, Factory.createResult(Status.FAILED, new Throwable(TEST)));
+    journal.skipped(parent, TEST);
+    journal.terminated();
+  }
+
+  private static final class CustomLevel extends Level {
+    private static final long serialVersionUID = 1L;
+
+    private CustomLevel() {
+      super("CUSTOM", 850);
+    }
+  }
+}
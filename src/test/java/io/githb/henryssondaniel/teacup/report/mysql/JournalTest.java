@@ -0,0 +1,233 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import io.github.henryssondaniel.teacup.core.testing.Factory;
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import io.github.henryssondaniel.teacup.core.testing.Status;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalTest {
+  private static final String TEST = "test";
+
+  private final Node node = Factory.createNode(TEST, Collections.emptyList());
+
+  @TempDir Path directory;
+
+  @Test
+  void close() throws IOException {
+    var journal = new Journal(directory, 1024);
+
+    try (var fileChannel =
+        FileChannel.open(
+            directory.resolve(journal.getId() + Journal.LOCK), StandardOpenOption.WRITE)) {
+      assertThatExceptionOfType(OverlappingFileLockException.class)
+          .isThrownBy(fileChannel::tryLock);
+
+      journal.close();
+
+      assertThat(fileChannel.tryLock()).isNotNull();
+    }
+  }
+
+  @Test
+  void getIds() throws IOException {
+    try (var journal = new Journal(directory, 1024)) {
+      assertThat(Journal.getIds(directory)).containsExactly(journal.getId());
+    }
+  }
+
+  @Test
+  void initialize() throws IOException, InterruptedException {
+    try (var journal = new Journal(directory, 1024)) {
+      var thread = new Thread(journal::initialize);
+      thread.start();
+      thread.join();
+
+      journal.initialize();
+
+      var record = read(journal, 0, 0);
+      assertThat(record.get()).isEqualTo(Journal.INITIALIZE);
+      assertThat(record.getInt()).isOne();
+
+      record = read(journal, 0, 1);
+      assertThat(record.get()).isEqualTo(Journal.INITIALIZE);
+      assertThat(record.getInt()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  void initialized() throws IOException {
+    try (var journal = new Journal(directory, 1024)) {
+      journal.initialize();
+
+      assertThat(
+              journal.initialized(
+                  Collections.singletonList(
+                      Factory.createNode("parent", Collections.singletonList(node)))))
+          .isTrue();
+
+      var record = read(journal, 0, 1);
+      assertThat(record.get()).isEqualTo(Journal.INITIALIZED);
+      assertThat(record.getInt()).isOne();
+      assertThat(record.getInt()).isEqualTo(2);
+      assertThat(record.getInt()).isEqualTo(-1);
+      assertThat(Journal.readString(record)).isEqualTo("parent");
+      assertThat(record.getInt()).isZero();
+      assertThat(Journal.readString(record)).isEqualTo(TEST);
+    }
+  }
+
+  @Test
+  void initializedWhenNoSession() throws IOException {
+    try (var journal = new Journal(directory, 1024)) {
+      assertThat(journal.initialized(Collections.singletonList(node))).isFalse();
+      assertThat(journal.getRecords()).isZero();
+    }
+  }
+
+  @Test
+  void log() throws IOException {
+    try (var journal = new Journal(directory, 1024)) {
+      var logRecord = new LogRecord(Level.INFO, "{0} message");
+      logRecord.setParameters(new Object[] {TEST});
+
+      journal.initialize();
+      assertThat(journal.log(logRecord, node)).isTrue();
+
+      var record = read(journal, 0, 1);
+      assertThat(record.get()).isEqualTo(Journal.LOG);
+      assertThat(record.getInt()).isOne();
+      assertThat(record.getInt()).isEqualTo(-1);
+      assertThat(Journal.readString(record)).isEqualTo(Level.INFO.getName());
+      assertThat(record.getInt()).isEqualTo(Level.INFO.intValue());
+      assertThat(Journal.readString(record)).isEqualTo("test message");
+      assertThat(record.getLong()).isEqualTo(logRecord.getMillis());
+      assertThat(journal.getRecords()).isEqualTo(2L);
+    }
+  }
+
+  @Test
+  void logWhenLargeRecord() throws IOException {
+    var message = "\u00e5\u20ac\ud83d\ude00".repeat(20_000);
+
+    try (var journal = new Journal(directory, 1024)) {
+      journal.initialize();
+      journal.log(new LogRecord(Level.INFO, message), null);
+      journal.log(new LogRecord(Level.INFO, TEST), null);
+
+      // the record does not fit in the first segment, so the next one is made large enough
+      var record = read(journal, 1, 0);
+      assertThat(record.get()).isEqualTo(Journal.LOG);
+      assertThat(record.getInt()).isOne();
+      assertThat(record.getInt()).isEqualTo(-1);
+      assertThat(Journal.readString(record)).isEqualTo(Level.INFO.getName());
+      assertThat(record.getInt()).isEqualTo(Level.INFO.intValue());
+      assertThat(Journal.readString(record)).isEqualTo(message);
+      assertThat(journal.getRecords()).isEqualTo(3L);
+    }
+  }
+
+  @Test
+  void logWhenNoSession() throws IOException {
+    try (var journal = new Journal(directory, 1024)) {
+      assertThat(journal.log(new LogRecord(Level.INFO, TEST), node)).isFalse();
+      assertThat(journal.getRecords()).isZero();
+    }
+  }
+
+  @Test
+  void logWhenSegmentFull() throws IOException {
+    try (var journal = new Journal(directory, 64)) {
+      journal.initialize();
+      for (var i = 0; i < 3; i++) journal.log(new LogRecord(Level.INFO, TEST), null);
+
+      assertThat(Journal.segment(directory, journal.getId(), 1)).exists();
+      assertThat(
+              ByteBuffer.wrap(Files.readAllBytes(Journal.segment(directory, journal.getId(), 0)))
+                  .getInt(0))
+          .isPositive();
+      assertThat(journal.getRecords()).isEqualTo(4L);
+    }
+  }
+
+  @Test
+  void readStringWhenNull() {
+    assertThat(Journal.readString(ByteBuffer.allocate(4).putInt(0, -1))).isNull();
+  }
+
+  @Test
+  void started() throws IOException, InterruptedException {
+    var other = Factory.createNode("other", Collections.emptyList());
+
+    try (var journal = new Journal(directory, 1024)) {
+      var thread =
+          new Thread(
+              () -> {
+                journal.initialize();
+                journal.initialized(Collections.singletonList(node));
+              });
+      thread.start();
+      thread.join();
+
+      journal.initialize();
+      journal.initialized(Collections.singletonList(other));
+
+      // the node is recorded in the session it was initialized in, whichever thread reports it
+      assertThat(journal.started(node)).isTrue();
+      assertThat(journal.started(other)).isTrue();
+
+      var record = read(journal, 0, 4);
+      assertThat(record.get()).isEqualTo(Journal.STARTED);
+      assertThat(record.getInt()).isOne();
+      assertThat(record.getInt()).isZero();
+
+      record = read(journal, 0, 5);
+      assertThat(record.get()).isEqualTo(Journal.STARTED);
+      assertThat(record.getInt()).isEqualTo(2);
+      assertThat(record.getInt()).isZero();
+    }
+  }
+
+  @Test
+  void terminated() throws IOException {
+    try (var journal = new Journal(directory, 1024)) {
+      journal.initialize();
+      journal.initialized(Collections.singletonList(node));
+
+      assertThat(journal.terminated()).isTrue();
+      assertThat(journal.finished(node, Factory.createResult(Status.FAILED, new Throwable(TEST))))
+          .isFalse();
+
+      var bytes = Files.readAllBytes(Journal.segment(directory, journal.getId(), 0));
+      assertThat(new String(bytes, StandardCharsets.UTF_8)).contains(TEST);
+      assertThat(journal.getRecords()).isEqualTo(3L);
+      assertThat(journal.terminated()).isFalse();
+    }
+  }
+
+  private ByteBuffer read(Journal journal, int segment, int index) throws IOException {
+    var byteBuffer =
+        ByteBuffer.wrap(Files.readAllBytes(Journal.segment(directory, journal.getId(), segment)));
+
+    for (var i = 0; i < index; i++)
+      byteBuffer.position(byteBuffer.getInt() + byteBuffer.position());
+
+    var length = byteBuffer.getInt();
+
+    return byteBuffer.slice().limit(length);
+  }
+}
@@ -0,0 +1,292 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ListResourceBundle;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+import javax.sql.DataSource;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+class LogBatchTest {
+  private static final String COLUMN = "execution";
+  private static final String TABLE = "log";
+  private static final String TEST = "test";
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource = mock(DataSource.class);
+  private final JdbcStatement jdbcStatement = mock(JdbcStatement.class);
+  private final LogRecord logRecord = new LogRecord(Level.INFO, TEST);
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+  private final Statement statement = mock(Statement.class);
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(connection.createStatement()).thenReturn(statement);
+    when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+    when(statement.unwrap(JdbcStatement.class)).thenReturn(jdbcStatement);
+  }
+
+  @Test
+  void add() throws SQLException {
+    var logBatch = new LogBatch(dataSource, TABLE, COLUMN, 2, 60_000L, false);
+    logBatch.add(1, logRecord);
+
+    verifyNoInteractions(dataSource);
+
+    logBatch.add(2, logRecord);
+
+    verify(dataSource).getConnection();
+    verify(preparedStatement, times(2)).addBatch();
+    verify(preparedStatement).executeBatch();
+    verify(preparedStatement).setInt(1, 1);
+    verify(preparedStatement).setInt(1, 2);
+    verify(preparedStatement, times(2)).setInt(2, 5);
+    verify(preparedStatement, times(2)).setString(3, TEST);
+    verify(preparedStatement, times(2)).setLong(4, logRecord.getMillis());
+  }
+
+  @Test
+  void addWhenAge() throws SQLException {
+    new LogBatch(dataSource, TABLE, COLUMN, 2, 1L, false).add(1, logRecord);
+    verify(preparedStatement, timeout(10_000L)).executeBatch();
+  }
+
+  @Test
+  void addWhenConcurrent() throws InterruptedException, SQLException {
+    var logBatch = new LogBatch(dataSource, TABLE, COLUMN, 10, 60_000L, false);
+
+    var executorService = Executors.newFixedThreadPool(8);
+    for (var thread = 0; thread < 8; thread++)
+      executorService.execute(
+          () -> {
+            for (var record = 0; record < 100; record++) logBatch.add(1, logRecord);
+          });
+
+    executorService.shutdown();
+    assertThat(executorService.awaitTermination(10L, TimeUnit.SECONDS)).isTrue();
+
+    logBatch.flush();
+
+    verify(preparedStatement, times(800)).addBatch();
+    verify(preparedStatement, atLeast(80)).executeBatch();
+  }
+
+  @Test
+  void addWhenConnectionError() throws SQLException {
+    when(dataSource.getConnection()).thenThrow(new SQLException(TEST));
+
+    var logBatch = new LogBatch(dataSource, TABLE, COLUMN, 1, 60_000L, false);
+    for (var record = 0; record < 10; record++) logBatch.add(1, logRecord);
+
+    assertThat(logBatch.getFailures()).isEqualTo(10L);
+    assertThat(logBatch.getPending()).isZero();
+  }
+
+  @Test
+  void addWhenError() throws SQLException {
+    when(preparedStatement.executeBatch()).thenThrow(new SQLException(TEST));
+
+    new LogBatch(dataSource, TABLE, COLUMN, 1, 60_000L, false).add(1, logRecord);
+
+    verify(preparedStatement).addBatch();
+    verify(preparedStatement).close();
+  }
+
+  @Test
+  void addWhenLoad() throws IOException, SQLException {
+    var record = new LogRecord(Level.WARNING, "a\tb\nc\\d");
+    record.setInstant(Instant.ofEpochMilli(1_234L));
+
+    new LogBatch(dataSource, TABLE, COLUMN, 1, 60_000L, true).add(1, record);
+
+    var inputStream = ArgumentCaptor.forClass(InputStream.class);
+    verify(jdbcStatement).setLocalInfileInputStream(inputStream.capture());
+    verify(statement)
+        .execute(
+            "LOAD DATA LOCAL INFILE 'teacup' INTO TABLE `teacup_report`.`log` CHARACTER SET utf8mb4 (execution, level, message, @time) SET time = FROM_UNIXTIME(@time / 1000)");
+    verifyNoInteractions(preparedStatement);
+
+    assertThat(new String(inputStream.getValue().readAllBytes(), StandardCharsets.UTF_8))
+        .isEqualTo("1\twarning\ta\\tb\\nc\\\\d\t1234\n");
+  }
+
+  @Test
+  void addWhenLoadError() throws SQLException {
+    when(statement.execute(anyString())).thenThrow(new SQLException(TEST));
+
+    new LogBatch(dataSource, TABLE, COLUMN, 1, 60_000L, true).add(1, logRecord);
+
+    verify(connection).close();
+    verify(statement).close();
+  }
+
+  @Test
+  void format() {
+    var record = new LogRecord(Level.INFO, "{0} and {1}");
+    record.setParameters(new Object[] {"a", 1});
+
+    assertThat(LogBatch.format(record)).isEqualTo("a and 1");
+  }
+
+  @Test
+  void formatWhenHighIndex() {
+    var record = new LogRecord(Level.INFO, "v={4}");
+    record.setParameters(new Object[] {1, 2, 3, 4, 5});
+
+    assertThat(LogBatch.format(record))
+        .isEqualTo("v=5")
+        .isEqualTo(new SimpleFormatter().formatMessage(record));
+  }
+
+  @Test
+  void formatWhenInvalid() {
+    var record = new LogRecord(Level.INFO, "{0");
+    record.setParameters(new Object[] {TEST});
+
+    assertThat(LogBatch.format(record)).isEqualTo("{0");
+  }
+
+  @Test
+  void formatWhenNoParameters() {
+    assertThat(LogBatch.format(logRecord)).isSameAs(logRecord.getMessage());
+  }
+
+  @Test
+  void formatWhenPatternChanges() {
+    var first = new LogRecord(Level.INFO, "{0} first");
+    first.setParameters(new Object[] {TEST});
+
+    var second = new LogRecord(Level.INFO, "{0} second");
+    second.setParameters(new Object[] {TEST});
+
+    assertThat(LogBatch.format(first)).isEqualTo("test first");
+    assertThat(LogBatch.format(second)).isEqualTo("test second");
+    assertThat(LogBatch.format(first)).isEqualTo("test first");
+  }
+
+  @Test
+  void formatWhenResourceBundle() {
+    var record = new LogRecord(Level.INFO, TEST);
+    record.setResourceBundle(
+        new ListResourceBundle() {
+          @Override
+          protected Object[][] getContents() {
+            return new Object[][] {{TEST, "{0} translated"}};
+          }
+        });
+    record.setParameters(new Object[] {TEST});
+
+    assertThat(LogBatch.format(record)).isEqualTo("test translated");
+  }
+
+  @Test
+  void flush() throws SQLException {
+    var logBatch = new LogBatch(dataSource, TABLE, COLUMN, 2, 60_000L, false);
+    logBatch.add(1, logRecord);
+    logBatch.flush();
+    logBatch.flush();
+
+    verify(dataSource).getConnection();
+    verify(preparedStatement).addBatch();
+    verify(preparedStatement).executeBatch();
+  }
+
+  @Test
+  void flushWhenEmpty() throws SQLException {
+    new LogBatch(dataSource, TABLE, COLUMN, 2, 60_000L, false).flush();
+
+    verify(dataSource, never()).getConnection();
+  }
+
+  @Test
+  void flushWhenRecording(@TempDir Path directory) throws IOException {
+    var file = directory.resolve("recording.jfr");
+
+    try (var recording = new Recording()) {
+      recording.enable("io.githb.henryssondaniel.teacup.report.mysql.Flush").withoutThreshold();
+      recording.start();
+
+      var logBatch = new LogBatch(dataSource, TABLE, COLUMN, 2, 60_000L, true);
+      logBatch.add(1, logRecord);
+      logBatch.flush();
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    var events = RecordingFile.readAllEvents(file);
+
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getBoolean("load")).isTrue();
+    assertThat(events.get(0).getInt("rows")).isOne();
+    assertThat(events.get(0).getString("table")).isEqualTo(TABLE);
+  }
+
+  @Test
+  void getOrdinal() {
+    assertThat(LogBatch.getOrdinal(Level.ALL)).isEqualTo(4);
+    assertThat(LogBatch.getOrdinal(Level.CONFIG)).isEqualTo(1);
+    assertThat(LogBatch.getOrdinal(Level.FINE)).isEqualTo(2);
+    assertThat(LogBatch.getOrdinal(Level.FINER)).isEqualTo(3);
+    assertThat(LogBatch.getOrdinal(Level.FINEST)).isEqualTo(4);
+    assertThat(LogBatch.getOrdinal(Level.INFO)).isEqualTo(5);
+    assertThat(LogBatch.getOrdinal(Level.OFF)).isEqualTo(6);
+    assertThat(LogBatch.getOrdinal(Level.SEVERE)).isEqualTo(6);
+    assertThat(LogBatch.getOrdinal(Level.WARNING)).isEqualTo(7);
+  }
+
+  @Test
+  void getOrdinalWhenCustom() {
+    assertThat(LogBatch.getOrdinal(new CustomLevel(850))).isEqualTo(5);
+    assertThat(LogBatch.getOrdinal(new CustomLevel(600))).isEqualTo(2);
+  }
+
+  @Test
+  void getPending() {
+    var logBatch = new LogBatch(dataSource, TABLE, COLUMN, 2, 60_000L, false);
+    logBatch.add(1, logRecord);
+
+    assertThat(logBatch.getPending()).isOne();
+
+    logBatch.flush();
+
+    assertThat(logBatch.getPending()).isZero();
+  }
+
+  private static final class CustomLevel extends Level {
+    private static final long serialVersionUID = 1L;
+
+    private CustomLevel(int value) {
+      super("CUSTOM" + value, value);
+    }
+  }
+}
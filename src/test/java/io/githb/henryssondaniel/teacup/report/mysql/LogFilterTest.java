@@ -0,0 +1,93 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.junit.jupiter.api.Test;
+
+class LogFilterTest {
+  private static final String TEST = "test";
+
+  private final LogRecord fine = new LogRecord(Level.FINE, TEST);
+  private final LogRecord info = new LogRecord(Level.INFO, TEST);
+  private final Node node = mock(Node.class);
+  private final Properties properties = new Properties();
+
+  @Test
+  void admit() {
+    var logFilter = createLogFilter();
+
+    for (var i = 0; i < 100; i++) assertThat(logFilter.admit(fine, node)).isTrue();
+
+    assertThat(logFilter.summarize(node)).isNull();
+  }
+
+  @Test
+  void admitWhenBelowLevel() {
+    properties.setProperty("reporter.mysql.log.level", "INFO");
+
+    var logFilter = createLogFilter();
+
+    assertThat(logFilter.admit(fine, node)).isFalse();
+    assertThat(logFilter.admit(info, node)).isTrue();
+    assertThat(logFilter.summarize(node)).isNull();
+  }
+
+  @Test
+  void admitWhenInvalidLevel() {
+    properties.setProperty("reporter.mysql.log.level", TEST);
+    assertThat(createLogFilter().admit(new LogRecord(Level.FINEST, TEST), node)).isTrue();
+  }
+
+  @Test
+  void admitWhenRateLimited() {
+    properties.setProperty("reporter.mysql.log.rate", "1");
+    properties.setProperty("reporter.mysql.log.rate.burst", "2");
+
+    var logFilter = createLogFilter();
+
+    assertThat(logFilter.admit(info, node)).isTrue();
+    assertThat(logFilter.admit(info, node)).isTrue();
+    assertThat(logFilter.admit(info, node)).isFalse();
+    assertThat(logFilter.admit(info, null)).isTrue();
+    assertThat(logFilter.summarize(node).getMessage()).isEqualTo("1 log records suppressed");
+    assertThat(logFilter.summarize(node)).isNull();
+    assertThat(logFilter.summarize((Node) null)).isNull();
+  }
+
+  @Test
+  void admitWhenSampled() {
+    properties.setProperty("reporter.mysql.log.sample", String.valueOf(Integer.MAX_VALUE));
+
+    var logFilter = createLogFilter();
+
+    assertThat(logFilter.admit(fine, node)).isFalse();
+    assertThat(logFilter.admit(fine, null)).isFalse();
+    assertThat(logFilter.admit(info, node)).isTrue();
+
+    Map<Node, LogRecord> summaries = new HashMap<>(2);
+    logFilter.summarize(summaries::put);
+
+    assertThat(summaries).containsOnlyKeys(node, null);
+    assertThat(summaries.get(node).getLevel()).isEqualTo(Level.WARNING);
+    assertThat(summaries.get(null).getMessage()).isEqualTo("1 log records suppressed");
+  }
+
+  @Test
+  void admitWhenSampleLevel() {
+    properties.setProperty("reporter.mysql.log.sample", String.valueOf(Integer.MAX_VALUE));
+    properties.setProperty("reporter.mysql.log.sample.level", "FINER");
+
+    assertThat(createLogFilter().admit(fine, node)).isTrue();
+  }
+
+  private LogFilter createLogFilter() {
+    return new LogFilter(new Configuration(properties));
+  }
+}
@@ -0,0 +1,115 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MeteredDataSourceTest {
+  private static final String INSERT = "INSERT INTO `teacup_report`.`log`(execution) VALUES(?)";
+  private static final String LOAD =
+      "LOAD DATA LOCAL INFILE 'log' INTO TABLE `teacup_report`.`log`";
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource = mock(DataSource.class);
+  private final Metrics metrics = new Metrics(true);
+  private final MeteredDataSource meteredDataSource = new MeteredDataSource(dataSource, metrics);
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+  private final Statement statement = mock(Statement.class);
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    when(connection.createStatement()).thenReturn(statement);
+    when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+    when(dataSource.getConnection()).thenReturn(connection);
+  }
+
+  @Test
+  void createStatement() throws SQLException {
+    try (var metered = meteredDataSource.getConnection();
+        var meteredStatement = metered.createStatement()) {
+      meteredStatement.execute(LOAD);
+    }
+
+    verify(statement).execute(LOAD);
+    assertThat(metrics.getTimers()).containsKeys("connection.acquire", "sql.load.log");
+  }
+
+  @Test
+  void createStatementWhenUnwrap() throws SQLException {
+    var jdbcStatement = mock(JdbcStatement.class);
+    when(statement.unwrap(JdbcStatement.class)).thenReturn(jdbcStatement);
+
+    try (var metered = meteredDataSource.getConnection();
+        var meteredStatement = metered.createStatement()) {
+      assertThat(meteredStatement.unwrap(JdbcStatement.class)).isSameAs(jdbcStatement);
+    }
+  }
+
+  @Test
+  void getConnectionWithUser() throws SQLException {
+    when(dataSource.getConnection("user", "password")).thenReturn(connection);
+
+    try (var metered = meteredDataSource.getConnection("user", "password")) {
+      metered.prepareStatement(INSERT).executeBatch();
+    }
+
+    verify(preparedStatement).executeBatch();
+    assertThat(metrics.getTimers().get("sql.insert.log").getCount()).isOne();
+  }
+
+  @Test
+  void getType() {
+    assertThat(meteredDataSource.getType(INSERT)).isEqualTo("sql.insert.log");
+    assertThat(meteredDataSource.getType(" select 1")).isEqualTo("sql.select");
+    assertThat(meteredDataSource.getType("")).isEqualTo("sql.unknown");
+    assertThat(meteredDataSource.getType(null)).isEqualTo("sql.unknown");
+  }
+
+  @Test
+  void prepareStatement() throws SQLException {
+    try (var metered = meteredDataSource.getConnection();
+        var meteredStatement = metered.prepareStatement(INSERT)) {
+      meteredStatement.setInt(1, 1);
+      meteredStatement.execute();
+    }
+
+    verify(preparedStatement).setInt(1, 1);
+    verify(preparedStatement).execute();
+    verify(preparedStatement).close();
+    verify(connection).close();
+    assertThat(metrics.getTimers()).containsOnlyKeys("connection.acquire", "sql.insert.log");
+  }
+
+  @Test
+  void prepareStatementWhenError() throws SQLException {
+    when(preparedStatement.execute()).thenThrow(new SQLException("test"));
+
+    try (var metered = meteredDataSource.getConnection();
+        var meteredStatement = metered.prepareStatement(INSERT)) {
+      assertThatThrownBy(meteredStatement::execute).isInstanceOf(SQLException.class);
+    }
+
+    assertThat(metrics.getCounters()).containsOnly(entry("sql.insert.log.failed", 1L));
+    assertThat(metrics.getTimers()).containsKey("sql.insert.log");
+  }
+
+  @Test
+  void unwrap() throws SQLException {
+    assertThat(meteredDataSource.unwrap(MeteredDataSource.class)).isSameAs(meteredDataSource);
+    assertThat(meteredDataSource.unwrap(DataSource.class)).isSameAs(meteredDataSource);
+    assertThat(meteredDataSource.isWrapperFor(DataSource.class)).isTrue();
+  }
+}
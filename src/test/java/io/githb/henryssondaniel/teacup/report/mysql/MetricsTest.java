@@ -0,0 +1,105 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import org.junit.jupiter.api.Test;
+
+class MetricsTest {
+  private static final String TEST = "test";
+
+  @Test
+  void count() {
+    var metrics = new Metrics(true);
+    metrics.count(TEST);
+    metrics.count(TEST);
+
+    assertThat(metrics.getCounters()).containsOnly(entry(TEST, 2L));
+  }
+
+  @Test
+  void disabled() {
+    var metrics = new Metrics(false);
+    metrics.count(TEST);
+    metrics.gauge(TEST, () -> 1L);
+    metrics.record(TEST, 1L);
+    metrics.stop(TEST, metrics.start());
+
+    assertThat(metrics.isEnabled()).isFalse();
+    assertThat(metrics.start()).isZero();
+    assertThat(metrics.getCounters()).isEmpty();
+    assertThat(metrics.getGauges()).isEmpty();
+    assertThat(metrics.getTimers()).isEmpty();
+    assertThat(metrics.register()).isNull();
+  }
+
+  @Test
+  void gauge() {
+    var metrics = new Metrics(true);
+    metrics.gauge(TEST, () -> 3L);
+
+    assertThat(metrics.getGauges()).containsOnly(entry(TEST, 3L));
+  }
+
+  @Test
+  void record() {
+    var metrics = new Metrics(true);
+    for (var i = 1; i <= 100; i++) metrics.record(TEST, i * 10L);
+
+    var timerSnapshot = metrics.getTimers().get(TEST);
+
+    assertThat(timerSnapshot.getCount()).isEqualTo(100L);
+    assertThat(timerSnapshot.getMax()).isEqualTo(1_000L);
+    assertThat(timerSnapshot.getTotal()).isEqualTo(50_500L);
+    assertThat(timerSnapshot.getP50()).isBetween(500L, 1_000L);
+    assertThat(timerSnapshot.getP90()).isBetween(900L, 1_000L);
+    assertThat(timerSnapshot.getP99()).isEqualTo(1_000L);
+  }
+
+  @Test
+  void recordWhenNegative() {
+    var metrics = new Metrics(true);
+    metrics.record(TEST, -1L);
+
+    var timerSnapshot = metrics.getTimers().get(TEST);
+
+    assertThat(timerSnapshot.getCount()).isOne();
+    assertThat(timerSnapshot.getMax()).isZero();
+    assertThat(timerSnapshot.getP99()).isZero();
+  }
+
+  @Test
+  void register() throws JMException {
+    var metrics = new Metrics(true);
+    metrics.count(TEST);
+    metrics.record(TEST, 1L);
+
+    var objectName = metrics.register();
+    var mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    try {
+      assertThat(mBeanServer.getAttribute(objectName, "Counters")).isNotNull();
+      assertThat(mBeanServer.getAttribute(objectName, "Timers")).isNotNull();
+
+      mBeanServer.invoke(objectName, "reset", null, null);
+
+      assertThat(metrics.getCounters()).containsOnly(entry(TEST, 0L));
+      assertThat(metrics.getTimers().get(TEST).getCount()).isZero();
+    } finally {
+      mBeanServer.unregisterMBean(objectName);
+    }
+  }
+
+  @Test
+  void reset() {
+    var metrics = new Metrics(true);
+    metrics.gauge(TEST, () -> 1L);
+    metrics.stop(TEST, metrics.start());
+    metrics.reset();
+
+    assertThat(metrics.getGauges()).containsOnly(entry(TEST, 1L));
+    assertThat(metrics.getTimers().get(TEST).getMax()).isZero();
+  }
+}
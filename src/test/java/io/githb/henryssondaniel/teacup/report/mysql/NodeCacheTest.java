@@ -0,0 +1,94 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NodeCacheTest {
+  private static final String NAME = "name";
+  private static final String PRELOAD = "reporter.mysql.node.cache.preload";
+  private static final String SIZE = "reporter.mysql.node.cache.size";
+
+  private final Connection connection = mock(Connection.class);
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+  private final Properties properties = new Properties();
+  private final ResultSet resultSet = mock(ResultSet.class);
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+    when(resultSet.getInt(1)).thenReturn(2, 1);
+    when(resultSet.getString(2)).thenReturn(NAME + 2, NAME + 1);
+    when(resultSet.next()).thenReturn(true, true, false);
+  }
+
+  @Test
+  void put() {
+    properties.setProperty(SIZE, "2");
+
+    var nodeCache = new NodeCache(new Configuration(properties));
+    nodeCache.put(NAME + 1, 1);
+    nodeCache.put(NAME + 2, 2);
+    nodeCache.get(NAME + 1);
+    nodeCache.put(NAME + 3, 3);
+
+    assertThat(nodeCache.size()).isEqualTo(2);
+    assertThat(nodeCache.get(NAME + 1)).isOne();
+    assertThat(nodeCache.get(NAME + 2)).isNull();
+    assertThat(nodeCache.get(NAME + 3)).isEqualTo(3);
+  }
+
+  @Test
+  void putWhenDisabled() {
+    properties.setProperty(SIZE, "0");
+
+    var nodeCache = new NodeCache(new Configuration(properties));
+    nodeCache.put(NAME, 1);
+
+    assertThat(nodeCache.get(NAME)).isNull();
+  }
+
+  @Test
+  void preload() throws SQLException {
+    properties.setProperty(PRELOAD, "true");
+
+    var nodeCache = new NodeCache(new Configuration(properties));
+    nodeCache.preload(connection);
+    nodeCache.preload(connection);
+
+    assertThat(nodeCache.get(NAME + 1)).isOne();
+    assertThat(nodeCache.get(NAME + 2)).isEqualTo(2);
+    verify(connection).prepareStatement(anyString());
+    verify(preparedStatement).setFetchSize(Integer.MIN_VALUE);
+    verify(preparedStatement).setInt(1, 10_000);
+  }
+
+  @Test
+  void preloadWhenDisabled() {
+    new NodeCache(new Configuration(properties)).preload(connection);
+    verifyNoInteractions(connection);
+  }
+
+  @Test
+  void preloadWhenError() throws SQLException {
+    properties.setProperty(PRELOAD, "true");
+    when(preparedStatement.executeQuery()).thenThrow(new SQLException(NAME));
+
+    var nodeCache = new NodeCache(new Configuration(properties));
+    nodeCache.preload(connection);
+
+    assertThat(nodeCache.size()).isZero();
+  }
+}
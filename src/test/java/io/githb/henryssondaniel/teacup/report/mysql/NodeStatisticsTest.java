@@ -0,0 +1,188 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.henryssondaniel.teacup.core.testing.Status;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class NodeStatisticsTest {
+  private static final Date DAY = Date.valueOf(LocalDate.of(2026, 10, 16));
+  private static final String TEST = "test";
+  private static final long TIME = Instant.parse("2026-10-16T23:00:00Z").toEpochMilli();
+
+  private final Connection connection = mock(Connection.class);
+  private final PreparedStatement executionStatement = mock(PreparedStatement.class);
+  private final PreparedStatement lockStatement = mock(PreparedStatement.class);
+  private final NodeStatistics nodeStatistics = new NodeStatistics();
+  private final PreparedStatement sketchStatement = mock(PreparedStatement.class);
+  private final PreparedStatement unlockStatement = mock(PreparedStatement.class);
+  private final PreparedStatement upsertStatement = mock(PreparedStatement.class);
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    when(connection.prepareStatement(startsWith("INSERT INTO"))).thenReturn(upsertStatement);
+    when(connection.prepareStatement(startsWith("SELECT GET_LOCK"))).thenReturn(lockStatement);
+    when(connection.prepareStatement(startsWith("SELECT RELEASE_LOCK")))
+        .thenReturn(unlockStatement);
+    when(connection.prepareStatement(startsWith("SELECT id, node"))).thenReturn(executionStatement);
+    when(connection.prepareStatement(startsWith("SELECT node, sketch")))
+        .thenReturn(sketchStatement);
+
+    // executions 1 and 2 are runs of node 7
+    var executions = mock(ResultSet.class);
+    when(executions.next()).thenReturn(true, true, false);
+    when(executions.getInt(1)).thenReturn(1, 2);
+    when(executions.getInt(2)).thenReturn(7);
+    when(executionStatement.executeQuery()).thenReturn(executions);
+
+    var lock = mock(ResultSet.class);
+    when(lock.next()).thenReturn(true);
+    when(lock.getInt(1)).thenReturn(1);
+    when(lockStatement.executeQuery()).thenReturn(lock);
+
+    when(sketchStatement.executeQuery()).thenReturn(mock(ResultSet.class));
+    when(unlockStatement.executeQuery()).thenReturn(mock(ResultSet.class));
+  }
+
+  @Test
+  void flush() throws SQLException {
+    nodeStatistics.record(1, Status.SUCCESSFUL, TIME + 10L, TIME + 20L);
+    nodeStatistics.record(2, Status.FAILED, TIME + 10L, TIME + 40L);
+
+    assertThat(nodeStatistics.getPending()).isEqualTo(2);
+
+    nodeStatistics.flush(connection);
+
+    assertThat(nodeStatistics.getPending()).isZero();
+
+    verify(connection)
+        .prepareStatement("SELECT id, node FROM `teacup_report`.`execution` WHERE id IN (?, ?)");
+    verify(lockStatement).setString(1, "teacup_report.statistics");
+    verify(sketchStatement).setDate(1, DAY);
+    verify(sketchStatement).setInt(2, 7);
+    verify(upsertStatement).setInt(1, 7);
+    verify(upsertStatement).setDate(2, DAY);
+    verify(upsertStatement).setInt(3, 2);
+    verify(upsertStatement).setInt(4, 1);
+    verify(upsertStatement).setLong(5, 40L);
+    verify(upsertStatement).setLong(7, 10L);
+    verify(upsertStatement).setLong(9, 30L);
+    verify(upsertStatement).addBatch();
+    verify(upsertStatement).executeBatch();
+    verify(unlockStatement).executeQuery();
+  }
+
+  @Test
+  void flushWhenDays() throws SQLException {
+    nodeStatistics.record(1, Status.SUCCESSFUL, TIME + 10L, TIME + 20L);
+    nodeStatistics.record(2, Status.SUCCESSFUL, TIME + 3_600_000L, TIME + 3_600_010L);
+    nodeStatistics.flush(connection);
+
+    verify(upsertStatement).setDate(2, DAY);
+    verify(upsertStatement).setDate(2, Date.valueOf(LocalDate.of(2026, 10, 17)));
+    verify(upsertStatement, times(2)).setInt(3, 1);
+    verify(upsertStatement, times(2)).executeBatch();
+    verify(unlockStatement).executeQuery();
+  }
+
+  @Test
+  void flushWhenExisting() throws SQLException {
+    var existing = new DurationSketch();
+    existing.add(10L);
+    existing.add(10L);
+
+    var sketches = mock(ResultSet.class);
+    when(sketches.next()).thenReturn(true, true, false);
+    when(sketches.getInt(1)).thenReturn(7, 8);
+    when(sketches.getBytes(2)).thenReturn(existing.toBytes());
+    when(sketchStatement.executeQuery()).thenReturn(sketches);
+
+    nodeStatistics.record(1, Status.SUCCESSFUL, TIME + 10L, TIME + 1_010L);
+    nodeStatistics.flush(connection);
+
+    var captor = ArgumentCaptor.forClass(byte[].class);
+    verify(upsertStatement).setBytes(eq(6), captor.capture());
+    verify(upsertStatement).setLong(7, 10L);
+
+    assertThat(DurationSketch.fromBytes(captor.getValue()).getCount()).isEqualTo(3L);
+  }
+
+  @Test
+  void flushWhenLocked() throws SQLException {
+    var lock = mock(ResultSet.class);
+    when(lock.next()).thenReturn(true);
+    when(lockStatement.executeQuery()).thenReturn(lock);
+
+    nodeStatistics.record(1, Status.SUCCESSFUL, TIME + 10L, TIME + 20L);
+    nodeStatistics.flush(connection);
+
+    assertThat(nodeStatistics.getPending()).isOne();
+    verify(upsertStatement, never()).executeBatch();
+    verify(unlockStatement, never()).executeQuery();
+
+    var executions = mock(ResultSet.class);
+    when(executions.next()).thenReturn(true, false);
+    when(executions.getInt(1)).thenReturn(1);
+    when(executions.getInt(2)).thenReturn(7);
+    when(executionStatement.executeQuery()).thenReturn(executions);
+
+    when(lock.getInt(1)).thenReturn(1);
+    nodeStatistics.flush(connection);
+
+    assertThat(nodeStatistics.getPending()).isZero();
+    verify(upsertStatement).executeBatch();
+  }
+
+  @Test
+  void flushWhenNoExecution() throws SQLException {
+    nodeStatistics.record(3, Status.SUCCESSFUL, TIME + 10L, TIME + 20L);
+    nodeStatistics.flush(connection);
+
+    verify(lockStatement, never()).executeQuery();
+    verify(upsertStatement, never()).executeBatch();
+  }
+
+  @Test
+  void flushWhenNothing() throws SQLException {
+    nodeStatistics.flush(connection);
+    verify(connection, never()).prepareStatement(any());
+  }
+
+  @Test
+  void flushWhenNotStarted() throws SQLException {
+    nodeStatistics.record(1, Status.ABORTED, 0L, TIME + 20L);
+    nodeStatistics.flush(connection);
+
+    verify(upsertStatement).setInt(3, 1);
+    verify(upsertStatement).setInt(4, 1);
+    verify(upsertStatement).setLong(5, 0L);
+    verify(upsertStatement).setLong(9, 0L);
+  }
+
+  @Test
+  void flushWhenUpsertError() throws SQLException {
+    when(upsertStatement.executeBatch()).thenThrow(new SQLException(TEST));
+
+    nodeStatistics.record(1, Status.SUCCESSFUL, TIME + 10L, TIME + 20L);
+    nodeStatistics.flush(connection);
+
+    verify(unlockStatement).executeQuery();
+  }
+}
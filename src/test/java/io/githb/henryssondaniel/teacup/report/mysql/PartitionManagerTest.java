@@ -0,0 +1,225 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Properties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PartitionManagerTest {
+  private static final String ALTER_LOG = "ALTER TABLE `teacup_report`.`log` ";
+  private static final String ALTER_SESSION_LOG = "ALTER TABLE `teacup_report`.`session_log` ";
+  private static final String MAXVALUE = "MAXVALUE";
+  private static final Instant NOW = Instant.parse("2026-10-16T12:00:00Z");
+  private static final String PMAX = "pmax";
+  private static final String TEST = "test";
+
+  private final Connection connection = mock(Connection.class);
+  private final PreparedStatement executionStatement = mock(PreparedStatement.class);
+  private final PreparedStatement lockStatement = mock(PreparedStatement.class);
+  private final PreparedStatement partitionStatement = mock(PreparedStatement.class);
+  private final Properties properties = new Properties();
+  private final PreparedStatement sequenceStatement = mock(PreparedStatement.class);
+  private final PreparedStatement sessionStatement = mock(PreparedStatement.class);
+  private final Statement statement = mock(Statement.class);
+  private final PreparedStatement unlockStatement = mock(PreparedStatement.class);
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    when(connection.createStatement()).thenReturn(statement);
+    when(connection.prepareStatement(startsWith("SELECT GET_LOCK"))).thenReturn(lockStatement);
+    when(connection.prepareStatement(startsWith("SELECT MIN(id) FROM `teacup_report`.`execution`")))
+        .thenReturn(executionStatement);
+    when(connection.prepareStatement(startsWith("SELECT MIN(id) FROM `teacup_report`.`session")))
+        .thenReturn(sessionStatement);
+    when(connection.prepareStatement(startsWith("SELECT PARTITION_NAME")))
+        .thenReturn(partitionStatement);
+    when(connection.prepareStatement(startsWith("SELECT RELEASE_LOCK")))
+        .thenReturn(unlockStatement);
+    when(connection.prepareStatement(startsWith("SELECT next_value")))
+        .thenReturn(sequenceStatement);
+
+    when(lockStatement.executeQuery()).thenAnswer(invocation -> createResultSet(1L));
+    when(sequenceStatement.executeQuery()).thenAnswer(invocation -> createResultSet(15L));
+    when(unlockStatement.executeQuery()).thenReturn(mock(ResultSet.class));
+
+    properties.setProperty("reporter.mysql.log.partition.ahead", "2");
+  }
+
+  @Test
+  void maintainWhenError() throws SQLException {
+    properties.setProperty("reporter.mysql.log.partition", "time");
+    when(lockStatement.executeQuery()).thenThrow(new SQLException(TEST));
+
+    createPartitionManager().maintain(connection, NOW);
+
+    verify(connection, never()).createStatement();
+  }
+
+  @Test
+  void maintainWhenExpired() throws SQLException {
+    properties.setProperty("reporter.mysql.log.partition", "time");
+    properties.setProperty("reporter.mysql.log.retention.days", "7");
+    setupPartitions(
+        "p20261001",
+        "1790899200",
+        "p20261016",
+        "1792195200",
+        "p20261017",
+        "1792281600",
+        PMAX,
+        MAXVALUE);
+
+    createPartitionManager().maintain(connection, NOW);
+
+    verify(statement).execute(ALTER_LOG + "DROP PARTITION `p20261001`");
+    verify(statement).execute(ALTER_SESSION_LOG + "DROP PARTITION `p20261001`");
+    verify(statement, never()).execute(startsWith(ALTER_LOG + "REORGANIZE"));
+    verify(unlockStatement).executeQuery();
+  }
+
+  @Test
+  void maintainWhenLocked() throws SQLException {
+    properties.setProperty("reporter.mysql.log.partition", "time");
+    when(lockStatement.executeQuery()).thenAnswer(invocation -> createResultSet(0L));
+
+    createPartitionManager().maintain(connection, NOW);
+
+    verify(connection, never()).prepareStatement(startsWith("SELECT PARTITION_NAME"));
+    verify(unlockStatement, never()).executeQuery();
+  }
+
+  @Test
+  void maintainWhenNone() {
+    createPartitionManager().maintain(connection, NOW);
+    verifyNoInteractions(connection);
+  }
+
+  @Test
+  void maintainWhenNotPartitioned() throws SQLException {
+    properties.setProperty("reporter.mysql.log.partition", "time");
+    setupPartitions();
+
+    createPartitionManager().maintain(connection, NOW);
+
+    verify(connection, never()).createStatement();
+    verify(unlockStatement).executeQuery();
+  }
+
+  @Test
+  void maintainWhenSession() throws SQLException {
+    properties.setProperty("reporter.mysql.log.partition", "session");
+    properties.setProperty("reporter.mysql.log.partition.size", "10");
+    setupPartitions(PMAX, MAXVALUE);
+
+    createPartitionManager().maintain(connection, NOW);
+
+    verify(sequenceStatement).setString(1, IdAllocator.EXECUTION);
+    verify(sequenceStatement).setString(1, IdAllocator.SESSION_EXECUTION);
+    verify(statement)
+        .execute(
+            ALTER_LOG
+                + "REORGANIZE PARTITION `pmax` INTO (PARTITION `p20` VALUES LESS THAN (20), "
+                + "PARTITION `p30` VALUES LESS THAN (30), PARTITION `pmax` VALUES LESS THAN MAXVALUE)");
+  }
+
+  @Test
+  void maintainWhenSessionExpired() throws SQLException {
+    properties.setProperty("reporter.mysql.log.partition", "session");
+    properties.setProperty("reporter.mysql.log.partition.size", "10");
+    properties.setProperty("reporter.mysql.log.retention.days", "1");
+    setupPartitions("p10", "10", "p20", "20", PMAX, MAXVALUE);
+
+    when(executionStatement.executeQuery()).thenAnswer(invocation -> createResultSet(25L));
+    when(sessionStatement.executeQuery()).thenAnswer(invocation -> createResultSet(12L));
+
+    createPartitionManager().maintain(connection, NOW);
+
+    verify(executionStatement).setLong(1, 12L);
+    verify(statement).execute(ALTER_LOG + "DROP PARTITION `p10`, `p20`");
+    verify(statement)
+        .execute(
+            ALTER_LOG
+                + "REORGANIZE PARTITION `pmax` INTO (PARTITION `p30` VALUES LESS THAN (30), "
+                + "PARTITION `pmax` VALUES LESS THAN MAXVALUE)");
+    verify(statement).execute(ALTER_SESSION_LOG + "DROP PARTITION `p10`");
+  }
+
+  @Test
+  void maintainWhenSessionExpiredWithoutSessions() throws SQLException {
+    properties.setProperty("reporter.mysql.log.partition", "session");
+    properties.setProperty("reporter.mysql.log.partition.size", "10");
+    properties.setProperty("reporter.mysql.log.retention.days", "1");
+    setupPartitions("p10", "10", "p20", "20", PMAX, MAXVALUE);
+
+    when(sessionStatement.executeQuery()).thenAnswer(invocation -> createResultSet(0L));
+
+    createPartitionManager().maintain(connection, NOW);
+
+    verify(executionStatement, never()).executeQuery();
+    verify(statement).execute(ALTER_LOG + "DROP PARTITION `p10`");
+    verify(statement).execute(ALTER_SESSION_LOG + "DROP PARTITION `p10`");
+  }
+
+  @Test
+  void maintainWhenTime() throws SQLException {
+    properties.setProperty("reporter.mysql.log.partition", "time");
+    setupPartitions(PMAX, MAXVALUE);
+
+    createPartitionManager().maintain(connection, NOW);
+
+    verify(statement)
+        .execute(
+            ALTER_SESSION_LOG
+                + "REORGANIZE PARTITION `pmax` INTO ("
+                + "PARTITION `p20261016` VALUES LESS THAN (1792195200), "
+                + "PARTITION `p20261017` VALUES LESS THAN (1792281600), "
+                + "PARTITION `pmax` VALUES LESS THAN MAXVALUE)");
+    verify(statement, never()).execute(startsWith(ALTER_LOG + "DROP"));
+    verify(connection, never()).prepareStatement(startsWith("SELECT next_value"));
+  }
+
+  private static ResultSet createResultSet(long value) throws SQLException {
+    var resultSet = mock(ResultSet.class);
+    when(resultSet.getInt(1)).thenReturn((int) value);
+    when(resultSet.getLong(1)).thenReturn(value);
+    when(resultSet.next()).thenReturn(true);
+
+    return resultSet;
+  }
+
+  private static ResultSet createPartitions(String... partitions) throws SQLException {
+    var resultSet = mock(ResultSet.class);
+    var index = new int[] {-2};
+
+    when(resultSet.next())
+        .thenAnswer(
+            invocation -> {
+              index[0] += 2;
+              return index[0] < partitions.length;
+            });
+    when(resultSet.getString(1)).thenAnswer(invocation -> partitions[index[0]]);
+    when(resultSet.getString(2)).thenAnswer(invocation -> partitions[index[0] + 1]);
+
+    return resultSet;
+  }
+
+  private PartitionManager createPartitionManager() {
+    return new PartitionManager(new Configuration(properties));
+  }
+
+  private void setupPartitions(String... partitions) throws SQLException {
+    when(partitionStatement.executeQuery()).thenAnswer(invocation -> createPartitions(partitions));
+  }
+}
@@ -0,0 +1,48 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class PartitioningTest {
+  private static final String EXECUTION = "execution";
+
+  @Test
+  void getColumn() {
+    assertThat(Partitioning.SESSION.getColumn(EXECUTION)).isEqualTo(EXECUTION);
+    assertThat(Partitioning.TIME.getColumn(EXECUTION)).isEqualTo("time");
+  }
+
+  @Test
+  void getPartitionBy() {
+    assertThat(Partitioning.SESSION.getPartitionBy(EXECUTION))
+        .isEqualTo(
+            " PARTITION BY RANGE (`execution`) (PARTITION `pmax` VALUES LESS THAN MAXVALUE)");
+    assertThat(Partitioning.TIME.getPartitionBy(EXECUTION))
+        .isEqualTo(
+            " PARTITION BY RANGE (UNIX_TIMESTAMP(`time`)) (PARTITION `pmax` VALUES LESS THAN MAXVALUE)");
+  }
+
+  @Test
+  void getTimeDefinition() {
+    assertThat(Partitioning.NONE.getTimeDefinition()).isEqualTo("`time` TIMESTAMP(3) NOT NULL,");
+    assertThat(Partitioning.SESSION.getTimeDefinition()).isEqualTo("`time` TIMESTAMP(3) NOT NULL,");
+    assertThat(Partitioning.TIME.getTimeDefinition()).isEqualTo("`time` TIMESTAMP NOT NULL,");
+  }
+
+  @Test
+  void parse() {
+    assertThat(Partitioning.parse(" time ")).isSameAs(Partitioning.TIME);
+    assertThat(Partitioning.parse("Session")).isSameAs(Partitioning.SESSION);
+  }
+
+  @Test
+  void parseWhenInvalid() {
+    assertThat(Partitioning.parse("test")).isSameAs(Partitioning.NONE);
+  }
+
+  @Test
+  void parseWhenNull() {
+    assertThat(Partitioning.parse(null)).isSameAs(Partitioning.NONE);
+  }
+}
@@ -0,0 +1,216 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RegistrationTest {
+  private static final String CHILD = "child";
+  private static final String PARENT = "parent";
+
+  private final Node child = mock(Node.class);
+  private final PreparedStatement closureStatement = mock(PreparedStatement.class);
+  private final Connection connection = mock(Connection.class);
+  private final ResultSet executions = mock(ResultSet.class);
+  private final IdAllocator idAllocator = new IdAllocator(new Configuration(new Properties()));
+  private final NodeCache nodeCache = new NodeCache(new Configuration(new Properties()));
+  private final ResultSet nodes = mock(ResultSet.class);
+  private final Node parent = mock(Node.class);
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+  private final PreparedStatement sequenceStatement = mock(PreparedStatement.class);
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    when(child.getName()).thenReturn(CHILD);
+    when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+    when(connection.prepareStatement(startsWith("INSERT INTO `teacup_report`.`execution_closure`")))
+        .thenReturn(closureStatement);
+    when(connection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS)))
+        .thenReturn(sequenceStatement);
+    when(executions.getInt(1)).thenReturn(10);
+    when(executions.next()).thenReturn(true);
+    when(nodes.getInt(1)).thenReturn(1, 2);
+    when(nodes.getString(2)).thenReturn(PARENT, CHILD);
+    when(nodes.next()).thenReturn(true, true, false);
+    when(parent.getName()).thenReturn(PARENT);
+    when(preparedStatement.executeQuery()).thenReturn(nodes);
+    when(sequenceStatement.getGeneratedKeys()).thenReturn(executions);
+
+    doReturn(Collections.singletonList(child)).when(parent).getNodes();
+  }
+
+  @Test
+  void register() throws SQLException {
+    assertThat(
+            Registration.register(
+                connection, 5, Collections.singletonList(parent), nodeCache, idAllocator, true))
+        .containsOnly(Map.entry(parent, 10), Map.entry(child, 11));
+
+    verify(connection).prepareStatement(startsWith("SELECT id, name"));
+    verify(connection, never()).prepareStatement(startsWith("INSERT IGNORE"));
+    verify(preparedStatement).executeQuery();
+    verify(preparedStatement, times(2)).executeBatch();
+    verify(preparedStatement, times(2)).setInt(1, 10);
+    verify(preparedStatement, times(2)).setInt(1, 11);
+    verify(preparedStatement).setInt(2, 1);
+    verify(preparedStatement).setInt(2, 2);
+    verify(preparedStatement, times(2)).setInt(3, 5);
+    verify(preparedStatement).setInt(4, 10);
+    verify(preparedStatement).setNull(4, Types.INTEGER);
+    verify(sequenceStatement).setString(2, IdAllocator.EXECUTION);
+    assertThat(nodeCache.get(CHILD)).isEqualTo(2);
+  }
+
+  @Test
+  void registerWhenClosure() throws SQLException {
+    var grandchild = mock(Node.class);
+    when(grandchild.getName()).thenReturn("grandchild");
+    doReturn(Collections.singletonList(grandchild)).when(child).getNodes();
+
+    nodeCache.put(CHILD, 2);
+    nodeCache.put("grandchild", 3);
+    nodeCache.put(PARENT, 1);
+
+    Registration.register(
+        connection, 5, Collections.singletonList(parent), nodeCache, idAllocator, false);
+
+    verify(closureStatement, times(6)).addBatch();
+    verify(closureStatement).executeBatch();
+    verify(closureStatement, times(3)).setInt(1, 10);
+    verify(closureStatement, times(2)).setInt(1, 11);
+    verify(closureStatement).setInt(1, 12);
+    verify(closureStatement, times(3)).setInt(2, 12);
+    verify(closureStatement, times(3)).setInt(3, 0);
+    verify(closureStatement, times(2)).setInt(3, 1);
+    verify(closureStatement).setInt(3, 2);
+    verify(preparedStatement).setInt(4, 11);
+  }
+
+  @Test
+  void registerWhenCacheDisabled() throws SQLException {
+    var properties = new Properties();
+    properties.setProperty("reporter.mysql.node.cache.size", "0");
+
+    assertThat(
+            Registration.register(
+                connection,
+                5,
+                Collections.singletonList(parent),
+                new NodeCache(new Configuration(properties)),
+                idAllocator,
+                true))
+        .containsOnly(Map.entry(parent, 10), Map.entry(child, 11));
+
+    verify(connection).prepareStatement(startsWith("SELECT id, name"));
+    verify(connection, never()).prepareStatement(startsWith("SELECT id FROM"));
+    verify(preparedStatement).executeQuery();
+  }
+
+  @Test
+  void registerWhenCached() throws SQLException {
+    nodeCache.put(CHILD, 2);
+    nodeCache.put(PARENT, 1);
+
+    assertThat(
+            Registration.register(
+                connection, 5, Collections.singletonList(parent), nodeCache, idAllocator, true))
+        .containsOnly(Map.entry(parent, 10), Map.entry(child, 11));
+
+    verify(connection, never()).prepareStatement(startsWith("SELECT id, name"));
+    verify(connection, never()).prepareStatement(startsWith("INSERT INTO `teacup_report`.`node`"));
+    verify(preparedStatement, never()).executeQuery();
+    verify(preparedStatement, times(2)).executeBatch();
+  }
+
+  @Test
+  void registerWhenDeferred() throws SQLException {
+    assertThat(
+            Registration.register(
+                connection, 5, Collections.singletonList(parent), nodeCache, idAllocator, false))
+        .containsOnly(Map.entry(parent, 10), Map.entry(child, 11));
+
+    verify(connection, never())
+        .prepareStatement(startsWith("INSERT INTO `teacup_report`.`result`"));
+    verify(preparedStatement).executeBatch();
+  }
+
+  @Test
+  void registerWhenNodesMissing() throws SQLException {
+    when(nodes.next()).thenReturn(false, true, true, false);
+
+    assertThat(
+            Registration.register(
+                connection, 5, Collections.singletonList(parent), nodeCache, idAllocator, true))
+        .containsOnly(Map.entry(parent, 10), Map.entry(child, 11));
+
+    verify(connection)
+        .prepareStatement("INSERT IGNORE INTO `teacup_report`.`node`(name) VALUES(?)");
+    verify(connection, times(2)).prepareStatement(startsWith("SELECT id, name"));
+    verify(preparedStatement, times(3)).setString(1, PARENT);
+    verify(preparedStatement, times(2)).setString(2, CHILD);
+    verify(preparedStatement).setString(1, CHILD);
+    verify(preparedStatement, times(2)).executeQuery();
+    verify(preparedStatement, times(3)).executeBatch();
+  }
+
+  @Test
+  void registerWhenRecording(@TempDir Path directory) throws IOException, SQLException {
+    var file = directory.resolve("recording.jfr");
+
+    try (var recording = new Recording()) {
+      recording
+          .enable("io.githb.henryssondaniel.teacup.report.mysql.Registration")
+          .withoutThreshold();
+      recording.enable("io.githb.henryssondaniel.teacup.report.mysql.Statement").withoutThreshold();
+      recording.start();
+
+      Registration.register(
+          connection, 5, Collections.singletonList(parent), nodeCache, idAllocator, false);
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    var events = RecordingFile.readAllEvents(file);
+
+    assertThat(events)
+        .extracting(event -> event.getEventType().getLabel())
+        .containsExactlyInAnyOrder("Registration", "Statement", "Statement");
+
+    var event =
+        events.stream()
+            .filter(recordedEvent -> recordedEvent.hasField("session"))
+            .findFirst()
+            .orElseThrow();
+
+    assertThat(event.getInt("executions")).isEqualTo(2);
+    assertThat(event.getInt("missing")).isEqualTo(2);
+    assertThat(event.getInt("nodes")).isEqualTo(2);
+    assertThat(event.getInt("session")).isEqualTo(5);
+  }
+}
@@ -0,0 +1,15 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.logging.Level;
+import org.junit.jupiter.api.Test;
+
+class ReportLogTest {
+  @Test
+  void toStringWhenValues() {
+    assertThat(new ReportLog(1L, Level.INFO, "message", Instant.EPOCH))
+        .hasToString("1970-01-01T00:00:00Z INFO message");
+  }
+}
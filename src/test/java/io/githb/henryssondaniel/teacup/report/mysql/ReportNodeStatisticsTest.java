@@ -0,0 +1,39 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ReportNodeStatisticsTest {
+  private static final String NAME = "name";
+
+  @Test
+  void getFailureRate() {
+    assertThat(
+            new ReportNodeStatistics(1L, NAME, 4L, 1L, 0L, new DurationSketch()).getFailureRate())
+        .isEqualTo(0.25);
+  }
+
+  @Test
+  void getFailureRateWhenNoRuns() {
+    assertThat(
+            new ReportNodeStatistics(1L, NAME, 0L, 0L, 0L, new DurationSketch()).getFailureRate())
+        .isZero();
+  }
+
+  @Test
+  void getMeanWhenNotTimed() {
+    assertThat(new ReportNodeStatistics(1L, NAME, 1L, 0L, 0L, new DurationSketch()).getMean())
+        .isZero();
+  }
+
+  @Test
+  void toStringWhenValues() {
+    var sketch = new DurationSketch();
+    sketch.add(10L);
+    sketch.add(30L);
+
+    assertThat(new ReportNodeStatistics(1L, NAME, 2L, 1L, 40L, sketch))
+        .hasToString("name: runs=2, failures=1, mean=20, p50=10, p90=30, p99=30");
+  }
+}
@@ -0,0 +1,328 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.henryssondaniel.teacup.core.testing.Status;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Level;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReportQueryTest {
+  private static final String LOG =
+      "SELECT id, level, message, time FROM `teacup_report`.`log` WHERE execution = ?";
+  private static final String MESSAGE = "message";
+  private static final String TEST = "test";
+  private static final Instant TIME = Instant.parse("2026-10-16T12:00:00Z");
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource = mock(DataSource.class);
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+  private final Properties properties = new Properties();
+  private final ResultSet resultSet = mock(ResultSet.class);
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+    when(connection.prepareStatement(anyString(), anyInt(), anyInt()))
+        .thenReturn(preparedStatement);
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true, false);
+  }
+
+  @Test
+  void getChildren() throws SQLException {
+    when(resultSet.getLong(1)).thenReturn(3L);
+    when(resultSet.getString(2)).thenReturn(TEST);
+    when(resultSet.getString(5)).thenReturn("successful");
+
+    var children = createReportQuery().getChildren(2L);
+
+    assertThat(children).hasSize(1);
+    assertThat(children.get(0).getExecution()).isEqualTo(3L);
+    assertThat(children.get(0).getName()).isEqualTo(TEST);
+    assertThat(children.get(0).getStatus()).isSameAs(Status.SUCCESSFUL);
+
+    verify(connection).prepareStatement(endsWith("WHERE e.parent = ? ORDER BY e.id"));
+    verify(preparedStatement).setLong(1, 2L);
+  }
+
+  @Test
+  void getLogs() throws SQLException {
+    mockLog();
+
+    var logs = createReportQuery().getLogs(1L, null, 10);
+
+    assertThat(logs).hasSize(1);
+    assertThat(logs.get(0).getId()).isEqualTo(2L);
+    assertThat(logs.get(0).getLevel()).isEqualTo(Level.INFO);
+    assertThat(logs.get(0).getMessage()).isEqualTo(MESSAGE);
+    assertThat(logs.get(0).getTime()).isEqualTo(TIME);
+
+    verify(connection).prepareStatement(LOG + " ORDER BY time, id LIMIT ?");
+    verify(preparedStatement).setLong(1, 1L);
+    verify(preparedStatement).setInt(2, 10);
+  }
+
+  @Test
+  void getLogsWhenAfter() throws SQLException {
+    mockLog();
+
+    createReportQuery().getLogs(1L, new ReportLog(2L, Level.INFO, MESSAGE, TIME), 10);
+
+    verify(connection)
+        .prepareStatement(LOG + " AND (time > ? OR time = ? AND id > ?) ORDER BY time, id LIMIT ?");
+    verify(preparedStatement).setTimestamp(2, Timestamp.from(TIME));
+    verify(preparedStatement).setTimestamp(3, Timestamp.from(TIME));
+    verify(preparedStatement).setLong(4, 2L);
+    verify(preparedStatement).setInt(5, 10);
+  }
+
+  @Test
+  void getLogsWhenError() throws SQLException {
+    when(preparedStatement.executeQuery()).thenThrow(new SQLException(TEST));
+
+    var reportQuery = createReportQuery();
+
+    assertThatExceptionOfType(SQLException.class)
+        .isThrownBy(() -> reportQuery.getLogs(1L, null, 10))
+        .withMessage(TEST);
+
+    verify(connection).close();
+  }
+
+  @Test
+  void getNodeStatistics() throws SQLException {
+    var first = new DurationSketch();
+    first.add(10L);
+
+    var second = new DurationSketch();
+    second.add(30L);
+
+    when(resultSet.next()).thenReturn(true, true, true, false);
+    when(resultSet.getLong(1)).thenReturn(1L, 1L, 2L);
+    when(resultSet.getString(2)).thenReturn(TEST, MESSAGE);
+    when(resultSet.getLong(3)).thenReturn(1L);
+    when(resultSet.getLong(4)).thenReturn(1L, 0L, 0L);
+    when(resultSet.getLong(5)).thenReturn(10L, 30L, 5L);
+    when(resultSet.getBytes(6)).thenReturn(first.toBytes(), second.toBytes(), null);
+
+    var statistics =
+        createReportQuery()
+            .getNodeStatistics(LocalDate.of(2026, 9, 16), LocalDate.of(2026, 10, 16));
+
+    assertThat(statistics).hasSize(2);
+
+    var node = statistics.get(0);
+    assertThat(node.getFailures()).isOne();
+    assertThat(node.getMean()).isEqualTo(20L);
+    assertThat(node.getName()).isEqualTo(TEST);
+    assertThat(node.getNode()).isOne();
+    assertThat(node.getP50()).isEqualTo(10L);
+    assertThat(node.getP90()).isEqualTo(30L);
+    assertThat(node.getP99()).isEqualTo(30L);
+    assertThat(node.getRuns()).isEqualTo(2L);
+
+    assertThat(statistics.get(1).getName()).isEqualTo(MESSAGE);
+    assertThat(statistics.get(1).getP50()).isZero();
+
+    verify(connection)
+        .prepareStatement(
+            "SELECT s.node, n.name, s.runs, s.failures, s.duration, s.sketch "
+                + "FROM `teacup_report`.`node_statistics` s "
+                + "JOIN `teacup_report`.`node` n ON n.id = s.node "
+                + "WHERE s.day BETWEEN ? AND ? ORDER BY s.node");
+    verify(preparedStatement).setDate(1, Date.valueOf(LocalDate.of(2026, 9, 16)));
+    verify(preparedStatement).setDate(2, Date.valueOf(LocalDate.of(2026, 10, 16)));
+  }
+
+  @Test
+  void getNodeStatisticsWhenEmpty() throws SQLException {
+    when(resultSet.next()).thenReturn(false);
+
+    assertThat(
+            createReportQuery()
+                .getNodeStatistics(LocalDate.of(2026, 9, 16), LocalDate.of(2026, 10, 16)))
+        .isEmpty();
+  }
+
+  @Test
+  void getResults() throws SQLException {
+    when(resultSet.getLong(1)).thenReturn(3L);
+    when(resultSet.getObject(6)).thenReturn(null);
+    when(resultSet.getString(2)).thenReturn(TEST);
+    when(resultSet.getString(5)).thenReturn("failed");
+    when(resultSet.getString(8)).thenReturn(MESSAGE);
+    when(resultSet.getTimestamp(3)).thenReturn(Timestamp.from(TIME));
+
+    var results = createReportQuery().getResults(1L, 2L, 10);
+
+    assertThat(results).hasSize(1);
+
+    var result = results.get(0);
+    assertThat(result.getError()).isEqualTo(MESSAGE);
+    assertThat(result.getExecution()).isEqualTo(3L);
+    assertThat(result.getFinished()).isNull();
+    assertThat(result.getName()).isEqualTo(TEST);
+    assertThat(result.getReason()).isNull();
+    assertThat(result.getStarted()).isEqualTo(TIME);
+    assertThat(result.getStatus()).isSameAs(Status.FAILED);
+    assertThat(result.isSkipped()).isFalse();
+
+    verify(connection)
+        .prepareStatement(
+            "SELECT e.id, n.name, r.started, r.finished, r.status, s.id, rs.reason, er.message "
+                + "FROM `teacup_report`.`execution` e "
+                + "JOIN `teacup_report`.`node` n ON n.id = e.node "
+                + "LEFT JOIN `teacup_report`.`result` r ON r.execution = e.id "
+                + "LEFT JOIN `teacup_report`.`error` er ON er.result = r.id "
+                + "LEFT JOIN `teacup_report`.`skipped` s ON s.execution = e.id "
+                + "LEFT JOIN `teacup_report`.`reason` rs ON rs.skipped = s.id "
+                + "WHERE e.session_execution = ? AND e.id > ? ORDER BY e.id LIMIT ?");
+    verify(preparedStatement).setLong(1, 1L);
+    verify(preparedStatement).setLong(2, 2L);
+    verify(preparedStatement).setInt(3, 10);
+  }
+
+  @Test
+  void getResultsWhenSkipped() throws SQLException {
+    when(resultSet.getObject(6)).thenReturn(4L);
+    when(resultSet.getString(7)).thenReturn(TEST);
+
+    var result = createReportQuery().getResults(1L, 0L, 10).get(0);
+
+    assertThat(result.getReason()).isEqualTo(TEST);
+    assertThat(result.getStatus()).isNull();
+    assertThat(result.isSkipped()).isTrue();
+  }
+
+  @Test
+  void getSessions() throws SQLException {
+    when(resultSet.getLong(1)).thenReturn(5L);
+    when(resultSet.getTimestamp(2)).thenReturn(Timestamp.from(TIME));
+
+    var sessions = createReportQuery().getSessions(Long.MAX_VALUE, 10);
+
+    assertThat(sessions).hasSize(1);
+    assertThat(sessions.get(0).getId()).isEqualTo(5L);
+    assertThat(sessions.get(0).getInitialized()).isEqualTo(TIME);
+    assertThat(sessions.get(0).getTerminated()).isNull();
+
+    verify(connection)
+        .prepareStatement(
+            "SELECT id, initialized, terminated_time FROM `teacup_report`.`session_execution` "
+                + "WHERE id < ? ORDER BY id DESC LIMIT ?");
+    verify(preparedStatement).setLong(1, Long.MAX_VALUE);
+    verify(preparedStatement).setInt(2, 10);
+  }
+
+  @Test
+  void getSubtreeSummary() throws SQLException {
+    when(resultSet.getLong(1)).thenReturn(6L);
+    when(resultSet.getLong(2)).thenReturn(1L);
+    when(resultSet.getLong(3)).thenReturn(2L);
+    when(resultSet.getLong(4)).thenReturn(3L);
+    when(resultSet.getLong(5)).thenReturn(4L);
+    when(resultSet.getLong(6)).thenReturn(5L);
+
+    var summary = createReportQuery().getSubtreeSummary(7L);
+
+    assertThat(summary.getAborted()).isEqualTo(1L);
+    assertThat(summary.getDuration()).isEqualTo(2L);
+    assertThat(summary.getFailed()).isEqualTo(3L);
+    assertThat(summary.getSession()).isEqualTo(6L);
+    assertThat(summary.getSkipped()).isEqualTo(4L);
+    assertThat(summary.getSuccessful()).isEqualTo(5L);
+
+    verify(connection).prepareStatement(contains("ON c.ancestor = a.id AND c.depth > 0"));
+    verify(preparedStatement).setLong(1, 7L);
+  }
+
+  @Test
+  void getSubtreeSummaryWhenMissing() throws SQLException {
+    when(resultSet.next()).thenReturn(false);
+    assertThat(createReportQuery().getSubtreeSummary(7L)).isNull();
+  }
+
+  @Test
+  void getSummary() throws SQLException {
+    when(resultSet.getLong(1)).thenReturn(1L);
+    when(resultSet.getLong(2)).thenReturn(2L);
+    when(resultSet.getLong(3)).thenReturn(3L);
+    when(resultSet.getLong(4)).thenReturn(4L);
+    when(resultSet.getLong(5)).thenReturn(5L);
+
+    var summary = createReportQuery().getSummary(6L);
+
+    assertThat(summary.getAborted()).isEqualTo(1L);
+    assertThat(summary.getDuration()).isEqualTo(2L);
+    assertThat(summary.getFailed()).isEqualTo(3L);
+    assertThat(summary.getSession()).isEqualTo(6L);
+    assertThat(summary.getSkipped()).isEqualTo(4L);
+    assertThat(summary.getSuccessful()).isEqualTo(5L);
+
+    verify(connection)
+        .prepareStatement(
+            "SELECT aborted, duration, failed, skipped, successful "
+                + "FROM `teacup_report`.`session_summary` WHERE session_execution = ?");
+    verify(preparedStatement).setLong(1, 6L);
+  }
+
+  @Test
+  void getSummaryWhenMissing() throws SQLException {
+    when(resultSet.next()).thenReturn(false);
+    assertThat(createReportQuery().getSummary(6L)).isNull();
+  }
+
+  @Test
+  void streamLogs() throws SQLException {
+    mockLog();
+    when(resultSet.next()).thenReturn(true, true, false);
+    properties.setProperty("reporter.mysql.query.fetch.size", "100");
+
+    List<ReportLog> logs = new ArrayList<>(2);
+
+    assertThat(createReportQuery().streamLogs(1L, logs::add)).isEqualTo(2L);
+    assertThat(logs).hasSize(2);
+
+    verify(connection)
+        .prepareStatement(
+            eq(LOG + " ORDER BY time, id"),
+            eq(ResultSet.TYPE_FORWARD_ONLY),
+            eq(ResultSet.CONCUR_READ_ONLY));
+    verify(preparedStatement).setFetchSize(100);
+    verify(resultSet).close();
+  }
+
+  private ReportQuery createReportQuery() {
+    return new ReportQuery(dataSource, new Configuration(properties));
+  }
+
+  private void mockLog() throws SQLException {
+    when(resultSet.getLong(1)).thenReturn(2L);
+    when(resultSet.getString(2)).thenReturn("info");
+    when(resultSet.getString(3)).thenReturn(MESSAGE);
+    when(resultSet.getTimestamp(4)).thenReturn(Timestamp.from(TIME));
+  }
+}
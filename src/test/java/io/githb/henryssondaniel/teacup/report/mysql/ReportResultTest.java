@@ -0,0 +1,22 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.henryssondaniel.teacup.core.testing.Status;
+import org.junit.jupiter.api.Test;
+
+class ReportResultTest {
+  private static final String NAME = "name";
+
+  @Test
+  void toStringWhenSkipped() {
+    assertThat(new ReportResult(1L, NAME, null, null, null, true, "reason", null))
+        .hasToString("name: skipped");
+  }
+
+  @Test
+  void toStringWhenStatus() {
+    assertThat(new ReportResult(1L, NAME, null, null, Status.SUCCESSFUL, false, null, null))
+        .hasToString("name: SUCCESSFUL");
+  }
+}
@@ -0,0 +1,14 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class ReportSessionTest {
+  @Test
+  void toStringWhenRunning() {
+    assertThat(new ReportSession(1L, Instant.EPOCH, null))
+        .hasToString("id=1, initialized=1970-01-01T00:00:00Z, terminated=null");
+  }
+}
@@ -0,0 +1,20 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ReportSummaryTest {
+  private final ReportSummary reportSummary = new ReportSummary(1L, 2L, 3L, 4L, 5L, 6L);
+
+  @Test
+  void getTotal() {
+    assertThat(reportSummary.getTotal()).isEqualTo(17L);
+  }
+
+  @Test
+  void toStringWhenValues() {
+    assertThat(reportSummary)
+        .hasToString("successful=6, failed=4, aborted=2, skipped=5, duration=3");
+  }
+}
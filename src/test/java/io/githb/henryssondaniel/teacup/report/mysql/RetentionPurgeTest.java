@@ -0,0 +1,152 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Properties;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RetentionPurgeTest {
+  private static final String DELETE = "DELETE FROM `teacup_report`.`";
+  private static final Instant NOW = Instant.parse("2026-10-16T12:00:00Z");
+  private static final String TEST = "test";
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource = mock(DataSource.class);
+  private final PreparedStatement deleteStatement = mock(PreparedStatement.class);
+  private final PreparedStatement executionStatement = mock(PreparedStatement.class);
+  private final PreparedStatement lockStatement = mock(PreparedStatement.class);
+  private final PreparedStatement logStatement = mock(PreparedStatement.class);
+  private final Properties properties = new Properties();
+  private final PreparedStatement sessionStatement = mock(PreparedStatement.class);
+  private final PreparedStatement unlockStatement = mock(PreparedStatement.class);
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    when(dataSource.getConnection()).thenReturn(connection);
+
+    when(connection.prepareStatement(startsWith(DELETE))).thenReturn(deleteStatement);
+    when(connection.prepareStatement(startsWith(DELETE + "log`"))).thenReturn(logStatement);
+    when(connection.prepareStatement(startsWith("SELECT GET_LOCK"))).thenReturn(lockStatement);
+    when(connection.prepareStatement(startsWith("SELECT RELEASE_LOCK")))
+        .thenReturn(unlockStatement);
+    when(connection.prepareStatement(startsWith("SELECT id FROM `teacup_report`.`execution`")))
+        .thenReturn(executionStatement);
+    when(connection.prepareStatement(startsWith("SELECT id FROM `teacup_report`.`session")))
+        .thenReturn(sessionStatement);
+
+    when(executionStatement.executeQuery())
+        .thenAnswer(invocation -> createResultSet(10L, 11L))
+        .thenAnswer(invocation -> createResultSet());
+    when(lockStatement.executeQuery()).thenAnswer(invocation -> createResultSet(1L));
+    when(sessionStatement.executeQuery())
+        .thenAnswer(invocation -> createResultSet(1L))
+        .thenAnswer(invocation -> createResultSet());
+    when(unlockStatement.executeQuery()).thenReturn(mock(ResultSet.class));
+
+    properties.setProperty("reporter.mysql.retention.chunk", "2");
+    properties.setProperty("reporter.mysql.retention.pause", "0");
+  }
+
+  @Test
+  void purge() throws SQLException {
+    assertThat(createRetentionPurge().purge(NOW)).isOne();
+
+    verify(connection).prepareStatement(DELETE + "error` WHERE result IN (?, ?)");
+    verify(connection).prepareStatement(DELETE + "result` WHERE id IN (?, ?)");
+    verify(connection)
+        .prepareStatement(
+            DELETE
+                + "reason` WHERE skipped IN (SELECT id FROM `teacup_report`.`skipped` WHERE execution IN (?, ?))");
+    verify(connection).prepareStatement(DELETE + "skipped` WHERE execution IN (?, ?)");
+    verify(connection).prepareStatement(DELETE + "log` WHERE execution IN (?, ?) LIMIT 2");
+    verify(connection).prepareStatement(DELETE + "execution_closure` WHERE ancestor IN (?, ?)");
+    verify(connection).prepareStatement(DELETE + "execution` WHERE id IN (?, ?)");
+    verify(connection)
+        .prepareStatement(DELETE + "session_log` WHERE session_execution = ? LIMIT 2");
+    verify(connection).prepareStatement(DELETE + "session_summary` WHERE session_execution = ?");
+    verify(connection).prepareStatement(DELETE + "session_execution` WHERE id = ?");
+    verify(connection).prepareStatement(DELETE + "node_statistics` WHERE day < ? LIMIT 2");
+    verify(deleteStatement).setDate(1, Date.valueOf(LocalDate.of(2026, 10, 9)));
+    verify(deleteStatement, times(6)).setLong(1, 10L);
+    verify(deleteStatement, times(6)).setLong(2, 11L);
+    verify(deleteStatement, times(3)).setLong(1, 1L);
+    verify(executionStatement).setLong(2, 11L);
+    verify(sessionStatement).setLong(1, 1L);
+    verify(sessionStatement, times(2))
+        .setTimestamp(2, Timestamp.from(Instant.parse("2026-10-09T12:00:00Z")));
+    verify(unlockStatement).executeQuery();
+  }
+
+  @Test
+  void purgeWhenChunked() throws SQLException {
+    when(logStatement.executeUpdate()).thenReturn(2, 2, 1);
+
+    createRetentionPurge().purge(NOW);
+
+    verify(logStatement, times(3)).executeUpdate();
+    verify(logStatement).setLong(1, 10L);
+  }
+
+  @Test
+  void purgeWhenError() throws SQLException {
+    when(deleteStatement.executeUpdate()).thenThrow(new SQLException(TEST));
+
+    assertThat(createRetentionPurge().purge(NOW)).isZero();
+
+    verify(connection, never()).prepareStatement(startsWith(DELETE + "result"));
+    verify(unlockStatement).executeQuery();
+  }
+
+  @Test
+  void purgeWhenLocked() throws SQLException {
+    when(lockStatement.executeQuery()).thenAnswer(invocation -> createResultSet(0L));
+
+    assertThat(createRetentionPurge().purge(NOW)).isZero();
+
+    verify(sessionStatement, never()).executeQuery();
+    verify(unlockStatement, never()).executeQuery();
+  }
+
+  @Test
+  void purgeWhenNoConnection() throws SQLException {
+    when(dataSource.getConnection()).thenThrow(new SQLException(TEST));
+    assertThat(createRetentionPurge().purge(NOW)).isZero();
+  }
+
+  @Test
+  void run() throws SQLException {
+    createRetentionPurge().run();
+    verify(connection).prepareStatement(startsWith(DELETE + "session_execution`"));
+  }
+
+  private static ResultSet createResultSet(long... values) throws SQLException {
+    var resultSet = mock(ResultSet.class);
+    var index = new int[] {-1};
+
+    when(resultSet.next()).thenAnswer(invocation -> ++index[0] < values.length);
+    when(resultSet.getInt(1)).thenAnswer(invocation -> (int) values[index[0]]);
+    when(resultSet.getLong(1)).thenAnswer(invocation -> values[index[0]]);
+
+    return resultSet;
+  }
+
+  private RetentionPurge createRetentionPurge() {
+    return new RetentionPurge(dataSource, new Configuration(properties), 7L);
+  }
+}
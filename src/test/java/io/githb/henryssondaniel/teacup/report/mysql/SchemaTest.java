@@ -0,0 +1,168 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.AdditionalMatchers.and;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SchemaTest {
+  private static final String TEST = "test";
+
+  private final Connection connection = mock(Connection.class);
+  private final PreparedStatement lockStatement = mock(PreparedStatement.class);
+  private final ResultSet lockResultSet = mock(ResultSet.class);
+  private final PreparedStatement seedStatement = mock(PreparedStatement.class);
+  private final Statement statement = mock(Statement.class);
+  private final PreparedStatement unlockStatement = mock(PreparedStatement.class);
+  private final PreparedStatement versionInsertStatement = mock(PreparedStatement.class);
+  private final ResultSet versionResultSet = mock(ResultSet.class);
+  private final PreparedStatement versionStatement = mock(PreparedStatement.class);
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    when(connection.createStatement()).thenReturn(statement);
+    when(connection.prepareStatement(startsWith("INSERT INTO"))).thenReturn(versionInsertStatement);
+    when(connection.prepareStatement(startsWith("INSERT IGNORE"))).thenReturn(seedStatement);
+    when(connection.prepareStatement(startsWith("SELECT GET_LOCK"))).thenReturn(lockStatement);
+    when(connection.prepareStatement(startsWith("SELECT MAX"))).thenReturn(versionStatement);
+    when(connection.prepareStatement(startsWith("SELECT RELEASE_LOCK")))
+        .thenReturn(unlockStatement);
+
+    when(lockResultSet.getInt(1)).thenReturn(1);
+    when(lockResultSet.next()).thenReturn(true);
+    when(lockStatement.executeQuery()).thenReturn(lockResultSet);
+    when(unlockStatement.executeQuery()).thenReturn(mock(ResultSet.class));
+    when(versionResultSet.next()).thenReturn(true);
+    when(versionStatement.executeQuery()).thenReturn(versionResultSet);
+  }
+
+  @Test
+  void migrate() throws SQLException {
+    when(versionStatement.executeQuery()).thenThrow(new SQLException(TEST, TEST, 1049));
+
+    Schema.migrate(connection, Partitioning.NONE);
+
+    verify(lockStatement).setString(1, "teacup_report.schema");
+    verify(seedStatement, times(4)).execute();
+    verify(seedStatement).setString(1, IdAllocator.EXECUTION);
+    verify(statement, times(20)).execute(anyString());
+    verify(statement)
+        .execute(
+            "ALTER TABLE `teacup_report`.`log` ADD INDEX `log.execution_time_idx` "
+                + "(`execution` ASC, `time` ASC) VISIBLE, DROP INDEX `log.execution_idx`");
+    verify(statement).execute(contains("`teacup_report`.`execution_closure`"));
+    verify(statement)
+        .execute(
+            "ALTER TABLE `teacup_report`.`execution` ADD COLUMN `parent` INT UNSIGNED NULL, "
+                + "ADD INDEX `execution.parent_idx` (`parent` ASC) VISIBLE");
+    verify(statement).execute(contains("`teacup_report`.`session_shard`"));
+    verify(statement).execute(contains("`teacup_report`.`session_summary`"));
+    verify(unlockStatement).executeQuery();
+    verify(versionInsertStatement).setInt(1, Schema.VERSION);
+    verify(versionInsertStatement, times(Schema.VERSION)).execute();
+  }
+
+  @Test
+  void migrateWhenCurrent() throws SQLException {
+    when(versionResultSet.getInt(1)).thenReturn(Schema.VERSION);
+
+    Schema.migrate(connection, Partitioning.NONE);
+
+    verify(connection, never()).createStatement();
+    verify(connection, never()).prepareStatement(startsWith("SELECT GET_LOCK"));
+    verify(versionStatement).executeQuery();
+  }
+
+  @Test
+  void migrateWhenError() throws SQLException {
+    when(versionStatement.executeQuery()).thenThrow(new SQLException(TEST));
+
+    assertThatExceptionOfType(SQLException.class)
+        .isThrownBy(() -> Schema.migrate(connection, Partitioning.NONE))
+        .withMessage(TEST);
+
+    verify(connection, never()).createStatement();
+  }
+
+  @Test
+  void migrateWhenMigratedByOther() throws SQLException {
+    when(versionResultSet.getInt(1)).thenReturn(0, Schema.VERSION);
+
+    Schema.migrate(connection, Partitioning.NONE);
+
+    verify(connection, never()).createStatement();
+    verify(lockStatement).executeQuery();
+    verify(unlockStatement).executeQuery();
+  }
+
+  @Test
+  void migrateWhenNotLocked() throws SQLException {
+    when(lockResultSet.getInt(1)).thenReturn(0);
+    when(versionResultSet.getInt(1)).thenReturn(0);
+
+    assertThatExceptionOfType(SQLException.class)
+        .isThrownBy(() -> Schema.migrate(connection, Partitioning.NONE));
+
+    verify(connection, never()).createStatement();
+    verify(unlockStatement, never()).executeQuery();
+  }
+
+  @Test
+  void migrateWhenPartitionedBySession() throws SQLException {
+    when(versionStatement.executeQuery()).thenThrow(new SQLException(TEST, TEST, 1146));
+
+    Schema.migrate(connection, Partitioning.SESSION);
+
+    verify(statement)
+        .execute(
+            and(
+                contains("PRIMARY KEY (`id`, `execution`)"),
+                endsWith(
+                    "PARTITION BY RANGE (`execution`) (PARTITION `pmax` VALUES LESS THAN MAXVALUE);")));
+    verify(statement)
+        .execute(
+            and(
+                contains("PRIMARY KEY (`id`, `session_execution`)"),
+                endsWith(
+                    "PARTITION BY RANGE (`session_execution`) (PARTITION `pmax` VALUES LESS THAN MAXVALUE);")));
+  }
+
+  @Test
+  void migrateWhenPartitionedByTime() throws SQLException {
+    when(versionStatement.executeQuery()).thenThrow(new SQLException(TEST, TEST, 1146));
+
+    Schema.migrate(connection, Partitioning.TIME);
+
+    verify(statement, times(2)).execute(contains("PRIMARY KEY (`id`, `time`)"));
+    verify(statement, times(2)).execute(contains("`time` TIMESTAMP NOT NULL,"));
+    verify(statement, times(2)).execute(contains("PARTITION BY RANGE (UNIX_TIMESTAMP(`time`))"));
+    verify(statement, never()).execute(contains("CONSTRAINT `log.execution`"));
+    verify(statement, never()).execute(contains("CONSTRAINT `session_log.session_execution`"));
+  }
+
+  @Test
+  void migrateWhenUnlockError() throws SQLException {
+    when(unlockStatement.executeQuery()).thenThrow(new SQLException(TEST));
+    when(versionResultSet.getInt(1)).thenReturn(Schema.VERSION - 1, Schema.VERSION - 1);
+
+    Schema.migrate(connection, Partitioning.NONE);
+
+    verify(unlockStatement).executeQuery();
+    verify(versionInsertStatement).setInt(1, Schema.VERSION);
+  }
+}
@@ -0,0 +1,40 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class SessionContextTest {
+  private final LogFilter logFilter = new LogFilter(new Configuration(new Properties()));
+  private final SessionSummary sessionSummary =
+      new SessionSummary(mock(DataSource.class), 0L, new LongAdder());
+  private final SessionContext sessionContext = new SessionContext(1, logFilter, sessionSummary);
+
+  @Test
+  void getId() {
+    assertThat(sessionContext.getId()).isOne();
+  }
+
+  @Test
+  void getLogFilter() {
+    assertThat(sessionContext.getLogFilter()).isSameAs(logFilter);
+  }
+
+  @Test
+  void getNodes() {
+    var node = mock(Node.class);
+    sessionContext.getNodes().add(node);
+
+    assertThat(sessionContext.getNodes()).containsOnly(node);
+  }
+
+  @Test
+  void getSessionSummary() {
+    assertThat(sessionContext.getSessionSummary()).isSameAs(sessionSummary);
+  }
+}
@@ -0,0 +1,158 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.github.henryssondaniel.teacup.core.testing.Status;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SessionSummaryTest {
+  private static final String TEST = "test";
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource = mock(DataSource.class);
+  private final LongAdder failures = new LongAdder();
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+    when(dataSource.getConnection()).thenReturn(connection);
+  }
+
+  @Test
+  void discard() throws SQLException {
+    var sessionSummary = new SessionSummary(dataSource, 0L, failures);
+    sessionSummary.start(1);
+    sessionSummary.skipped();
+    sessionSummary.discard();
+    sessionSummary.terminate(connection);
+
+    verifyNoInteractions(connection);
+  }
+
+  @Test
+  void finished() throws SQLException {
+    var sessionSummary = new SessionSummary(dataSource, 0L, failures);
+    sessionSummary.start(1);
+    sessionSummary.finished(Status.ABORTED, 10L, 15L);
+    sessionSummary.finished(Status.FAILED, 10L, 15L);
+    sessionSummary.finished(Status.SUCCESSFUL, 10L, 15L);
+    sessionSummary.finished(Status.SUCCESSFUL, 10L, 15L);
+    sessionSummary.terminate(connection);
+
+    verify(connection)
+        .prepareStatement(
+            "INSERT INTO `teacup_report`.`session_summary`"
+                + "(session_execution, aborted, duration, failed, skipped, successful) "
+                + "VALUES(?, ?, ?, ?, ?, ?) AS new ON DUPLICATE KEY UPDATE "
+                + "aborted = GREATEST(aborted, new.aborted), "
+                + "duration = GREATEST(duration, new.duration), "
+                + "failed = GREATEST(failed, new.failed), "
+                + "skipped = GREATEST(skipped, new.skipped), "
+                + "successful = GREATEST(successful, new.successful)");
+    verify(preparedStatement).setInt(1, 1);
+    verify(preparedStatement).setLong(2, 1L);
+    verify(preparedStatement).setLong(3, 20L);
+    verify(preparedStatement).setLong(4, 1L);
+    verify(preparedStatement).setLong(5, 0L);
+    verify(preparedStatement).setLong(6, 2L);
+    verify(preparedStatement).execute();
+    assertThat(failures.sum()).isZero();
+    verifyNoInteractions(dataSource);
+  }
+
+  @Test
+  void finishedWhenNotStarted() throws SQLException {
+    var sessionSummary = new SessionSummary(dataSource, 0L, failures);
+    sessionSummary.start(1);
+    sessionSummary.finished(Status.SUCCESSFUL, 0L, 15L);
+    sessionSummary.terminate(connection);
+
+    verify(preparedStatement).setLong(3, 0L);
+    verify(preparedStatement).setLong(6, 1L);
+  }
+
+  @Test
+  void flush() throws SQLException {
+    var sessionSummary = new SessionSummary(dataSource, 1L, failures);
+    sessionSummary.start(1);
+    sessionSummary.skipped();
+
+    verify(preparedStatement, timeout(10_000L)).execute();
+    verify(preparedStatement).setLong(5, 1L);
+  }
+
+  @Test
+  void flushWhenConnectionError() throws SQLException {
+    when(dataSource.getConnection()).thenThrow(new SQLException(TEST));
+
+    var sessionSummary = new SessionSummary(dataSource, 60_000L, failures);
+    sessionSummary.start(1);
+    sessionSummary.skipped();
+    sessionSummary.flush();
+
+    assertThat(failures.sum()).isOne();
+    verifyNoInteractions(connection);
+  }
+
+  @Test
+  void flushWhenUnchanged() {
+    var sessionSummary = new SessionSummary(dataSource, 60_000L, failures);
+    sessionSummary.start(1);
+    sessionSummary.flush();
+
+    verifyNoInteractions(dataSource);
+  }
+
+  @Test
+  void start() throws SQLException {
+    var sessionSummary = new SessionSummary(dataSource, 0L, failures);
+    sessionSummary.start(1);
+    sessionSummary.skipped();
+    sessionSummary.start(2);
+    sessionSummary.terminate(connection);
+
+    verify(preparedStatement).setInt(1, 2);
+    verify(preparedStatement).setLong(5, 0L);
+  }
+
+  @Test
+  void terminateWhenError() throws SQLException {
+    when(preparedStatement.execute()).thenThrow(new SQLException(TEST));
+
+    var sessionSummary = new SessionSummary(dataSource, 0L, failures);
+    sessionSummary.start(1);
+    sessionSummary.terminate(connection);
+
+    assertThat(failures.sum()).isOne();
+    verify(preparedStatement).execute();
+  }
+
+  @Test
+  void terminateWhenNotStarted() {
+    new SessionSummary(dataSource, 0L, failures).terminate(connection);
+    verifyNoInteractions(connection);
+  }
+
+  @Test
+  void terminateWhenTerminated() throws SQLException {
+    var sessionSummary = new SessionSummary(dataSource, 0L, failures);
+    sessionSummary.start(1);
+    sessionSummary.terminate(connection);
+    sessionSummary.terminate(connection);
+
+    verify(preparedStatement).execute();
+  }
+}
@@ -0,0 +1,111 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ShardRouterTest {
+  private static final String TEST = "test";
+
+  private final Connection connection = mock(Connection.class);
+  private final DataSource dataSource = mock(DataSource.class);
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+  private final ResultSet resultSet = mock(ResultSet.class);
+  private final ShardRouter shardRouter = new ShardRouter(dataSource, Partitioning.NONE);
+  private final PreparedStatement versionStatement = mock(PreparedStatement.class);
+
+  @BeforeEach
+  void beforeEach() throws SQLException {
+    when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+    when(connection.prepareStatement(startsWith("SELECT MAX(version)")))
+        .thenReturn(versionStatement);
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+
+    var versionResultSet = mock(ResultSet.class);
+    when(versionResultSet.getInt(1)).thenReturn(Schema.VERSION);
+    when(versionResultSet.next()).thenReturn(true);
+    when(versionStatement.executeQuery()).thenReturn(versionResultSet);
+  }
+
+  @Test
+  void getConnection() throws SQLException {
+    try (var shardConnection = shardRouter.getConnection()) {
+      assertThat(shardConnection).isSameAs(connection);
+    }
+
+    try (var shardConnection = shardRouter.getConnection()) {
+      assertThat(shardConnection).isSameAs(connection);
+    }
+
+    verify(versionStatement).executeQuery();
+  }
+
+  @Test
+  void getConnectionWhenNotMigrated() throws SQLException {
+    when(versionStatement.executeQuery()).thenThrow(new SQLException(TEST));
+
+    assertThatExceptionOfType(SQLException.class)
+        .isThrownBy(shardRouter::getConnection)
+        .withMessage(TEST);
+    assertThatExceptionOfType(SQLException.class).isThrownBy(shardRouter::getConnection);
+
+    verify(connection, times(2)).close();
+  }
+
+  @Test
+  void getHighest() throws SQLException {
+    when(resultSet.getInt(1)).thenReturn(5);
+    when(resultSet.next()).thenReturn(true);
+
+    assertThat(ShardRouter.getHighest(connection, 2)).isEqualTo(5);
+
+    verify(connection)
+        .prepareStatement(
+            "SELECT COALESCE(MAX(session_execution), 0) FROM `teacup_report`.`session_shard` WHERE shard = ?");
+    verify(preparedStatement).setInt(1, 2);
+  }
+
+  @Test
+  void getShard() throws SQLException {
+    when(resultSet.getInt(1)).thenReturn(3);
+    when(resultSet.next()).thenReturn(true);
+
+    assertThat(shardRouter.getShard(1L)).isEqualTo(3);
+
+    verify(connection)
+        .prepareStatement(
+            "SELECT shard FROM `teacup_report`.`session_shard` WHERE session_execution = ?");
+    verify(preparedStatement).setLong(1, 1L);
+  }
+
+  @Test
+  void getShardWhenUnknown() throws SQLException {
+    assertThat(shardRouter.getShard(1L)).isZero();
+  }
+
+  @Test
+  void register() throws SQLException {
+    ShardRouter.register(connection, 1, 2);
+
+    verify(connection)
+        .prepareStatement(
+            "INSERT INTO `teacup_report`.`session_shard`(session_execution, shard) VALUES(?, ?)");
+    verify(preparedStatement).setInt(1, 1);
+    verify(preparedStatement).setInt(2, 2);
+    verify(preparedStatement).execute();
+  }
+}
@@ -0,0 +1,187 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import io.github.henryssondaniel.teacup.core.testing.Result;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.junit.jupiter.api.Test;
+
+class ShardedReporterTest {
+  private static final String REASON = "reason";
+
+  private final Node child = mock(Node.class);
+  private final LogRecord logRecord = new LogRecord(Level.INFO, "message");
+  private final Node node = mock(Node.class);
+  private final DefaultReporter[] reporters = {
+    mock(DefaultReporter.class), mock(DefaultReporter.class), mock(DefaultReporter.class)
+  };
+  private final Result result = mock(Result.class);
+  private final ShardedReporter shardedReporter = new ShardedReporter(reporters);
+
+  @Test
+  void close() {
+    shardedReporter.close();
+    for (var reporter : reporters) verify(reporter).close();
+  }
+
+  @Test
+  void finished() {
+    initializeSession();
+    var reporter = getInitialized();
+
+    shardedReporter.finished(child, result);
+    verify(reporter).finished(child, result);
+  }
+
+  @Test
+  void finishedWhenNoSession() {
+    shardedReporter.finished(node, result);
+    verify(reporters[0]).finished(node, result);
+  }
+
+  @Test
+  void initialize() {
+    shardedReporter.initialize();
+
+    assertThat(Arrays.stream(reporters).filter(ShardedReporterTest::isInitialized)).hasSize(1);
+  }
+
+  @Test
+  void initializeWhenSessions() {
+    for (var session = 0; session < reporters.length; session++) {
+      shardedReporter.initialize();
+      shardedReporter.terminated();
+    }
+
+    for (var reporter : reporters) verify(reporter).initialize();
+  }
+
+  @Test
+  void initializedWhenConcurrent()
+      throws ExecutionException, InterruptedException, TimeoutException {
+    var other = mock(Node.class);
+    var executorService = Executors.newSingleThreadExecutor();
+
+    try {
+      for (var session = 0; session < 10; session++) {
+        clearInvocations((Object[]) reporters);
+
+        executorService
+            .submit(
+                () -> {
+                  shardedReporter.initialize();
+                  shardedReporter.initialized(Collections.singletonList(other));
+                })
+            .get(10L, TimeUnit.SECONDS);
+        var otherReporter = getInitialized();
+
+        clearInvocations((Object[]) reporters);
+
+        shardedReporter.initialize();
+        shardedReporter.initialized(Collections.singletonList(node));
+        var reporter = getInitialized();
+
+        shardedReporter.started(other);
+        shardedReporter.started(node);
+
+        verify(otherReporter).started(other);
+        verify(reporter).started(node);
+
+        shardedReporter.terminated();
+        verify(reporter).terminated();
+
+        clearInvocations((Object[]) reporters);
+        executorService.submit(shardedReporter::terminated).get(10L, TimeUnit.SECONDS);
+        verify(otherReporter).terminated();
+      }
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  @Test
+  void log() {
+    initializeSession();
+    var reporter = getInitialized();
+
+    shardedReporter.log(logRecord, child);
+    shardedReporter.log(logRecord, null);
+
+    verify(reporter).log(logRecord, child);
+    verify(reporter).log(logRecord, null);
+  }
+
+  @Test
+  void skipped() {
+    initializeSession();
+    var reporter = getInitialized();
+
+    shardedReporter.skipped(child, REASON);
+    verify(reporter).skipped(child, REASON);
+  }
+
+  @Test
+  void started() {
+    initializeSession();
+    var reporter = getInitialized();
+
+    shardedReporter.started(child);
+    verify(reporter).started(child);
+  }
+
+  @Test
+  void terminated() {
+    initializeSession();
+    var reporter = getInitialized();
+
+    shardedReporter.terminated();
+    verify(reporter).terminated();
+
+    clearInvocations((Object[]) reporters);
+    shardedReporter.started(child);
+
+    verify(reporters[0]).started(child);
+  }
+
+  @Test
+  void terminatedWhenNoSession() {
+    shardedReporter.terminated();
+
+    verify(reporters[0]).terminated();
+    verifyNoInteractions(reporters[1], reporters[2]);
+  }
+
+  private DefaultReporter getInitialized() {
+    return Arrays.stream(reporters)
+        .filter(ShardedReporterTest::isInitialized)
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private void initializeSession() {
+    doReturn(Collections.singletonList(child)).when(node).getNodes();
+
+    shardedReporter.initialize();
+    shardedReporter.initialized(List.of(node));
+  }
+
+  private static boolean isInitialized(DefaultReporter reporter) {
+    return mockingDetails(reporter).getInvocations().stream()
+        .anyMatch(invocation -> "initialize".equals(invocation.getMethod().getName()));
+  }
+}
@@ -0,0 +1,92 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.henryssondaniel.teacup.core.testing.Node;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StatementEventTest {
+  private static final String NAME = "io.githb.henryssondaniel.teacup.report.mysql.Statement";
+  private static final String STATEMENT = "statement";
+  private static final String TEST = "test";
+
+  private final Node node = mock(Node.class);
+  private final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+
+  @TempDir Path directory;
+
+  @Test
+  void execute() throws IOException, SQLException {
+    when(node.getName()).thenReturn(TEST);
+    when(preparedStatement.getUpdateCount()).thenReturn(1);
+
+    List<RecordedEvent> events;
+
+    try (var recording = new Recording()) {
+      recording.enable(NAME).withoutThreshold();
+      recording.start();
+
+      StatementEvent.execute(preparedStatement, STATEMENT, node);
+
+      events = dump(recording);
+    }
+
+    verify(preparedStatement).execute();
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getString("node")).isEqualTo(TEST);
+    assertThat(events.get(0).getLong("rows")).isOne();
+    assertThat(events.get(0).getString(STATEMENT)).isEqualTo(STATEMENT);
+  }
+
+  @Test
+  void executeBatch() throws IOException, SQLException {
+    when(preparedStatement.executeBatch())
+        .thenReturn(new int[] {1, 2, PreparedStatement.SUCCESS_NO_INFO});
+
+    List<RecordedEvent> events;
+
+    try (var recording = new Recording()) {
+      recording.enable(NAME).withoutThreshold();
+      recording.start();
+
+      StatementEvent.executeBatch(preparedStatement, STATEMENT);
+
+      events = dump(recording);
+    }
+
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getString("node")).isNull();
+    assertThat(events.get(0).getLong("rows")).isEqualTo(3L);
+  }
+
+  @Test
+  void executeWhenNotRecording() throws SQLException {
+    StatementEvent.execute(preparedStatement, STATEMENT, node);
+
+    verify(preparedStatement).execute();
+    verify(preparedStatement, never()).getUpdateCount();
+    verify(node, never()).getName();
+  }
+
+  private List<RecordedEvent> dump(Recording recording) throws IOException {
+    recording.stop();
+
+    var file = directory.resolve("recording.jfr");
+    recording.dump(file);
+
+    return RecordingFile.readAllEvents(file);
+  }
+}
@@ -0,0 +1,23 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TimerSnapshotTest {
+  @Test
+  void getMean() {
+    assertThat(new TimerSnapshot(4L, 10L, 4L, 2L, 3L, 4L).getMean()).isEqualTo(2L);
+  }
+
+  @Test
+  void getMeanWhenEmpty() {
+    assertThat(new TimerSnapshot(0L, 0L, 0L, 0L, 0L, 0L).getMean()).isZero();
+  }
+
+  @Test
+  void toStringWhenValues() {
+    assertThat(new TimerSnapshot(4L, 10L, 4L, 2L, 3L, 4L))
+        .hasToString("count=4, mean=2, p50=2, p90=3, p99=4, max=4");
+  }
+}
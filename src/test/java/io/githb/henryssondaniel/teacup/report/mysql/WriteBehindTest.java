@@ -0,0 +1,104 @@
+package io.githb.henryssondaniel.teacup.report.mysql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+class WriteBehindTest {
+  private static final String KEY = "key";
+
+  @Test
+  void await() {
+    List<Integer> list = Collections.synchronizedList(new ArrayList<>(100));
+    var writeBehind = new WriteBehind(4, 10);
+
+    for (var i = 0; i < 100; i++) {
+      var value = i;
+      writeBehind.submit(KEY, () -> list.add(value));
+    }
+
+    assertThat(writeBehind.await(10_000L)).isTrue();
+    assertThat(list).hasSize(100).isSorted();
+  }
+
+  @Test
+  void awaitWhenFull() {
+    var countDownLatch = new CountDownLatch(1);
+    var writeBehind = new WriteBehind(1, 1);
+
+    writeBehind.submit(KEY, () -> await(countDownLatch));
+    writeBehind.submit(KEY, () -> {});
+
+    assertThat(assertTimeoutPreemptively(Duration.ofSeconds(10L), () -> writeBehind.await(10L)))
+        .isFalse();
+
+    countDownLatch.countDown();
+    assertThat(writeBehind.await(10_000L)).isTrue();
+  }
+
+  @Test
+  void awaitWhenTimeout() throws InterruptedException {
+    var countDownLatch = new CountDownLatch(1);
+    var writeBehind = new WriteBehind(1, 1);
+
+    writeBehind.submit(KEY, () -> await(countDownLatch));
+
+    assertThat(writeBehind.await(10L)).isFalse();
+
+    countDownLatch.countDown();
+    assertThat(writeBehind.await(10_000L)).isTrue();
+  }
+
+  @Test
+  void getQueued() {
+    var countDownLatch = new CountDownLatch(1);
+    var writeBehind = new WriteBehind(1, 10);
+
+    writeBehind.submit(KEY, () -> await(countDownLatch));
+    writeBehind.submit(KEY, () -> {});
+
+    assertThat(writeBehind.getQueued()).isBetween(1, 2);
+
+    countDownLatch.countDown();
+
+    assertThat(writeBehind.await(10_000L)).isTrue();
+    assertThat(writeBehind.getQueued()).isZero();
+  }
+
+  @Test
+  void submitWhenError() {
+    var writeBehind = new WriteBehind(1, 1);
+    writeBehind.submit(
+        KEY,
+        () -> {
+          throw new IllegalStateException(KEY);
+        });
+
+    assertThat(writeBehind.await(10_000L)).isTrue();
+  }
+
+  @Test
+  void submitWhenNoKey() {
+    List<Integer> list = Collections.synchronizedList(new ArrayList<>(1));
+    var writeBehind = new WriteBehind(0, 0);
+
+    writeBehind.submit(null, () -> list.add(1));
+
+    assertThat(writeBehind.await(10_000L)).isTrue();
+    assertThat(list).containsExactly(1);
+  }
+
+  private static void await(CountDownLatch countDownLatch) {
+    try {
+      countDownLatch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}